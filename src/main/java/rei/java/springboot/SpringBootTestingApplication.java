@@ -2,11 +2,23 @@ package rei.java.springboot;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import rei.java.springboot.config.EmployeeRuntimeHints;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(EmployeeRuntimeHints.class)
 public class SpringBootTestingApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(SpringBootTestingApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(SpringBootTestingApplication.class, args);
+		// training run of the "startup" Maven profile: exit once started, so that the JVM dumps the CDS archive
+		if ("onRefresh".equals(System.getProperty("spring.context.exit")))
+			System.exit(SpringApplication.exit(context));
+		// command line import (EmployeeImportRunner) done: exit with its status
+		if (context.getEnvironment().containsProperty("employee.import.file"))
+			System.exit(SpringApplication.exit(context));
 	}
 }
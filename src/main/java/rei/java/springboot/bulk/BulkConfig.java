@@ -0,0 +1,36 @@
+package rei.java.springboot.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// import and export go straight to the employee table through JDBC, so they are off on the memory-store profile
+@Configuration(proxyBeanMethods = false)
+@Profile("!memory-store")
+@EnableConfigurationProperties({EmployeeImportProperties.class, EmployeeExportProperties.class})
+public class BulkConfig {
+
+    @Bean
+    public EmployeeImportService employeeImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                                       ObjectMapper objectMapper, EmployeeImportProperties properties) {
+        return new EmployeeImportService(jdbcTemplate, transactionTemplate, objectMapper, properties);
+    }
+
+    @Bean
+    public EmployeeExportService employeeExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                                       EmployeeExportProperties properties) {
+        return new EmployeeExportService(jdbcTemplate, objectMapper, properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "employee.import", name = "file")
+    public EmployeeImportRunner employeeImportRunner(EmployeeImportService importService,
+                                                     EmployeeImportProperties properties) {
+        return new EmployeeImportRunner(importService, properties);
+    }
+}
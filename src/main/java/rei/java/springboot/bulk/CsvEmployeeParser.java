@@ -0,0 +1,78 @@
+package rei.java.springboot.bulk;
+
+import rei.java.springboot.model.Employee;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CSV with a header row naming the columns, in any order: first_name / firstName / "First Name", last_name and
+ * email. Other columns are ignored. Fields may be quoted with doubled quotes inside, but may not contain line
+ * breaks since the file is split on lines.
+ */
+public class CsvEmployeeParser implements EmployeeRecordParser {
+
+    private final int firstName;
+    private final int lastName;
+    private final int email;
+
+    public CsvEmployeeParser(String header) {
+        List<String> columns = split(header).stream()
+                .map(column -> column.toLowerCase(Locale.ROOT).replaceAll("[^a-z]", ""))
+                .toList();
+        this.firstName = column(columns, "firstname");
+        this.lastName = column(columns, "lastname");
+        this.email = column(columns, "email");
+    }
+
+    @Override
+    public Employee parse(String line) {
+        List<String> fields = split(line);
+        int required = Math.max(firstName, Math.max(lastName, email)) + 1;
+        if (fields.size() < required)
+            throw new IllegalArgumentException("expected at least " + required + " fields, found " + fields.size());
+        return Employee.builder()
+                .firstName(fields.get(firstName))
+                .lastName(fields.get(lastName))
+                .email(fields.get(email))
+                .build();
+    }
+
+    private static int column(List<String> columns, String name) {
+        int index = columns.indexOf(name);
+        if (index < 0)
+            throw new IllegalArgumentException("CSV header has no " + name + " column");
+        return index;
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted)
+            throw new IllegalArgumentException("unterminated quoted field");
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
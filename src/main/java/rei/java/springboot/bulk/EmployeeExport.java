@@ -0,0 +1,7 @@
+package rei.java.springboot.bulk;
+
+import java.time.Instant;
+
+// A generated export file, gzip compressed NDJSON with the fields of the API
+public record EmployeeExport(String name, long bytes, Instant createdAt) {
+}
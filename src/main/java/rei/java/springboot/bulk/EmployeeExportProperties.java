@@ -0,0 +1,21 @@
+package rei.java.springboot.bulk;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.export")
+public class EmployeeExportProperties {
+
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "employee-export");
+    // rows per round trip; on MySQL the driver streams row by row instead (fetch size Integer.MIN_VALUE)
+    private int fetchSize = 1000;
+    // rows per gzip member, every member can be decompressed on its own
+    private int chunkRows = 10_000;
+    // exports kept in the directory, the oldest are deleted after a new one is written
+    private int keep = 7;
+}
@@ -0,0 +1,216 @@
+package rei.java.springboot.bulk;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StreamUtils;
+import rei.java.springboot.model.Employee;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Dumps the employee table to {@code employees-<timestamp>.ndjson.gz}:
+ * <ul>
+ *     <li>rows are read with a forward-only, read-only cursor and written as they arrive, through one reused
+ *     Employee, so memory use does not depend on the table size</li>
+ *     <li>the file is a sequence of gzip members of {@code chunkRows} rows each, any gzip reader reads it as one
+ *     stream, and a consumer may split it on member boundaries</li>
+ *     <li>the file is written under a temporary name and moved in place once complete, so a listed export is
+ *     always whole</li>
+ * </ul>
+ */
+@Slf4j
+public class EmployeeExportService {
+
+    private static final String SELECT = "SELECT id, first_name, last_name, email, version FROM employee WHERE deleted_at IS NULL ORDER BY id";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final Pattern NAME = Pattern.compile("employees-\\d{8}T\\d{6}Z\\.ndjson\\.gz");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter writer;
+    private final EmployeeExportProperties properties;
+    private final Clock clock;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // guarded by this
+    private Future<EmployeeExport> running;
+
+    public EmployeeExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                 EmployeeExportProperties properties) {
+        this(jdbcTemplate, objectMapper, properties, Clock.systemUTC());
+    }
+
+    public EmployeeExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                 EmployeeExportProperties properties, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        // the generator is flushed once per gzip member, not after every row
+        this.writer = objectMapper.writerFor(Employee.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    // nightly export, disabled unless employee.export.cron is set
+    @Scheduled(cron = "${employee.export.cron:-}")
+    public void scheduledExport() {
+        export();
+    }
+
+    // starts an export in the background unless one is running already, returns the running one
+    public synchronized Future<EmployeeExport> start() {
+        if (running == null || running.isDone())
+            running = executor.submit(this::export);
+        return running;
+    }
+
+    public EmployeeExport export() {
+        try {
+            Files.createDirectories(properties.getDirectory());
+            String name = "employees-" + TIMESTAMP.format(clock.instant().atZone(ZoneOffset.UTC)) + ".ndjson.gz";
+            Path target = properties.getDirectory().resolve(name);
+            Path temporary = Files.createTempFile(properties.getDirectory(), "export", ".tmp");
+            long started = System.nanoTime();
+            long rows;
+            try {
+                rows = write(temporary);
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            EmployeeExport export = describe(target);
+            log.info("employee export written {} {} {} {}", kv("file", name), kv("rows", rows),
+                    kv("bytes", export.bytes()), kv("durationMs", (System.nanoTime() - started) / 1_000_000));
+            deleteOldExports();
+            return export;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // newest first
+    public List<EmployeeExport> list() {
+        if (!Files.isDirectory(properties.getDirectory()))
+            return List.of();
+        try (Stream<Path> files = Files.list(properties.getDirectory())) {
+            return files.filter(file -> NAME.matcher(file.getFileName().toString()).matches())
+                    .map(EmployeeExportService::describe)
+                    .sorted(Comparator.comparing(EmployeeExport::name).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // only names of generated exports resolve, anything else (e.g. "../") is not found
+    public Optional<Path> find(String name) {
+        if (!NAME.matcher(name).matches())
+            return Optional.empty();
+        Path file = properties.getDirectory().resolve(name);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private long write(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE)) {
+            Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(fetchSize(connection));
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        return writeMembers(resultSet, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            out.flush();
+            channel.force(false);
+            return rows == null ? 0 : rows;
+        }
+    }
+
+    private long writeMembers(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+        Employee employee = new Employee();
+        long rows = 0;
+        // an empty table still gets one (empty) member, so the file is valid gzip
+        JsonGenerator generator = member(out);
+        while (resultSet.next()) {
+            if (rows > 0 && rows % properties.getChunkRows() == 0) {
+                generator.close();
+                generator = member(out);
+            }
+            employee.setId(resultSet.getLong(1));
+            employee.setFirstName(resultSet.getString(2));
+            employee.setLastName(resultSet.getString(3));
+            employee.setEmail(resultSet.getString(4));
+            employee.setVersion(resultSet.getLong(5));
+            writer.writeValue(generator, employee);
+            generator.writeRaw('\n');
+            rows++;
+        }
+        generator.close();
+        return rows;
+    }
+
+    // closing the generator finishes the gzip member, the file stays open
+    private JsonGenerator member(OutputStream out) throws IOException {
+        return writer.createGenerator(new GZIPOutputStream(StreamUtils.nonClosing(out), BUFFER_SIZE));
+    }
+
+    private int fetchSize(Connection connection) throws SQLException {
+        // Connector/J buffers the whole result set unless the fetch size is Integer.MIN_VALUE
+        return "MySQL".equals(connection.getMetaData().getDatabaseProductName())
+                ? Integer.MIN_VALUE : properties.getFetchSize();
+    }
+
+    private void deleteOldExports() throws IOException {
+        List<EmployeeExport> exports = list();
+        for (EmployeeExport old : exports.subList(Math.min(properties.getKeep(), exports.size()), exports.size()))
+            Files.deleteIfExists(properties.getDirectory().resolve(old.name()));
+    }
+
+    private static EmployeeExport describe(Path file) {
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            return new EmployeeExport(file.getFileName().toString(), Files.size(file), modified.toInstant());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
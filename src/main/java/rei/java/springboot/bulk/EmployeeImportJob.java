@@ -0,0 +1,152 @@
+package rei.java.springboot.bulk;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one import. Chunks finish out of order, the checkpoint only moves over a contiguous run of finished
+ * chunks, so after a crash nothing before the checkpoint offset is lost. Chunks after it may have been committed
+ * already: on resume their rows are found in the table and reported as duplicates.
+ */
+public class EmployeeImportJob {
+
+    public enum Status {
+        // not completed and not running in this instance: importing the file again resumes it
+        INTERRUPTED, RUNNING, COMPLETED, FAILED
+    }
+
+    // lines of the file from firstLine on, ending at endOffset
+    record Chunk(long sequence, long firstLine, List<String> lines, long endOffset) {
+
+        long lastLine() {
+            return firstLine + lines.size() - 1;
+        }
+    }
+
+    record ChunkResult(Chunk chunk, long imported, long duplicates, long invalid) {
+    }
+
+    private final String id;
+    private final Path file;
+    private final Path checkpointPath;
+    private final Path errorReportPath;
+    private final long totalBytes;
+
+    private volatile Status status;
+    private volatile String error;
+    // live counters, ahead of the checkpoint while chunks are in flight
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    // lower-cased emails seen in the file by this run
+    private final Set<String> seenEmails = ConcurrentHashMap.newKeySet();
+
+    // guarded by this
+    private ImportCheckpoint checkpoint;
+    private final TreeMap<Long, ChunkResult> finished = new TreeMap<>();
+    private long nextSequence;
+
+    EmployeeImportJob(String id, Path file, Path workDirectory, long totalBytes, ImportCheckpoint checkpoint) {
+        this.id = id;
+        this.file = file;
+        this.checkpointPath = workDirectory.resolve(id + ".checkpoint");
+        this.errorReportPath = workDirectory.resolve(id + ".errors.csv");
+        this.totalBytes = totalBytes;
+        this.checkpoint = checkpoint;
+        imported.set(checkpoint.imported());
+        duplicates.set(checkpoint.duplicates());
+        invalid.set(checkpoint.invalid());
+        rowsRead.set(checkpoint.imported() + checkpoint.duplicates() + checkpoint.invalid());
+        this.status = checkpoint.completed() ? Status.COMPLETED : Status.INTERRUPTED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Path getErrorReportPath() {
+        return errorReportPath;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    Path getCheckpointPath() {
+        return checkpointPath;
+    }
+
+    synchronized ImportCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+
+    boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+
+    void begin() {
+        status = Status.RUNNING;
+    }
+
+    // false when the email was already seen in the file
+    boolean claim(String email) {
+        return seenEmails.add(email);
+    }
+
+    void record(ChunkResult result) {
+        rowsRead.addAndGet(result.imported() + result.duplicates() + result.invalid());
+        imported.addAndGet(result.imported());
+        duplicates.addAndGet(result.duplicates());
+        invalid.addAndGet(result.invalid());
+    }
+
+    // true when the checkpoint moved
+    synchronized boolean finish(ChunkResult result, ImportErrorReport errorReport) throws IOException {
+        finished.put(result.chunk().sequence(), result);
+        ImportCheckpoint advanced = checkpoint;
+        ChunkResult next;
+        while ((next = finished.remove(nextSequence)) != null) {
+            advanced = advanced.advance(next.chunk().endOffset(), next.chunk().lastLine(),
+                    next.imported(), next.duplicates(), next.invalid());
+            nextSequence++;
+        }
+        if (advanced == checkpoint)
+            return false;
+        errorReport.flush();
+        advanced.save(checkpointPath);
+        checkpoint = advanced;
+        return true;
+    }
+
+    synchronized void complete() throws IOException {
+        checkpoint = checkpoint.complete();
+        checkpoint.save(checkpointPath);
+        status = Status.COMPLETED;
+    }
+
+    void fail(Throwable cause) {
+        error = cause.getMessage() == null ? cause.getClass().getName() : cause.getMessage();
+        status = Status.FAILED;
+    }
+
+    public EmployeeImportStatus status() {
+        ImportCheckpoint committed = getCheckpoint();
+        double percent = totalBytes == 0 ? 100 : Math.floor(committed.offset() * 1000.0 / totalBytes) / 10;
+        return new EmployeeImportStatus(id, file.getFileName().toString(), status, totalBytes, committed.offset(),
+                committed.completed() ? 100 : percent, rowsRead.get(), imported.get(), duplicates.get(), invalid.get(), error);
+    }
+}
@@ -0,0 +1,24 @@
+package rei.java.springboot.bulk;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.import")
+public class EmployeeImportProperties {
+
+    // set on the command line to import a file on startup and exit, see SpringBootTestingApplication
+    private Path file;
+    // uploaded files, checkpoints and error reports
+    private Path workDirectory = Path.of(System.getProperty("java.io.tmpdir"), "employee-import");
+    // lines per chunk: one email lookup and one JDBC batch each
+    private int chunkSize = 1000;
+    // chunks validated and written concurrently, each on its own connection, keep it below the pool size
+    private int threads = 4;
+    private Duration progressInterval = Duration.ofSeconds(5);
+}
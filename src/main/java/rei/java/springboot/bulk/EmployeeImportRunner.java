@@ -0,0 +1,41 @@
+package rei.java.springboot.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Command line import, e.g. {@code java -jar app.jar --employee.import.file=hr-export.csv
+ * --spring.main.web-application-type=none}: imports the file on startup, the application then exits with
+ * status 1 when the import failed (see SpringBootTestingApplication). Running it again after a crash resumes.
+ */
+@Slf4j
+public class EmployeeImportRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private final EmployeeImportService importService;
+    private final EmployeeImportProperties properties;
+    private int exitCode;
+
+    public EmployeeImportRunner(EmployeeImportService importService, EmployeeImportProperties properties) {
+        this.importService = importService;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        EmployeeImportStatus status = importService.run(properties.getFile()).status();
+        log.info("employee import {} {} {} {} {} {}", kv("job", status.id()), kv("status", status.status()),
+                kv("imported", status.imported()), kv("duplicates", status.duplicates()),
+                kv("invalid", status.invalid()), kv("errorReport", importService.find(status.id())
+                        .map(EmployeeImportJob::getErrorReportPath).orElse(null)));
+        exitCode = status.status() == EmployeeImportJob.Status.COMPLETED ? 0 : 1;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
@@ -0,0 +1,432 @@
+package rei.java.springboot.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.outbox.EmployeeChangeEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Imports employees from CSV or NDJSON files:
+ * <ul>
+ *     <li>one coordinator thread per job reads the file through {@link MappedLineReader} and cuts it into chunks</li>
+ *     <li>a pool of workers parses and validates the chunks, drops emails already seen in the file, looks the
+ *     remaining ones up in the table with a single IN query, and inserts the new rows with one JDBC batch, each
+ *     worker in its own transaction, together with their CREATED events in employee_outbox</li>
+ *     <li>the checkpoint file allows resuming after a crash, rejected lines go to a CSV error report</li>
+ * </ul>
+ * A job is identified by its file, importing the same file again resumes it, or returns it when it completed.
+ */
+@Slf4j
+public class EmployeeImportService implements DisposableBean {
+
+    private static final String INSERT = "INSERT INTO employee (first_name, last_name, email) VALUES (?, ?, ?)";
+    private static final String SELECT_EXISTING = "SELECT email FROM employee WHERE email IN (:emails) AND deleted_at IS NULL";
+    private static final String SELECT_INSERTED = "SELECT id, first_name, last_name, email, version FROM employee " +
+            "WHERE email IN (:emails) AND deleted_at IS NULL";
+    private static final String INSERT_EVENT = "INSERT INTO employee_outbox " +
+            "(event_type, employee_id, employee_version, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final int MAX_ATTEMPTS = 5;
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final EmployeeImportProperties properties;
+    private final Map<String, EmployeeImportJob> jobs = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+
+    public EmployeeImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper, EmployeeImportProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Copies an upload to the work directory, named after the SHA-256 of its content, so uploading the same
+     * file again after a crash resumes its import. An unsupported file type is rejected before anything is written.
+     */
+    public Path store(InputStream content, String fileName) throws IOException {
+        if (!isSupported(fileName))
+            throw unsupported(fileName);
+        Files.createDirectories(properties.getWorkDirectory());
+        MessageDigest digest = sha256();
+        Path temporary = Files.createTempFile(properties.getWorkDirectory(), "upload", ".tmp");
+        try (InputStream in = new DigestInputStream(content, digest);
+             OutputStream out = Files.newOutputStream(temporary)) {
+            in.transferTo(out);
+        }
+        Path stored = properties.getWorkDirectory()
+                .resolve(HexFormat.of().formatHex(digest.digest(), 0, 8) + "." + extension(fileName));
+        return Files.move(temporary, stored, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // starts (or resumes) the import in the background, the file format is taken from its extension
+    public EmployeeImportJob start(Path file) throws IOException {
+        EmployeeImportJob job = prepare(file);
+        if (job.isCompleted())
+            return job;
+        EmployeeImportJob current = claim(job);
+        if (current == job) {
+            Thread coordinator = new Thread(() -> execute(job), "employee-import-" + job.getId());
+            coordinator.setDaemon(true);
+            coordinator.start();
+        }
+        return current;
+    }
+
+    // imports (or resumes) on the calling thread
+    public EmployeeImportJob run(Path file) throws IOException {
+        EmployeeImportJob job = prepare(file);
+        if (job.isCompleted())
+            return job;
+        if (claim(job) != job)
+            throw new IllegalStateException("import " + job.getId() + " is already running");
+        execute(job);
+        return job;
+    }
+
+    public Optional<EmployeeImportJob> find(String id) {
+        EmployeeImportJob job = jobs.get(id);
+        if (job != null)
+            return Optional.of(job);
+        // an upload imported by a previous run of the application
+        try (var stored = Files.list(properties.getWorkDirectory())) {
+            Optional<Path> file = stored
+                    .filter(path -> path.getFileName().toString().matches(Pattern.quote(id) + "\\.(csv|ndjson|jsonl)"))
+                    .findFirst();
+            return file.isPresent() ? Optional.of(prepare(file.get())) : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // running jobs stop at the next chunk, their checkpoints let them resume
+        stopping = true;
+    }
+
+    // the job to run, or the one already running for the same file
+    private EmployeeImportJob claim(EmployeeImportJob job) {
+        EmployeeImportJob current = jobs.compute(job.getId(),
+                (id, previous) -> previous != null && previous.isRunning() ? previous : job);
+        if (current == job)
+            job.begin();
+        return current;
+    }
+
+    private EmployeeImportJob prepare(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        if (!isSupported(fileName))
+            throw unsupported(fileName);
+        Files.createDirectories(properties.getWorkDirectory());
+        String id = jobId(file);
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(properties.getWorkDirectory().resolve(id + ".checkpoint"))
+                .orElse(ImportCheckpoint.START);
+        return new EmployeeImportJob(id, file, properties.getWorkDirectory(), Files.size(file), checkpoint);
+    }
+
+    private void execute(EmployeeImportJob job) {
+        ImportCheckpoint checkpoint = job.getCheckpoint();
+        log.info("employee import started {} {} {}", kv("job", job.getId()), kv("file", job.getFile()),
+                kv("resumeOffset", checkpoint.offset()));
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getThreads(), runnable ->
+                new Thread(runnable, "employee-import-" + job.getId() + "-" + threadNumber.incrementAndGet()));
+        // bounds the chunks held in memory when the database is slower than the reader
+        int maxInFlight = properties.getThreads() * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long started = System.nanoTime();
+        try (MappedLineReader reader = new MappedLineReader(job.getFile(), 0);
+             ImportErrorReport errorReport = new ImportErrorReport(job.getErrorReportPath())) {
+            EmployeeRecordParser parser = parser(job.getFile(), reader);
+            long line = Math.max(checkpoint.line(), parser instanceof CsvEmployeeParser ? 1 : 0);
+            if (checkpoint.offset() > reader.offset())
+                reader.seek(checkpoint.offset());
+            long sequence = 0;
+            long lastProgress = System.nanoTime();
+            List<String> lines = new ArrayList<>(properties.getChunkSize());
+            String next;
+            while (job.isRunning() && !stopping) {
+                next = reader.nextLine();
+                if (next != null)
+                    lines.add(next);
+                if (lines.size() == properties.getChunkSize() || (next == null && !lines.isEmpty())) {
+                    EmployeeImportJob.Chunk chunk = new EmployeeImportJob.Chunk(sequence++, line + 1, lines, reader.offset());
+                    line += lines.size();
+                    lines = new ArrayList<>(properties.getChunkSize());
+                    inFlight.acquire();
+                    workers.execute(() -> {
+                        try {
+                            EmployeeImportJob.ChunkResult result = importChunk(job, chunk, parser, errorReport);
+                            job.record(result);
+                            job.finish(result, errorReport);
+                        } catch (Exception e) {
+                            log.error("employee import chunk failed {} {}", kv("job", job.getId()),
+                                    kv("firstLine", chunk.firstLine()), e);
+                            job.fail(e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+                if (System.nanoTime() - lastProgress > properties.getProgressInterval().toNanos()) {
+                    lastProgress = System.nanoTime();
+                    logProgress(job);
+                }
+                if (next == null)
+                    break;
+            }
+            inFlight.acquire(maxInFlight);
+            if (job.isRunning() && !stopping)
+                job.complete();
+            else if (job.isRunning())
+                job.fail(new IllegalStateException("stopped by shutdown"));
+        } catch (IOException e) {
+            job.fail(new UncheckedIOException(e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail(e);
+        } catch (RuntimeException e) {
+            job.fail(e);
+        } finally {
+            workers.shutdown();
+        }
+        log.info("employee import finished {} {} {}", kv("job", job.getId()), kv("status", job.status()),
+                kv("durationMs", (System.nanoTime() - started) / 1_000_000));
+    }
+
+    private EmployeeImportJob.ChunkResult importChunk(EmployeeImportJob job, EmployeeImportJob.Chunk chunk,
+                                                      EmployeeRecordParser parser, ImportErrorReport errorReport)
+            throws IOException {
+        long duplicates = 0;
+        long invalid = 0;
+        List<Employee> candidates = new ArrayList<>(chunk.lines().size());
+        List<Long> candidateLines = new ArrayList<>(chunk.lines().size());
+        for (int i = 0; i < chunk.lines().size(); i++) {
+            String line = chunk.lines().get(i);
+            if (line.isBlank())
+                continue;
+            long lineNumber = chunk.firstLine() + i;
+            Employee employee;
+            try {
+                employee = validate(parser.parse(line));
+            } catch (IllegalArgumentException e) {
+                errorReport.reject(lineNumber, null, e.getMessage());
+                invalid++;
+                continue;
+            }
+            if (!job.claim(employee.getEmail().toLowerCase(Locale.ROOT))) {
+                errorReport.reject(lineNumber, employee.getEmail(), "duplicate email in file");
+                duplicates++;
+                continue;
+            }
+            candidates.add(employee);
+            candidateLines.add(lineNumber);
+        }
+        if (candidates.isEmpty())
+            return new EmployeeImportJob.ChunkResult(chunk, 0, duplicates, invalid);
+
+        Set<String> existing = new HashSet<>();
+        namedParameterJdbcTemplate.query(SELECT_EXISTING,
+                Map.of("emails", candidates.stream().map(Employee::getEmail).toList()),
+                (RowCallbackHandler) rs -> existing.add(rs.getString(1).toLowerCase(Locale.ROOT)));
+        List<Employee> rows = new ArrayList<>(candidates.size());
+        List<Long> rowLines = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Employee employee = candidates.get(i);
+            if (existing.contains(employee.getEmail().toLowerCase(Locale.ROOT))) {
+                errorReport.reject(candidateLines.get(i), employee.getEmail(), "email already exists");
+                duplicates++;
+            } else {
+                rows.add(employee);
+                rowLines.add(candidateLines.get(i));
+            }
+        }
+        long imported = insert(rows, rowLines, errorReport);
+        return new EmployeeImportJob.ChunkResult(chunk, imported, duplicates + rows.size() - imported, invalid);
+    }
+
+    private long insert(List<Employee> rows, List<Long> rowLines, ImportErrorReport errorReport) throws IOException {
+        if (rows.isEmpty())
+            return 0;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.batchUpdate(INSERT, rows, rows.size(), (ps, employee) -> {
+                            ps.setString(1, employee.getFirstName());
+                            ps.setString(2, employee.getLastName());
+                            ps.setString(3, employee.getEmail());
+                        });
+                        insertEvents(rows);
+                    });
+                    return rows.size();
+                } catch (TransientDataAccessException e) {
+                    // lock timeout or deadlock between the workers' transactions, the batch was rolled back
+                    if (attempt == MAX_ATTEMPTS)
+                        throw e;
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(50L << attempt));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        } catch (DataIntegrityViolationException e) {
+            // a row was inserted concurrently (e.g. through the API) since the lookup: fall back to single inserts
+            long imported = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                Employee employee = rows.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.update(INSERT, employee.getFirstName(), employee.getLastName(), employee.getEmail());
+                        insertEvents(List.of(employee));
+                    });
+                    imported++;
+                } catch (DataIntegrityViolationException duplicate) {
+                    errorReport.reject(rowLines.get(i), employee.getEmail(), "email already exists");
+                }
+            }
+            return imported;
+        }
+    }
+
+    // the CREATED events EmployeeOutboxListener writes for the API, read back for the ids and versions the rows got
+    private void insertEvents(List<Employee> rows) {
+        List<Employee> inserted = namedParameterJdbcTemplate.query(SELECT_INSERTED,
+                Map.of("emails", rows.stream().map(Employee::getEmail).toList()),
+                (rs, rowNum) -> Employee.builder()
+                        .id(rs.getLong("id"))
+                        .firstName(rs.getString("first_name"))
+                        .lastName(rs.getString("last_name"))
+                        .email(rs.getString("email"))
+                        .version(rs.getLong("version"))
+                        .build());
+        Timestamp createdAt = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_EVENT, inserted, inserted.size(), (ps, employee) -> {
+            ps.setString(1, EmployeeChangeEvent.Type.CREATED.name());
+            ps.setLong(2, employee.getId());
+            ps.setLong(3, employee.getVersion());
+            ps.setString(4, payload(employee));
+            ps.setTimestamp(5, createdAt);
+        });
+    }
+
+    private String payload(Employee employee) {
+        try {
+            return objectMapper.writeValueAsString(employee);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Employee validate(Employee employee) {
+        if (employee == null)
+            throw new IllegalArgumentException("empty record");
+        require(employee.getFirstName(), "firstName", 100);
+        require(employee.getLastName(), "lastName", 100);
+        require(employee.getEmail(), "email", 320);
+        if (!EMAIL.matcher(employee.getEmail()).matches())
+            throw new IllegalArgumentException("invalid email");
+        return employee;
+    }
+
+    private static void require(String value, String field, int maxLength) {
+        if (value == null || value.isBlank())
+            throw new IllegalArgumentException(field + " is missing");
+        if (value.length() > maxLength)
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+    }
+
+    private EmployeeRecordParser parser(Path file, MappedLineReader reader) throws IOException {
+        if (!"csv".equals(extension(file.getFileName().toString())))
+            return new NdjsonEmployeeParser(objectMapper.readerFor(Employee.class));
+        String header = reader.nextLine();
+        if (header == null)
+            throw new IllegalArgumentException("CSV file is empty");
+        return new CsvEmployeeParser(header);
+    }
+
+    private void logProgress(EmployeeImportJob job) {
+        EmployeeImportStatus status = job.status();
+        log.info("employee import progress {} {} {} {} {} {}", kv("job", job.getId()), kv("percent", status.percent()),
+                kv("rowsRead", status.rowsRead()), kv("imported", status.imported()),
+                kv("duplicates", status.duplicates()), kv("invalid", status.invalid()));
+    }
+
+    // files are identified by path, size and modification time; uploads are named after their content
+    private static String jobId(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        String name = fileName.substring(0, fileName.lastIndexOf('.'));
+        if (name.matches("[0-9a-f]{16}"))
+            return name;
+        String identity = file.toAbsolutePath() + "|" + Files.size(file) + "|" + Files.getLastModifiedTime(file).toMillis();
+        return HexFormat.of().formatHex(sha256().digest(identity.getBytes(StandardCharsets.UTF_8)), 0, 8);
+    }
+
+    private static boolean isSupported(String fileName) {
+        return switch (extension(fileName)) {
+            case "csv", "ndjson", "jsonl" -> true;
+            default -> false;
+        };
+    }
+
+    private static IllegalArgumentException unsupported(String fileName) {
+        return new IllegalArgumentException("unsupported file type, expected .csv, .ndjson or .jsonl: " + fileName);
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName == null ? -1 : fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
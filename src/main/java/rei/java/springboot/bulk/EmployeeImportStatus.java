@@ -0,0 +1,15 @@
+package rei.java.springboot.bulk;
+
+// Progress of an import as returned by GET /api/employee/import/{id}, the row counters include in-flight chunks
+public record EmployeeImportStatus(String id,
+                                   String file,
+                                   EmployeeImportJob.Status status,
+                                   long totalBytes,
+                                   long committedBytes,
+                                   double percent,
+                                   long rowsRead,
+                                   long imported,
+                                   long duplicates,
+                                   long invalid,
+                                   String error) {
+}
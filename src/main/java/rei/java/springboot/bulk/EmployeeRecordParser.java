@@ -0,0 +1,9 @@
+package rei.java.springboot.bulk;
+
+import rei.java.springboot.model.Employee;
+
+// Turns one line of an import file into an employee, invalid lines throw IllegalArgumentException
+public interface EmployeeRecordParser {
+
+    Employee parse(String line);
+}
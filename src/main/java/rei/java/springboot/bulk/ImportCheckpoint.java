@@ -0,0 +1,60 @@
+package rei.java.springboot.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Progress of an import that survives a crash: every line before {@code offset} is committed (or reported),
+ * the counters cover exactly those lines. Written to a temporary file and moved over the previous one, so a
+ * crash while saving leaves the previous checkpoint intact.
+ */
+public record ImportCheckpoint(long offset, long line, long imported, long duplicates, long invalid, boolean completed) {
+
+    public static final ImportCheckpoint START = new ImportCheckpoint(0, 0, 0, 0, 0, false);
+
+    public static Optional<ImportCheckpoint> load(Path path) throws IOException {
+        if (!Files.exists(path))
+            return Optional.empty();
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        return Optional.of(new ImportCheckpoint(
+                Long.parseLong(properties.getProperty("offset")),
+                Long.parseLong(properties.getProperty("line")),
+                Long.parseLong(properties.getProperty("imported")),
+                Long.parseLong(properties.getProperty("duplicates")),
+                Long.parseLong(properties.getProperty("invalid")),
+                Boolean.parseBoolean(properties.getProperty("completed"))));
+    }
+
+    public void save(Path path) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("offset", Long.toString(offset));
+        properties.setProperty("line", Long.toString(line));
+        properties.setProperty("imported", Long.toString(imported));
+        properties.setProperty("duplicates", Long.toString(duplicates));
+        properties.setProperty("invalid", Long.toString(invalid));
+        properties.setProperty("completed", Boolean.toString(completed));
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary)) {
+            properties.store(writer, null);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public ImportCheckpoint advance(long offset, long line, long imported, long duplicates, long invalid) {
+        return new ImportCheckpoint(offset, line, this.imported + imported, this.duplicates + duplicates,
+                this.invalid + invalid, false);
+    }
+
+    public ImportCheckpoint complete() {
+        return new ImportCheckpoint(offset, line, imported, duplicates, invalid, true);
+    }
+}
@@ -0,0 +1,39 @@
+package rei.java.springboot.bulk;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// One CSV row per rejected line: line number, email and reason. A resumed import appends to it.
+public class ImportErrorReport implements Closeable {
+
+    private final BufferedWriter writer;
+
+    public ImportErrorReport(Path path) throws IOException {
+        boolean created = !Files.exists(path);
+        this.writer = Files.newBufferedWriter(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (created)
+            writer.write("line,email,error\n");
+    }
+
+    public synchronized void reject(long line, String email, String error) throws IOException {
+        writer.write(line + "," + quote(email) + "," + quote(error) + "\n");
+    }
+
+    // called before a checkpoint moves past the rejected lines
+    public synchronized void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private static String quote(String value) {
+        return value == null ? "" : "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
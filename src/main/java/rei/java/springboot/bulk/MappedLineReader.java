@@ -0,0 +1,100 @@
+package rei.java.springboot.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the lines of a file through a sliding memory-mapped window, so files larger than the heap (or than the
+ * 2 GB limit of a single mapping) are read without copying them through a stream buffer.
+ * Lines end with LF or CRLF; a UTF-8 byte order mark at the start of the file is skipped.
+ */
+public class MappedLineReader implements Closeable {
+
+    static final int DEFAULT_WINDOW = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private MappedByteBuffer window;
+    // file offset of the window's first byte
+    private long windowStart;
+
+    public MappedLineReader(Path file, long startOffset) throws IOException {
+        this(file, startOffset, DEFAULT_WINDOW);
+    }
+
+    MappedLineReader(Path file, long startOffset, int windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        map(startOffset == 0 ? byteOrderMarkLength() : startOffset, windowSize);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // offset of the first byte after the last line returned
+    public long offset() {
+        return windowStart + window.position();
+    }
+
+    // continues from a line boundary, e.g. a checkpoint offset
+    public void seek(long offset) throws IOException {
+        map(offset, windowSize);
+    }
+
+    // the next line without its terminator, null at the end of the file
+    public String nextLine() throws IOException {
+        while (true) {
+            int start = window.position();
+            for (int i = start; i < window.limit(); i++) {
+                if (window.get(i) == '\n') {
+                    window.position(i + 1);
+                    return decode(start, i);
+                }
+            }
+            long lineStart = windowStart + start;
+            if (windowStart + window.limit() >= size) {
+                if (lineStart >= size)
+                    return null;
+                // last line without terminator
+                window.position(window.limit());
+                return decode(start, window.limit());
+            }
+            // the line crosses the end of the window: map again from its first byte, larger when a single
+            // line does not fit
+            int length = window.limit() - start;
+            map(lineStart, length < windowSize / 2 ? windowSize : (int) Math.min(Integer.MAX_VALUE - 8, 2L * length));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void map(long offset, int length) throws IOException {
+        windowStart = offset;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(length, size - offset));
+    }
+
+    private String decode(int from, int to) {
+        int end = to > from && window.get(to - 1) == '\r' ? to - 1 : to;
+        byte[] bytes = new byte[end - from];
+        window.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int byteOrderMarkLength() throws IOException {
+        if (size < 3)
+            return 0;
+        MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, 3);
+        return (head.get(0) & 0xFF) == 0xEF && (head.get(1) & 0xFF) == 0xBB && (head.get(2) & 0xFF) == 0xBF ? 3 : 0;
+    }
+}
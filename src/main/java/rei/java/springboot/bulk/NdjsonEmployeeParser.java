@@ -0,0 +1,24 @@
+package rei.java.springboot.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import rei.java.springboot.model.Employee;
+
+// One JSON object per line, with the field names of the API (see EmployeeJsonComponent)
+public class NdjsonEmployeeParser implements EmployeeRecordParser {
+
+    private final ObjectReader reader;
+
+    public NdjsonEmployeeParser(ObjectReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public Employee parse(String line) {
+        try {
+            return reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+}
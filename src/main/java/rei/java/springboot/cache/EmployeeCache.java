@@ -0,0 +1,141 @@
+package rei.java.springboot.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import rei.java.springboot.model.Employee;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Bounded, in-process cache of employees by id for the batch lookup: least recently used entries are evicted first,
+// and every entry expires after the TTL, which bounds how stale it gets when the invalidation of a row changed by
+// another instance is lost (EmployeeInvalidationBus).
+// Expired entries are kept for staleTtl more, for getStale only: the fallback of reads while the database is
+// unavailable, until a read that reaches it again reloads them.
+// Entries are copies, callers can never change what other callers read.
+public class EmployeeCache {
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Duration staleTtl;
+    private final Clock clock;
+    private final LinkedHashMap<Long, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    // incremented by every evict, a load that raced with one is not cached
+    private long generation;
+
+    public EmployeeCache(int maxEntries, Duration ttl, MeterRegistry meterRegistry) {
+        this(maxEntries, ttl, Duration.ZERO, meterRegistry, Clock.systemUTC());
+    }
+
+    public EmployeeCache(int maxEntries, Duration ttl, Duration staleTtl, MeterRegistry meterRegistry) {
+        this(maxEntries, ttl, staleTtl, meterRegistry, Clock.systemUTC());
+    }
+
+    public EmployeeCache(int maxEntries, Duration ttl, Duration staleTtl, MeterRegistry meterRegistry, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.staleTtl = staleTtl;
+        this.clock = clock;
+        // access order: a hit moves the entry to the tail
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = gets("hit", meterRegistry);
+        this.misses = gets("miss", meterRegistry);
+        this.staleHits = gets("stale", meterRegistry);
+        Gauge.builder("cache.size", this, EmployeeCache::size)
+                .tag("cache", "employee")
+                .register(meterRegistry);
+    }
+
+    // the cached employees among the ids, ids missing from the result have to be loaded
+    public synchronized Map<Long, Employee> getAll(Collection<Long> ids) {
+        Instant now = clock.instant();
+        Map<Long, Employee> found = new HashMap<>();
+        for (Long id : ids) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.isStale(now, staleTtl)) {
+                entries.remove(id);
+                entry = null;
+            }
+            if (entry != null && !entry.isExpired(now))
+                found.put(id, copy(entry.employee()));
+        }
+        hits.increment(found.size());
+        misses.increment(ids.size() - found.size());
+        return found;
+    }
+
+    // the cached employee, expired or not, as long as it is within staleTtl of its expiry
+    public synchronized Optional<Employee> getStale(long id) {
+        Entry entry = entries.get(id);
+        if (entry == null || entry.isStale(clock.instant(), staleTtl))
+            return Optional.empty();
+        staleHits.increment();
+        return Optional.of(copy(entry.employee()));
+    }
+
+    // to be read before loading, and passed to putAll with the loaded employees
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void putAll(Collection<Employee> employees, long loadedAtGeneration) {
+        if (maxEntries == 0 || loadedAtGeneration != generation)
+            return;
+        Instant expiresAt = clock.instant().plus(ttl);
+        for (Employee employee : employees)
+            entries.put(employee.getId(), new Entry(copy(employee), expiresAt));
+    }
+
+    public synchronized void evict(long id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static Employee copy(Employee employee) {
+        return Employee.builder()
+                .id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(employee.getVersion())
+                .build();
+    }
+
+    private static Counter gets(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("cache.gets")
+                .description("Employee cache lookups")
+                .tag("cache", "employee")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(Employee employee, Instant expiresAt) {
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+
+        boolean isStale(Instant now, Duration staleTtl) {
+            return !now.isBefore(expiresAt.plus(staleTtl));
+        }
+    }
+}
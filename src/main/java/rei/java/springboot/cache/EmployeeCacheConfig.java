@@ -0,0 +1,46 @@
+package rei.java.springboot.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(EmployeeCacheProperties.class)
+public class EmployeeCacheConfig {
+
+    @Bean
+    public EmployeeCache employeeCache(EmployeeCacheProperties properties, MeterRegistry meterRegistry) {
+        return new EmployeeCache(properties.getMaxEntries(), properties.getTtl(), properties.getStaleTtl(),
+                meterRegistry);
+    }
+
+    // closed after the bus, which flushes first
+    @Bean
+    public InvalidationTransport invalidationTransport(EmployeeCacheProperties properties) throws IOException {
+        EmployeeCacheProperties.Invalidation invalidation = properties.getInvalidation();
+        return switch (invalidation.getTransport()) {
+            case NONE -> InvalidationTransport.none();
+            case IN_JVM -> new InJvmInvalidationTransport(invalidation.getChannel());
+            case MULTICAST -> new MulticastInvalidationTransport(
+                    new InetSocketAddress(InetAddress.getByName(invalidation.getGroup()), invalidation.getPort()),
+                    invalidation.getNetworkInterface() == null
+                            ? NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress())
+                            : NetworkInterface.getByName(invalidation.getNetworkInterface()),
+                    invalidation.getTimeToLive());
+        };
+    }
+
+    @Bean
+    public EmployeeInvalidationBus employeeInvalidationBus(EmployeeCache employeeCache, InvalidationTransport transport,
+                                                           EmployeeCacheProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        return new EmployeeInvalidationBus(employeeCache, transport, properties.getInvalidation().getMaxBatch(),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package rei.java.springboot.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.cache")
+public class EmployeeCacheProperties {
+
+    // upper bound of the cache, 0 disables it
+    private int maxEntries = 10_000;
+    // how long an employee is served from the cache, i.e. how stale a change made by another instance can be when
+    // its invalidation is lost
+    private Duration ttl = Duration.ofSeconds(30);
+    // how long after the ttl an employee is still served while the database is unavailable (circuit breaker open)
+    private Duration staleTtl = Duration.ofMinutes(10);
+    private Invalidation invalidation = new Invalidation();
+
+    @Getter
+    @Setter
+    public static class Invalidation {
+
+        // how the instances tell each other about their writes, see EmployeeInvalidationBus
+        private Transport transport = Transport.NONE;
+        // in-jvm: the transports of one channel reach each other
+        private String channel = "employee-cache";
+        // multicast: group and port, the same for all instances
+        private String group = "239.255.42.42";
+        private int port = 4446;
+        // multicast: the interface name, the loopback one by default (instances on one host)
+        private String networkInterface;
+        // multicast: 0 stays on the host, 1 on the local network
+        private int timeToLive = 0;
+        // how long invalidated ids are coalesced before they are sent
+        private Duration batchInterval = Duration.ofMillis(50);
+        // ids sent at once, a batch this large is sent without waiting for the interval
+        private int maxBatch = 1000;
+    }
+
+    public enum Transport {
+        // a single instance
+        NONE,
+        // several application contexts in one JVM
+        IN_JVM,
+        // UDP multicast, no broker
+        MULTICAST
+    }
+}
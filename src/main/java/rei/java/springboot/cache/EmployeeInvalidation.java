@@ -0,0 +1,49 @@
+package rei.java.springboot.cache;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * One message of the {@link EmployeeInvalidationBus}: the ids whose cached employees are stale, sent by the node
+ * {@code origin}. {@code invalidatedAt} is when the oldest of them was invalidated, the receiver measures the
+ * invalidation lag from it. Encoded as magic, origin, invalidatedAt, id count and ids, small enough for a datagram.
+ */
+public record EmployeeInvalidation(UUID origin, long invalidatedAt, long[] ids) {
+
+    private static final int MAGIC = 0x45494E56;
+    private static final int HEADER = Integer.BYTES + 3 * Long.BYTES + Integer.BYTES;
+    // the largest UDP payload
+    public static final int MAX_IDS = (65_507 - HEADER) / Long.BYTES;
+
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + ids.length * Long.BYTES)
+                .putInt(MAGIC)
+                .putLong(origin.getMostSignificantBits())
+                .putLong(origin.getLeastSignificantBits())
+                .putLong(invalidatedAt)
+                .putInt(ids.length);
+        for (long id : ids)
+            buffer.putLong(id);
+        return buffer.array();
+    }
+
+    public static EmployeeInvalidation decode(byte[] message) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(message);
+            if (buffer.getInt() != MAGIC)
+                throw new IllegalArgumentException("Not an employee invalidation");
+            UUID origin = new UUID(buffer.getLong(), buffer.getLong());
+            long invalidatedAt = buffer.getLong();
+            int count = buffer.getInt();
+            if (count < 0 || count != buffer.remaining() / Long.BYTES || buffer.remaining() % Long.BYTES != 0)
+                throw new IllegalArgumentException("Truncated employee invalidation");
+            long[] ids = new long[count];
+            for (int i = 0; i < count; i++)
+                ids[i] = buffer.getLong();
+            return new EmployeeInvalidation(origin, invalidatedAt, ids);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated employee invalidation", e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package rei.java.springboot.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Keeps the {@link EmployeeCache} of every instance in step with the writes of the others: the write paths of
+ * EmployeeServiceImpl invalidate the ids they changed, which evicts them here at once and on the other nodes with
+ * the next flush.
+ * <ul>
+ *     <li>ids are coalesced until the flush, every batch-interval or once max-batch ids are pending: a row written
+ *     many times in between is sent once, and the message rate is bounded whatever the write rate</li>
+ *     <li>{@code cache.invalidation.lag} is the time from the oldest invalidation of a message to its eviction on a
+ *     receiving node (both clocks, only meaningful between hosts with synchronized clocks)</li>
+ *     <li>a message that is not sent or lost leaves the stale entries to the cache TTL</li>
+ * </ul>
+ */
+@Slf4j
+public class EmployeeInvalidationBus implements Closeable {
+
+    private final UUID origin = UUID.randomUUID();
+    private final EmployeeCache cache;
+    private final InvalidationTransport transport;
+    private final int maxBatch;
+    private final Clock clock;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    // when the oldest pending id was invalidated, 0 when none is
+    private final AtomicLong oldestPending = new AtomicLong();
+    private final Counter requested;
+    private final Counter sent;
+    private final Counter received;
+    private final Counter messagesSent;
+    private final Counter messagesReceived;
+    private final Counter messagesFailed;
+    private final Timer lag;
+
+    public EmployeeInvalidationBus(EmployeeCache cache, InvalidationTransport transport, int maxBatch,
+                                   MeterRegistry meterRegistry) {
+        this(cache, transport, maxBatch, meterRegistry, Clock.systemUTC());
+    }
+
+    public EmployeeInvalidationBus(EmployeeCache cache, InvalidationTransport transport, int maxBatch,
+                                   MeterRegistry meterRegistry, Clock clock) {
+        this.cache = cache;
+        this.transport = transport;
+        this.maxBatch = Math.min(maxBatch, EmployeeInvalidation.MAX_IDS);
+        this.clock = clock;
+        this.requested = ids("requested", meterRegistry);
+        this.sent = ids("sent", meterRegistry);
+        this.received = ids("received", meterRegistry);
+        this.messagesSent = messages("sent", meterRegistry);
+        this.messagesReceived = messages("received", meterRegistry);
+        this.messagesFailed = messages("failed", meterRegistry);
+        this.lag = Timer.builder("cache.invalidation.lag")
+                .description("From the invalidation of an employee to its eviction on another instance")
+                .tag("cache", "employee")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        transport.listen(this::receive);
+    }
+
+    // to be called once the write is committed
+    public void invalidate(long id) {
+        cache.evict(id);
+        requested.increment();
+        oldestPending.compareAndSet(0, clock.millis());
+        pending.add(id);
+        if (pending.size() >= maxBatch)
+            flush();
+    }
+
+    @Scheduled(fixedDelayString = "${employee.cache.invalidation.batch-interval:PT0.05S}")
+    public void flush() {
+        if (pending.isEmpty())
+            return;
+        long invalidatedAt = oldestPending.getAndSet(0);
+        if (invalidatedAt == 0)
+            invalidatedAt = clock.millis();
+        long[] batch = new long[maxBatch];
+        int size = 0;
+        for (Long id : pending) {
+            // a concurrent flush sends the ids it removed itself
+            if (!pending.remove(id))
+                continue;
+            batch[size++] = id;
+            if (size == maxBatch) {
+                send(invalidatedAt, batch, size);
+                size = 0;
+            }
+        }
+        if (size > 0)
+            send(invalidatedAt, batch, size);
+    }
+
+    // the pending ids are sent before the transport is closed
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void send(long invalidatedAt, long[] batch, int size) {
+        try {
+            transport.send(new EmployeeInvalidation(origin, invalidatedAt, Arrays.copyOf(batch, size)).encode());
+            messagesSent.increment();
+            sent.increment(size);
+        } catch (Exception e) {
+            messagesFailed.increment();
+            log.warn("Employee cache invalidation not sent, other instances serve the ids until their TTL {}",
+                    kv("ids", size), e);
+        }
+    }
+
+    private void receive(byte[] message) {
+        EmployeeInvalidation invalidation;
+        try {
+            invalidation = EmployeeInvalidation.decode(message);
+        } catch (IllegalArgumentException e) {
+            messagesFailed.increment();
+            log.warn("Employee cache invalidation ignored {}", kv("bytes", message.length), e);
+            return;
+        }
+        // multicast loops our own messages back
+        if (invalidation.origin().equals(origin))
+            return;
+        for (long id : invalidation.ids())
+            cache.evict(id);
+        messagesReceived.increment();
+        received.increment(invalidation.ids().length);
+        lag.record(Math.max(0, clock.millis() - invalidation.invalidatedAt()), TimeUnit.MILLISECONDS);
+    }
+
+    private static Counter ids(String stage, MeterRegistry meterRegistry) {
+        return Counter.builder("cache.invalidation.ids")
+                .description("Employee ids invalidated here, sent to and received from the other instances")
+                .tag("cache", "employee")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private static Counter messages(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("cache.invalidation.messages")
+                .description("Employee cache invalidation messages")
+                .tag("cache", "employee")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,42 @@
+package rei.java.springboot.cache;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+// Several application contexts in one JVM (tests, embedded setups): messages are handed to the other transports of
+// the same channel, on the sender's thread
+public class InJvmInvalidationTransport implements InvalidationTransport {
+
+    private static final Map<String, Set<InJvmInvalidationTransport>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private volatile Consumer<byte[]> receiver;
+
+    public InJvmInvalidationTransport(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void send(byte[] message) {
+        for (InJvmInvalidationTransport transport : CHANNELS.getOrDefault(channel, Set.of()))
+            if (transport != this)
+                transport.receiver.accept(message.clone());
+    }
+
+    @Override
+    public void listen(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        CHANNELS.computeIfAbsent(channel, name -> new CopyOnWriteArraySet<>()).add(this);
+    }
+
+    @Override
+    public void close() {
+        CHANNELS.computeIfPresent(channel, (name, transports) -> {
+            transports.remove(this);
+            return transports.isEmpty() ? null : transports;
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package rei.java.springboot.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+// How EmployeeInvalidationBus messages reach the other nodes: best effort, a lost message leaves the entries
+// to the cache TTL. See InJvmInvalidationTransport and MulticastInvalidationTransport.
+public interface InvalidationTransport extends Closeable {
+
+    // to every node listening on the same channel, possibly this one too
+    void send(byte[] message) throws IOException;
+
+    // called once, before the first send
+    void listen(Consumer<byte[]> receiver);
+
+    // single node: there is nobody to tell
+    static InvalidationTransport none() {
+        return new InvalidationTransport() {
+
+            @Override
+            public void send(byte[] message) {
+            }
+
+            @Override
+            public void listen(Consumer<byte[]> receiver) {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
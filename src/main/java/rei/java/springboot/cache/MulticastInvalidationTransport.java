@@ -0,0 +1,71 @@
+package rei.java.springboot.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.StandardSocketOptions;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+// Nodes without a broker: one UDP datagram per message to a multicast group, received by a daemon thread.
+// On the loopback interface with a time to live of 0 it stays on the host, several instances on one machine.
+@Slf4j
+public class MulticastInvalidationTransport implements InvalidationTransport {
+
+    private final InetSocketAddress group;
+    private final MulticastSocket socket;
+
+    public MulticastInvalidationTransport(InetSocketAddress group, NetworkInterface networkInterface, int timeToLive)
+            throws IOException {
+        this.group = group;
+        this.socket = new MulticastSocket(group.getPort());
+        try {
+            socket.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+            socket.setTimeToLive(timeToLive);
+            socket.joinGroup(group, networkInterface);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void send(byte[] message) throws IOException {
+        socket.send(new DatagramPacket(message, message.length, group));
+    }
+
+    @Override
+    public void listen(Consumer<byte[]> receiver) {
+        Thread thread = new Thread(() -> receive(receiver), "employee-cache-invalidation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        // ends the receive() of the listening thread
+        socket.close();
+    }
+
+    private void receive(Consumer<byte[]> receiver) {
+        byte[] buffer = new byte[65_535];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (!socket.isClosed()) {
+            try {
+                // receive() shrinks the length to the datagram's
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+                receiver.accept(Arrays.copyOf(packet.getData(), packet.getLength()));
+            } catch (IOException | RuntimeException e) {
+                if (!socket.isClosed())
+                    log.warn("Employee cache invalidation not received {}", kv("group", group), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package rei.java.springboot.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.model.EmployeeLookupResult;
+
+// Reachability metadata for the native image, on top of what Spring AOT infers from the bean definitions
+public class EmployeeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Hibernate instantiates the entity and reads/writes its fields reflectively,
+        // Jackson goes through the Lombok generated getters and setters
+        hints.reflection().registerType(Employee.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.DECLARED_FIELDS);
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), Employee.class,
+                EmployeeLookupResult.class);
+
+        // Flyway scans the vendor specific migration folders
+        hints.resources().registerPattern("db/migration/*/*.sql");
+    }
+}
@@ -0,0 +1,25 @@
+package rei.java.springboot.config;
+
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration(proxyBeanMethods = false)
+public class HibernateIntegratorConfig {
+
+    // Hibernate takes a single IntegratorProvider: the Integrator beans (EmployeeStatsListener, EmployeeOutboxListener)
+    // are registered together, before the EntityManagerFactory is built and so before the first write
+    @Bean
+    public HibernatePropertiesCustomizer hibernateIntegrators(ObjectProvider<Integrator> integrators) {
+        return properties -> {
+            List<Integrator> all = integrators.orderedStream().toList();
+            properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> all);
+        };
+    }
+}
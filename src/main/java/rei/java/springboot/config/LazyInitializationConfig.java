@@ -0,0 +1,29 @@
+package rei.java.springboot.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfig {
+
+    // with spring.main.lazy-initialization=true a bean is never created unless something asks for it,
+    // so beans that only do background work through @Scheduled methods have to stay eager
+    @Bean
+    public static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> hasScheduledMethods(beanType);
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        AtomicBoolean scheduled = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType,
+                method -> scheduled.set(true),
+                method -> !scheduled.get() && AnnotatedElementUtils.hasAnnotation(method, Scheduled.class));
+        return scheduled.get();
+    }
+}
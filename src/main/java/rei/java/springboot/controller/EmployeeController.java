@@ -1,23 +1,41 @@
 package rei.java.springboot.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import rei.java.springboot.model.Employee;
+import rei.java.springboot.model.EmployeeLookupResult;
+import rei.java.springboot.resilience.EmployeeUnavailableException;
 import rei.java.springboot.service.EmployeeService;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
 // To make it a SpringMvc Controller
 @RestController
 @RequestMapping("/api/employee")
 public class EmployeeController {
 
+    private static final Pattern ETAG = Pattern.compile("\"\\d{1,18}\"");
+
     private final EmployeeService employeeService;
+    // upper bound of the ids of one batch lookup
+    private final int maxLookupIds;
 
     // Constructor based injection
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService,
+                              @Value("${employee.lookup.max-ids:1000}") int maxLookupIds) {
         this.employeeService = employeeService;
+        this.maxLookupIds = maxLookupIds;
     }
 
     @PostMapping
@@ -26,27 +44,76 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    // the list, unless the backend writes the JSON itself (memory store): that is streamed on the MVC task executor.
+    // Object, because Spring MVC picks the StreamingResponseBody handling by the type of the value returned.
     @GetMapping
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployee();
+    public Object getAllEmployees(HttpServletResponse response) {
+        Optional<StreamingResponseBody> body = employeeService.streamAllEmployees();
+        if (body.isEmpty())
+            return employeeService.getAllEmployee();
+        // no message converter runs for a StreamingResponseBody
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        return body.get();
+    }
+
+    // batch lookup, one round trip instead of one per id: GET /api/employee?ids=1,2,3
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<EmployeeLookupResult>> getEmployeesByIds(@RequestParam("ids") List<Long> ids) {
+        return lookup(ids);
+    }
+
+    // the same for id lists too long for a URL
+    @PostMapping("lookup")
+    public ResponseEntity<List<EmployeeLookupResult>> lookupEmployees(@RequestBody List<Long> ids) {
+        return lookup(ids);
+    }
+
+    // GET /api/employee?firstName=John&lastName=Doe: 409 when the name is not unique
+    @GetMapping(params = {"firstName", "lastName"})
+    public ResponseEntity<Employee> getEmployeeByName(@RequestParam("firstName") String firstName,
+                                                      @RequestParam("lastName") String lastName) {
+        try {
+            return employeeService.getEmployeeByName(firstName, lastName)
+                    .map(employee -> ResponseEntity.ok().eTag(eTag(employee)).body(employee))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IncorrectResultSizeDataAccessException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @GetMapping("{id}")
     public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long id) {
         return employeeService.getEmployeeById(id)
-                .map(ResponseEntity::ok)
+                .map(employee -> ResponseEntity.ok().eTag(eTag(employee)).body(employee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // With If-Match, only the version the client read is updated: otherwise 412 and the current ETag.
+    // Without it, conflicting concurrent updates are retried by the service, 409 once it gives up.
     @PutMapping("{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long id, @RequestBody Employee employee) {
+    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long id, @RequestBody Employee employee,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+       boolean conditional = ifMatch != null && !"*".equals(ifMatch.trim());
        return employeeService.getEmployeeById(id).map(foundEmployee -> {
+           Long expectedVersion = conditional ? expectedVersion(ifMatch, foundEmployee) : null;
+           if (conditional && expectedVersion == null)
+               return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(eTag(foundEmployee)).<Employee>build();
            foundEmployee.setFirstName(employee.getFirstName());
            foundEmployee.setLastName(employee.getLastName());
            foundEmployee.setEmail(employee.getEmail());
-           Employee updatedEmployee = employeeService.updateEmployee(foundEmployee);
-
-           return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
+           try {
+               Employee updatedEmployee = conditional
+                       ? employeeService.updateEmployee(foundEmployee, expectedVersion)
+                       : employeeService.updateEmployee(foundEmployee);
+               return ResponseEntity.ok().eTag(eTag(updatedEmployee)).body(updatedEmployee);
+           } catch (OptimisticLockingFailureException e) {
+               if (!conditional)
+                   return ResponseEntity.status(HttpStatus.CONFLICT).<Employee>build();
+               // the version to read again before a retry
+               return employeeService.getEmployeeById(id)
+                       .map(current -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(eTag(current)).<Employee>build())
+                       .orElseGet(() -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+           }
        }).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -55,4 +122,38 @@ public class EmployeeController {
         employeeService.deleteEmployee(employeeId);
         return new ResponseEntity<>("Employee deleted successfully!", HttpStatus.OK);
     }
+
+    // the database is not asked while it is unavailable (EmployeeRepositoryGuard), nor are the clients kept waiting
+    @ExceptionHandler(EmployeeUnavailableException.class)
+    public ResponseEntity<String> unavailable(EmployeeUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    private ResponseEntity<List<EmployeeLookupResult>> lookup(List<Long> ids) {
+        if (ids.size() > maxLookupIds || ids.contains(null))
+            return ResponseEntity.badRequest().build();
+        Map<Long, Employee> employees = employeeService.getEmployeesById(ids);
+        return ResponseEntity.ok(ids.stream()
+                .map(id -> EmployeeLookupResult.of(id, employees.get(id)))
+                .toList());
+    }
+
+    private static String eTag(Employee employee) {
+        return "\"" + employee.getVersion() + "\"";
+    }
+
+    // the version of the client's entity tag, checked by the update itself. Of a list of tags, the current version if
+    // listed; null when the list has no strong tag of ours, weak W/ tags never match
+    private static Long expectedVersion(String ifMatch, Employee current) {
+        Long expectedVersion = null;
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (!ETAG.matcher(trimmed).matches())
+                continue;
+            long version = Long.parseLong(trimmed.substring(1, trimmed.length() - 1));
+            if (expectedVersion == null || version == current.getVersion())
+                expectedVersion = version;
+        }
+        return expectedVersion;
+    }
 }
@@ -0,0 +1,76 @@
+package rei.java.springboot.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import rei.java.springboot.bulk.EmployeeExport;
+import rei.java.springboot.bulk.EmployeeExportService;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+// Full dumps of the employee table for downstream systems, instead of GET /api/employee
+@RestController
+@Profile("!memory-store")
+@RequestMapping("/api/employee/export")
+public class EmployeeExportController {
+
+    // Tomcat writes the file with sendfile(2) once the request completes, when the connector supports it
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final EmployeeExportService exportService;
+
+    public EmployeeExportController(EmployeeExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Void> startExport() {
+        exportService.start();
+        return ResponseEntity.accepted().location(ServletUriComponentsBuilder.fromCurrentRequest().build().toUri()).build();
+    }
+
+    @GetMapping
+    public List<EmployeeExport> getExports() {
+        return exportService.list();
+    }
+
+    @GetMapping("{name}")
+    public void downloadExport(@PathVariable("name") String name, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        Optional<Path> export = exportService.find(name);
+        if (export.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(export.get())) {
+            long size = channel.size();
+            response.setContentType("application/gzip");
+            response.setContentLengthLong(size);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(name).build().toString());
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, export.get().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+            // other containers: transferTo lets the JDK pick the cheapest copy to the response channel
+            WritableByteChannel body = Channels.newChannel(response.getOutputStream());
+            for (long position = 0; position < size; )
+                position += channel.transferTo(position, size - position, body);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package rei.java.springboot.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import rei.java.springboot.bulk.EmployeeImportJob;
+import rei.java.springboot.bulk.EmployeeImportService;
+import rei.java.springboot.bulk.EmployeeImportStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Bulk import of CSV / NDJSON files, the import runs in the background and is polled through its status
+@RestController
+@Profile("!memory-store")
+@RequestMapping("/api/employee/import")
+public class EmployeeImportController {
+
+    private final EmployeeImportService importService;
+
+    public EmployeeImportController(EmployeeImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<EmployeeImportStatus> importEmployees(@RequestParam("file") MultipartFile file) throws IOException {
+        EmployeeImportJob job;
+        try (InputStream content = file.getInputStream()) {
+            Path stored = importService.store(content, file.getOriginalFilename());
+            job = importService.start(stored);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").build(job.getId()))
+                .body(job.status());
+    }
+
+    @GetMapping("{id}")
+    public ResponseEntity<EmployeeImportStatus> getImportStatus(@PathVariable("id") String id) {
+        return importService.find(id)
+                .map(job -> ResponseEntity.ok(job.status()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "{id}/errors", produces = "text/csv")
+    public ResponseEntity<Resource> getImportErrors(@PathVariable("id") String id) {
+        return importService.find(id)
+                .map(EmployeeImportJob::getErrorReportPath)
+                .filter(Files::exists)
+                .map(path -> ResponseEntity.ok().<Resource>body(new FileSystemResource(path)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
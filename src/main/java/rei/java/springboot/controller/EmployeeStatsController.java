@@ -0,0 +1,26 @@
+package rei.java.springboot.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import rei.java.springboot.stats.EmployeeStatistics;
+import rei.java.springboot.stats.EmployeeStats;
+
+// Totals for dashboards, read from in-memory counters instead of counting GET /api/employee client-side
+@RestController
+@Profile("!memory-store")
+@RequestMapping("/api/employee/stats")
+public class EmployeeStatsController {
+
+    private final EmployeeStatistics statistics;
+
+    public EmployeeStatsController(EmployeeStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @GetMapping
+    public EmployeeStats getStats() {
+        return statistics.snapshot();
+    }
+}
@@ -0,0 +1,33 @@
+package rei.java.springboot.idempotency;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyProperties properties, ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        return switch (properties.getStore()) {
+            case MEMORY -> new InMemoryIdempotencyStore(properties.getMaxEntries(), properties.getTtl());
+            case JDBC -> new JdbcIdempotencyStore(jdbcTemplate.getObject(), properties.getTtl());
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore idempotencyStore,
+                                                                       IdempotencyProperties properties) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyStore, properties.getWaitTimeout()));
+        // matches /api/employee itself as well
+        registration.addUrlPatterns("/api/employee/*");
+        return registration;
+    }
+}
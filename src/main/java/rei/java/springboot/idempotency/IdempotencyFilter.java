@@ -0,0 +1,148 @@
+package rei.java.springboot.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Executes a POST/PUT carrying an {@code Idempotency-Key} header at most once: the first response is
+ * stored and replayed to every retry, and concurrent duplicates wait for the first execution to finish.
+ */
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyStore store;
+    private final Duration waitTimeout;
+    // executions in progress on this instance, keyed like the store
+    private final ConcurrentMap<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, Duration waitTimeout) {
+        this.store = store;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        boolean unsafe = HttpMethod.POST.matches(method) || HttpMethod.PUT.matches(method);
+        return !unsafe || !StringUtils.hasText(request.getHeader(IDEMPOTENCY_KEY_HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // the same key may be reused against another resource, so it is scoped to the method and the path
+        String key = storeKey(request.getMethod() + " " + request.getRequestURI() + " " + request.getHeader(IDEMPOTENCY_KEY_HEADER));
+
+        Optional<IdempotentResponse> stored = store.find(key);
+        if (stored.isPresent()) {
+            replay(stored.get(), response);
+            return;
+        }
+
+        CompletableFuture<IdempotentResponse> execution = new CompletableFuture<>();
+        CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            awaitFirstExecution(running, request, response, filterChain);
+            return;
+        }
+
+        try {
+            // the first execution may have completed between the lookup and the claim
+            stored = store.find(key);
+            if (stored.isPresent()) {
+                execution.complete(stored.get());
+                replay(stored.get(), response);
+                return;
+            }
+
+            ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, responseWrapper);
+
+            IdempotentResponse first = new IdempotentResponse(responseWrapper.getStatus(),
+                    responseWrapper.getContentType(), responseWrapper.getContentAsByteArray());
+            // the request has done its work, so the client gets the response even if it cannot be remembered
+            responseWrapper.copyBodyToResponse();
+            execution.complete(first);
+            // server errors are not remembered, so that the client can retry them
+            if (!HttpStatus.valueOf(first.status()).is5xxServerError())
+                save(key, first);
+        } catch (Throwable e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    private void save(String key, IdempotentResponse response) {
+        try {
+            store.save(key, response);
+        } catch (RuntimeException e) {
+            // a retry will then execute the request again, as it would without the header
+            log.warn("idempotent response not stored {}", kv("key", key), e);
+        }
+    }
+
+    // a fixed length digest, as the header and the path are unbounded but the stored key is not
+    private static String storeKey(String scopedKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(scopedKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitFirstExecution(CompletableFuture<IdempotentResponse> running, HttpServletRequest request,
+                                     HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try {
+            replay(running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS), response);
+        } catch (TimeoutException e) {
+            response.sendError(HttpStatus.CONFLICT.value(),
+                    "A request with the same " + IDEMPOTENCY_KEY_HEADER + " is still being processed");
+        } catch (ExecutionException e) {
+            // the first execution failed without a response, so this duplicate gets its own attempt
+            doFilterInternal(request, response, filterChain);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException(e);
+        }
+    }
+
+    private void replay(IdempotentResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null)
+            response.setContentType(stored.contentType());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+}
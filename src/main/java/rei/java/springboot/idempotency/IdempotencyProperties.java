@@ -0,0 +1,27 @@
+package rei.java.springboot.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+    // where the first response of each key is kept: in-process (default) or in the idempotency_key table
+    private StoreType store = StoreType.MEMORY;
+    // how long a stored response can be replayed
+    private Duration ttl = Duration.ofHours(24);
+    // upper bound of the in-process store, the oldest keys are evicted first
+    private int maxEntries = 10_000;
+    // how long a duplicate waits for the first execution before giving up with 409
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    public enum StoreType {
+        MEMORY, JDBC
+    }
+}
@@ -0,0 +1,9 @@
+package rei.java.springboot.idempotency;
+
+import java.util.Optional;
+
+public interface IdempotencyStore {
+
+    Optional<IdempotentResponse> find(String key);
+    void save(String key, IdempotentResponse response);
+}
@@ -0,0 +1,5 @@
+package rei.java.springboot.idempotency;
+
+// The response of the first execution of an idempotent request, as it is replayed to the retries
+public record IdempotentResponse(int status, String contentType, byte[] body) {
+}
@@ -0,0 +1,70 @@
+package rei.java.springboot.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Bounded store: entries are kept in write order, so both the size limit and the TTL evict from the head
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    public InMemoryIdempotencyStore(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, Clock.systemUTC());
+    }
+
+    public InMemoryIdempotencyStore(int maxEntries, Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Optional<IdempotentResponse> find(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null)
+            return Optional.empty();
+        if (entry.isExpired(clock.instant())) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.response());
+    }
+
+    @Override
+    public synchronized void save(String key, IdempotentResponse response) {
+        Instant now = clock.instant();
+        evictExpired(now);
+        // re-insert so that the key moves to the tail of the write order
+        entries.remove(key);
+        entries.put(key, new Entry(response, now.plus(ttl)));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictExpired(Instant now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && iterator.next().isExpired(now))
+            iterator.remove();
+    }
+
+    private record Entry(IdempotentResponse response, Instant expiresAt) {
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
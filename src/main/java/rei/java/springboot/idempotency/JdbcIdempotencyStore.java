@@ -0,0 +1,58 @@
+package rei.java.springboot.idempotency;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+// Shares the stored responses between instances through the idempotency_key table (see db/migration)
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Clock clock;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, Duration ttl) {
+        this(jdbcTemplate, ttl, Clock.systemUTC());
+    }
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, Duration ttl, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        return jdbcTemplate.query(
+                "SELECT status, content_type, body FROM idempotency_key WHERE idempotency_key = ? AND created_at > ?",
+                (rs, rowNum) -> new IdempotentResponse(rs.getInt("status"), rs.getString("content_type"), rs.getBytes("body")),
+                key, Timestamp.from(expiredBefore())
+        ).stream().findFirst();
+    }
+
+    @Override
+    public void save(String key, IdempotentResponse response) {
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO idempotency_key (idempotency_key, status, content_type, body, created_at) VALUES (?, ?, ?, ?, ?)",
+                    key, response.status(), response.contentType(), response.body(), Timestamp.from(clock.instant()));
+        } catch (DuplicateKeyException e) {
+            // another instance stored the first response already, keep that one
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT10M}")
+    public int purgeExpired() {
+        return jdbcTemplate.update("DELETE FROM idempotency_key WHERE created_at <= ?", Timestamp.from(expiredBefore()));
+    }
+
+    private Instant expiredBefore() {
+        return clock.instant().minus(ttl);
+    }
+}
@@ -0,0 +1,107 @@
+package rei.java.springboot.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+import rei.java.springboot.model.Employee;
+
+import java.io.IOException;
+
+/**
+ * Hand-written Jackson (de)serializer for {@link Employee}, used instead of the reflective bean serializer on the
+ * hot list/lookup endpoints. The JSON is the same as the default one: same property names and order, unknown
+ * properties are ignored, and a value of the wrong kind (an object for a name, "abc" for the id) is rejected.
+ */
+@JsonComponent
+public class EmployeeJsonComponent {
+
+    // property names are encoded once instead of on every write
+    static final SerializedString ID = new SerializedString("id");
+    static final SerializedString FIRST_NAME = new SerializedString("firstName");
+    static final SerializedString LAST_NAME = new SerializedString("lastName");
+    static final SerializedString EMAIL = new SerializedString("email");
+    static final SerializedString VERSION = new SerializedString("version");
+
+    public static class Serializer extends JsonSerializer<Employee> {
+
+        @Override
+        public void serialize(Employee employee, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject(employee);
+            gen.writeFieldName(ID);
+            gen.writeNumber(employee.getId());
+            gen.writeFieldName(FIRST_NAME);
+            gen.writeString(employee.getFirstName());
+            gen.writeFieldName(LAST_NAME);
+            gen.writeString(employee.getLastName());
+            gen.writeFieldName(EMAIL);
+            gen.writeString(employee.getEmail());
+            gen.writeFieldName(VERSION);
+            gen.writeNumber(employee.getVersion());
+            gen.writeEndObject();
+        }
+
+        @Override
+        public Class<Employee> handledType() {
+            return Employee.class;
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Employee> {
+
+        @Override
+        public Employee deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.START_OBJECT)
+                token = p.nextToken();
+            if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT)
+                return (Employee) ctxt.handleUnexpectedToken(Employee.class, p);
+
+            Employee employee = new Employee();
+            for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "id" -> employee.setId(number(p, ctxt, value));
+                    case "firstName" -> employee.setFirstName(text(p, ctxt, value));
+                    case "lastName" -> employee.setLastName(text(p, ctxt, value));
+                    case "email" -> employee.setEmail(text(p, ctxt, value));
+                    case "version" -> employee.setVersion(number(p, ctxt, value));
+                    default -> p.skipChildren();
+                }
+            }
+            return employee;
+        }
+
+        // scalars are coerced to their text like the bean deserializer does, objects and arrays fail
+        private static String text(JsonParser p, DeserializationContext ctxt, JsonToken value) throws IOException {
+            if (value == JsonToken.VALUE_NULL)
+                return null;
+            if (!value.isScalarValue())
+                return (String) ctxt.handleUnexpectedToken(String.class, p);
+            return p.getText();
+        }
+
+        // null is 0 as for any primitive, a number in a string is accepted, any other string fails
+        private static long number(JsonParser p, DeserializationContext ctxt, JsonToken value) throws IOException {
+            if (value == JsonToken.VALUE_NULL)
+                return 0L;
+            if (value.isNumeric())
+                return p.getValueAsLong();
+            if (value == JsonToken.VALUE_STRING) {
+                String text = p.getText().trim();
+                try {
+                    return Long.parseLong(text);
+                } catch (NumberFormatException e) {
+                    return ((Number) ctxt.handleWeirdStringValue(Long.TYPE, text, "not a valid long")).longValue();
+                }
+            }
+            return ((Number) ctxt.handleUnexpectedToken(Long.TYPE, p)).longValue();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package rei.java.springboot.logging;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import rei.java.springboot.sql.SqlStatementScope;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+// One structured log event per request, written through the async appender of logback-spring.xml
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger("access");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!logger.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                if (request.isAsyncStarted())
+                    // the body is still being written (StreamingResponseBody), the request ends with the async context
+                    request.getAsyncContext().addListener(new AsyncListener() {
+                        @Override
+                        public void onComplete(AsyncEvent event) {
+                            log(request, response, start, scope);
+                        }
+
+                        @Override
+                        public void onTimeout(AsyncEvent event) {
+                        }
+
+                        @Override
+                        public void onError(AsyncEvent event) {
+                        }
+
+                        @Override
+                        public void onStartAsync(AsyncEvent event) {
+                        }
+                    });
+                else
+                    log(request, response, start, scope);
+            }
+        }
+    }
+
+    // the statements of the request thread only, the async part of a request runs on another one
+    private static void log(HttpServletRequest request, HttpServletResponse response, long start, SqlStatementScope scope) {
+        logger.info("Request handled {} {} {} {} {} {}", kv("method", request.getMethod()), kv("uri", request.getRequestURI()),
+                kv("status", response.getStatus()),
+                kv("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)),
+                kv("dbStatements", scope.getStatements()),
+                kv("dbTimeMs", scope.getDatabaseTime().toMillis()));
+    }
+}
@@ -1,7 +1,12 @@
 package rei.java.springboot.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.Where;
+
+import java.time.LocalDateTime;
 
 @Getter
 @Setter
@@ -10,15 +15,26 @@ import lombok.*;
 @Builder
 @Entity
 @Table(name = "employee")
+// soft delete: removing an employee only tombstones the row, EmployeePurger deletes it later, off-peak
+@SQLDelete(sql = "UPDATE employee SET deleted_at = CURRENT_TIMESTAMP, version = version + 1 WHERE id = ? AND version = ?")
+@Where(clause = "deleted_at IS NULL")
 public class Employee {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
-    @Column(name = "first_name", nullable = false)
+    @Column(name = "first_name", nullable = false, length = 100)
     private String firstName;
-    @Column(name = "last_name", nullable = false)
+    @Column(name = "last_name", nullable = false, length = 100)
     private String lastName;
-    @Column(nullable = false)
+    @Column(nullable = false, length = 320)
     private String email;
+    // optimistic locking: every UPDATE checks and increments it, exposed as the ETag of the HTTP API
+    @Version
+    @Column(nullable = false)
+    private long version;
+    // internal, deleted employees are never returned by the API
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
 }
@@ -0,0 +1,11 @@
+package rei.java.springboot.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// one per requested id of a batch lookup, in request order: {"id":1,"found":true,"employee":{...}} or {"id":2,"found":false}
+public record EmployeeLookupResult(long id, boolean found, @JsonInclude(JsonInclude.Include.NON_NULL) Employee employee) {
+
+    public static EmployeeLookupResult of(long id, Employee employee) {
+        return new EmployeeLookupResult(id, employee != null, employee);
+    }
+}
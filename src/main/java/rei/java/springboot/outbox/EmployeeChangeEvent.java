@@ -0,0 +1,22 @@
+package rei.java.springboot.outbox;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/**
+ * An employee change as the sinks deliver it. {@code id} increases with every change and identifies the event for
+ * deduplication: delivery is at least once. Relay workers run in parallel, so the events of one employee may
+ * arrive out of order, {@code employeeVersion} tells which one is the latest.
+ */
+public record EmployeeChangeEvent(long id, Type type, long employeeId, long employeeVersion, Instant occurredAt,
+                                  @JsonRawValue @JsonProperty("employee") String payload) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        // soft delete, the employee as it was deleted
+        DELETED
+    }
+}
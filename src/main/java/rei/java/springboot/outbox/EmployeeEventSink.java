@@ -0,0 +1,11 @@
+package rei.java.springboot.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+// Where EmployeeOutboxRelay delivers the events, a batch at a time in outbox order. A batch that fails is delivered
+// again, in full, so a sink may see an event more than once. See employee.outbox.sink.
+public interface EmployeeEventSink {
+
+    void publish(List<EmployeeChangeEvent> events) throws IOException;
+}
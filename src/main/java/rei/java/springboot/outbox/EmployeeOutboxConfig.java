@@ -0,0 +1,46 @@
+package rei.java.springboot.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// events are written by Hibernate events next to the employee table, so the outbox is off on the memory-store profile
+@Configuration(proxyBeanMethods = false)
+@Profile("!memory-store")
+@EnableConfigurationProperties(EmployeeOutboxProperties.class)
+public class EmployeeOutboxConfig {
+
+    // registered with Hibernate by HibernateIntegratorConfig
+    @Bean
+    public EmployeeOutboxListener employeeOutboxListener(ObjectMapper objectMapper) {
+        return new EmployeeOutboxListener(objectMapper);
+    }
+
+    @Bean
+    public EmployeeEventSink employeeEventSink(EmployeeOutboxProperties properties, ObjectMapper objectMapper) {
+        return switch (properties.getSink()) {
+            case LOG_FILE -> new LogFileEventSink(properties.getFile(), objectMapper);
+            case WEBHOOK -> {
+                if (properties.getWebhookUrl() == null)
+                    throw new IllegalStateException("employee.outbox.webhook-url is required by the WEBHOOK sink");
+                yield new WebhookEventSink(properties.getWebhookUrl(), properties.getWebhookTimeout(), objectMapper);
+            }
+            case IN_MEMORY -> new InMemoryEventSink();
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "employee.outbox", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+    public EmployeeOutboxRelay employeeOutboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                                   EmployeeEventSink sink, EmployeeOutboxProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        return new EmployeeOutboxRelay(jdbcTemplate, transactionTemplate, sink,
+                properties.getBatchSize(), properties.getMaxBatchesPerRun(), meterRegistry);
+    }
+}
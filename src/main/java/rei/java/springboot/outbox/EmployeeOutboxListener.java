@@ -0,0 +1,122 @@
+package rei.java.springboot.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import rei.java.springboot.model.Employee;
+
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Clock;
+
+/**
+ * Writes an employee_outbox row for every employee insert, update and (soft) delete that Hibernate flushes, on the
+ * connection of the write: the row commits or rolls back with the change, whichever EmployeeServiceImpl method
+ * made it. Registered as a Hibernate Integrator (HibernateIntegratorConfig). The bulk import, which bypasses JPA,
+ * writes the same CREATED events itself; the purge of tombstones has none.
+ */
+public class EmployeeOutboxListener implements Integrator, PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener {
+
+    private static final String INSERT = "INSERT INTO employee_outbox " +
+            "(event_type, employee_id, employee_version, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public EmployeeOutboxListener(ObjectMapper objectMapper) {
+        this(objectMapper, Clock.systemUTC());
+    }
+
+    public EmployeeOutboxListener(ObjectMapper objectMapper, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Employee employee)
+            write(event.getSession(), EmployeeChangeEvent.Type.CREATED, employee,
+                    version(event.getPersister(), event.getState()));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Employee employee)
+            write(event.getSession(), EmployeeChangeEvent.Type.UPDATED, employee,
+                    version(event.getPersister(), event.getState()));
+    }
+
+    // the tombstone UPDATE of Employee's @SQLDelete increments the version
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Employee employee)
+            write(event.getSession(), EmployeeChangeEvent.Type.DELETED, employee,
+                    version(event.getPersister(), event.getDeletedState()) + 1);
+    }
+
+    private void write(EventSource session, EmployeeChangeEvent.Type type, Employee employee, long version) {
+        String payload = payload(employee, version);
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                statement.setString(1, type.name());
+                statement.setLong(2, employee.getId());
+                statement.setLong(3, version);
+                statement.setString(4, payload);
+                statement.setTimestamp(5, Timestamp.from(clock.instant()));
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    // the entity's version field is only set after the listeners ran
+    private String payload(Employee employee, long version) {
+        try {
+            return objectMapper.writeValueAsString(Employee.builder()
+                    .id(employee.getId())
+                    .firstName(employee.getFirstName())
+                    .lastName(employee.getLastName())
+                    .email(employee.getEmail())
+                    .version(version)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long version(EntityPersister persister, Object[] state) {
+        return (Long) state[persister.getVersionProperty()];
+    }
+}
@@ -0,0 +1,36 @@
+package rei.java.springboot.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.outbox")
+public class EmployeeOutboxProperties {
+
+    // the change events are always written; false leaves their delivery to the relays of other instances
+    private boolean relayEnabled = true;
+    private Sink sink = Sink.LOG_FILE;
+    // NDJSON file of the LOG_FILE sink
+    private Path file = Path.of(System.getProperty("java.io.tmpdir"), "employee-events.ndjson");
+    // endpoint the WEBHOOK sink POSTs every batch to
+    private URI webhookUrl;
+    private Duration webhookTimeout = Duration.ofSeconds(5);
+    // events per transaction: larger batches deliver more per second, but hold their row locks longer
+    private int batchSize = 500;
+    // how often the relay checks for events
+    private Duration relayInterval = Duration.ofSeconds(1);
+    // batches per run, bounds how long a run holds its scheduler thread
+    private int maxBatchesPerRun = 20;
+
+    public enum Sink {
+        LOG_FILE,
+        WEBHOOK,
+        IN_MEMORY
+    }
+}
@@ -0,0 +1,181 @@
+package rei.java.springboot.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Delivers the employee_outbox rows to the EmployeeEventSink, oldest first, a batch per transaction: the batch is
+ * claimed with SELECT ... FOR UPDATE SKIP LOCKED, published, and deleted in the same transaction. A failed
+ * publish rolls the claim back and the batch is delivered again on the next run, so nothing is lost but an event
+ * may arrive twice. Every instance can run a relay: concurrent relays skip each other's batches instead of
+ * waiting for them (H2 has no SKIP LOCKED, its relays take turns). Metrics:
+ * <ul>
+ *     <li>{@code employee.outbox.events}: events delivered, its rate is the relay throughput</li>
+ *     <li>{@code employee.outbox.batch}: duration of each batch, claim to commit</li>
+ *     <li>{@code employee.outbox.failures}: batches that failed and are delivered again</li>
+ *     <li>{@code employee.outbox.lag}: time from the change to its delivery</li>
+ *     <li>{@code employee.outbox.backlog}: events waiting, refreshed on every run</li>
+ * </ul>
+ * On shutdown the relay is destroyed before the DataSource it depends on, and waits for the run in progress.
+ */
+@Slf4j
+public class EmployeeOutboxRelay implements DisposableBean {
+
+    private static final String CLAIM_BATCH = "SELECT id, event_type, employee_id, employee_version, payload, created_at " +
+            "FROM employee_outbox ORDER BY id LIMIT ? FOR UPDATE";
+    private static final String DELETE_BATCH = "DELETE FROM employee_outbox WHERE id IN (:ids)";
+    private static final String COUNT_BACKLOG = "SELECT COUNT(*) FROM employee_outbox";
+    private static final RowMapper<EmployeeChangeEvent> EVENT = (rs, rowNum) -> new EmployeeChangeEvent(
+            rs.getLong("id"),
+            EmployeeChangeEvent.Type.valueOf(rs.getString("event_type")),
+            rs.getLong("employee_id"),
+            rs.getLong("employee_version"),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getString("payload"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EmployeeEventSink sink;
+    private final int batchSize;
+    private final Clock clock;
+    private final int maxBatchesPerRun;
+    private final String claimBatch;
+    private final Counter events;
+    private final Counter failures;
+    private final Timer batchTimer;
+    private final Timer lag;
+    private volatile long backlog;
+    // held by every run, and exclusively by destroy() to wait for the run in progress
+    private final ReadWriteLock runs = new ReentrantReadWriteLock();
+    private volatile boolean stopped;
+
+    public EmployeeOutboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               EmployeeEventSink sink, int batchSize, int maxBatchesPerRun,
+                               MeterRegistry meterRegistry) {
+        this(jdbcTemplate, transactionTemplate, sink, batchSize, maxBatchesPerRun, meterRegistry, Clock.systemUTC());
+    }
+
+    public EmployeeOutboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               EmployeeEventSink sink, int batchSize, int maxBatchesPerRun,
+                               MeterRegistry meterRegistry, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.clock = clock;
+        this.claimBatch = skipLocked(jdbcTemplate) ? CLAIM_BATCH + " SKIP LOCKED" : CLAIM_BATCH;
+        Gauge.builder("employee.outbox.backlog", this, relay -> relay.backlog)
+                .description("Employee change events not delivered yet")
+                .register(meterRegistry);
+        this.events = Counter.builder("employee.outbox.events")
+                .description("Employee change events delivered to the sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("employee.outbox.failures")
+                .description("Outbox batches that failed to deliver and are retried")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("employee.outbox.batch")
+                .description("Duration of an outbox batch, claim to commit")
+                .register(meterRegistry);
+        this.lag = Timer.builder("employee.outbox.lag")
+                .description("Time from an employee change to its delivery")
+                .register(meterRegistry);
+    }
+
+    // returns the number of events delivered, until the outbox is drained, a batch fails or maxBatchesPerRun were
+    // delivered: the scheduler threads are shared with the other jobs, the next run goes on
+    @Scheduled(fixedDelayString = "${employee.outbox.relay-interval:PT1S}")
+    public long relay() {
+        Lock run = runs.readLock();
+        if (stopped || !run.tryLock())
+            return 0;
+        long relayed = 0;
+        try {
+            int delivered;
+            int batches = 0;
+            do {
+                delivered = relayBatch();
+                relayed += delivered;
+            } while (delivered == batchSize && ++batches < maxBatchesPerRun && !stopped);
+            refreshBacklog();
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("employee events not delivered, retrying {} {}", kv("delivered", relayed),
+                    kv("error", e.toString()));
+        } finally {
+            run.unlock();
+        }
+        return relayed;
+    }
+
+    // the scheduler has cancelled the next runs already, not the one in progress
+    @Override
+    public void destroy() {
+        stopped = true;
+        runs.writeLock().lock();
+    }
+
+    // one batch, claimed, published and deleted in one transaction; returns its size
+    public int relayBatch() {
+        List<EmployeeChangeEvent> batch = batchTimer.record(() -> transactionTemplate.execute(status -> {
+            List<EmployeeChangeEvent> claimed = jdbcTemplate.query(claimBatch, EVENT, batchSize);
+            if (claimed.isEmpty())
+                return claimed;
+            try {
+                sink.publish(claimed);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            namedParameterJdbcTemplate.update(DELETE_BATCH,
+                    Map.of("ids", claimed.stream().map(EmployeeChangeEvent::id).toList()));
+            return claimed;
+        }));
+        if (batch == null || batch.isEmpty())
+            return 0;
+        events.increment(batch.size());
+        Instant now = clock.instant();
+        for (EmployeeChangeEvent event : batch)
+            lag.record(Duration.between(event.occurredAt(), now));
+        return batch.size();
+    }
+
+    public long getBacklog() {
+        return backlog;
+    }
+
+    private void refreshBacklog() {
+        Long count = jdbcTemplate.queryForObject(COUNT_BACKLOG, Long.class);
+        backlog = count == null ? 0 : count;
+    }
+
+    private static boolean skipLocked(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return !"H2".equals(product);
+    }
+}
@@ -0,0 +1,19 @@
+package rei.java.springboot.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps the events in memory, for tests and local runs: unbounded, not for production
+public class InMemoryEventSink implements EmployeeEventSink {
+
+    private final List<EmployeeChangeEvent> events = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<EmployeeChangeEvent> events) {
+        this.events.addAll(events);
+    }
+
+    public synchronized List<EmployeeChangeEvent> getEvents() {
+        return List.copyOf(events);
+    }
+}
@@ -0,0 +1,41 @@
+package rei.java.springboot.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends the events to a file as NDJSON, synced before the batch counts as delivered: for consumers that tail it
+public class LogFileEventSink implements EmployeeEventSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public LogFileEventSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<EmployeeChangeEvent> events) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(256 * events.size());
+        for (EmployeeChangeEvent event : events) {
+            objectMapper.writeValue(lines, event);
+            lines.write('\n');
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(false);
+        }
+    }
+}
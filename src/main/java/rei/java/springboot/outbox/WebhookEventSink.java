@@ -0,0 +1,47 @@
+package rei.java.springboot.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+// POSTs every batch as a JSON array to a downstream endpoint, delivered once it answers 2xx
+public class WebhookEventSink implements EmployeeEventSink {
+
+    private final URI url;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    public WebhookEventSink(URI url, Duration timeout, ObjectMapper objectMapper) {
+        this.url = url;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void publish(List<EmployeeChangeEvent> events) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                .build();
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while delivering employee events to " + url, e);
+        }
+        if (response.statusCode() / 100 != 2)
+            throw new IOException("Employee events rejected by " + url + ": HTTP " + response.statusCode());
+    }
+}
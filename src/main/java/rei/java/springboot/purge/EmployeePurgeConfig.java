@@ -0,0 +1,23 @@
+package rei.java.springboot.purge;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// the purge deletes from the employee table, so it is off on the memory-store profile
+@Configuration(proxyBeanMethods = false)
+@Profile("!memory-store")
+@EnableConfigurationProperties(EmployeePurgeProperties.class)
+@ConditionalOnProperty(prefix = "employee.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class EmployeePurgeConfig {
+
+    @Bean
+    public EmployeePurger employeePurger(JdbcTemplate jdbcTemplate, EmployeePurgeProperties properties,
+                                         MeterRegistry meterRegistry) {
+        return new EmployeePurger(jdbcTemplate, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,29 @@
+package rei.java.springboot.purge;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.purge")
+public class EmployeePurgeProperties {
+
+    private boolean enabled = true;
+    // tombstones younger than this are kept, e.g. for downstream systems to pick the deletion up
+    private Duration retention = Duration.ofDays(1);
+    // off-peak window in the server's time zone, may span midnight; equal bounds mean always
+    private LocalTime windowStart = LocalTime.of(1, 0);
+    private LocalTime windowEnd = LocalTime.of(5, 0);
+    // rows per DELETE, small enough to hold locks only briefly
+    private int batchSize = 500;
+    // rate limit: pause after every batch, so replication and the buffer pool keep up
+    private Duration pause = Duration.ofMillis(200);
+    // batches per run, bounds how long a run holds its scheduler thread
+    private int maxBatchesPerRun = 20;
+    // how often the purger checks for work, and goes on with a backlog left by the previous run
+    private Duration interval = Duration.ofSeconds(10);
+}
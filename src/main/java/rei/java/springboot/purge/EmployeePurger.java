@@ -0,0 +1,127 @@
+package rei.java.springboot.purge;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Physically deletes the employees tombstoned by the soft delete, in small batches with a pause between
+ * them, and only inside the off-peak window. A run deletes at most {@code maxBatchesPerRun} batches, the next run
+ * goes on: the scheduler threads are shared with the other jobs. Metrics:
+ * <ul>
+ *     <li>{@code employee.purge.backlog}: tombstones left, refreshed on every check</li>
+ *     <li>{@code employee.purge.rows}: rows deleted, its rate is the purge throughput</li>
+ *     <li>{@code employee.purge.batch}: duration of each batch</li>
+ * </ul>
+ */
+@Slf4j
+public class EmployeePurger {
+
+    private static final String SELECT_BATCH =
+            "SELECT id FROM employee WHERE deleted_at IS NOT NULL AND deleted_at < ? ORDER BY deleted_at LIMIT ?";
+    // deleted_at is checked again: the ids were read without locks
+    private static final String DELETE_BATCH = "DELETE FROM employee WHERE id IN (:ids) AND deleted_at IS NOT NULL";
+    private static final String COUNT_BACKLOG = "SELECT COUNT(*) FROM employee WHERE deleted_at IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EmployeePurgeProperties properties;
+    private final Clock clock;
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter purgedRows;
+    private final Timer batchTimer;
+
+    public EmployeePurger(JdbcTemplate jdbcTemplate, EmployeePurgeProperties properties, MeterRegistry meterRegistry) {
+        this(jdbcTemplate, properties, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    public EmployeePurger(JdbcTemplate jdbcTemplate, EmployeePurgeProperties properties, MeterRegistry meterRegistry,
+                          Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.properties = properties;
+        this.clock = clock;
+        Gauge.builder("employee.purge.backlog", backlog, AtomicLong::get)
+                .description("Soft-deleted employees not purged yet")
+                .register(meterRegistry);
+        this.purgedRows = Counter.builder("employee.purge.rows")
+                .description("Soft-deleted employees physically deleted")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("employee.purge.batch")
+                .description("Duration of a purge batch")
+                .register(meterRegistry);
+    }
+
+    // returns the number of rows deleted by this run
+    @Scheduled(fixedDelayString = "${employee.purge.interval:PT1M}")
+    public long purge() {
+        refreshBacklog();
+        if (!inWindow() || backlog.get() == 0)
+            return 0;
+        Timestamp deletedBefore = Timestamp.valueOf(LocalDateTime.now(clock).minus(properties.getRetention()));
+        long purged = 0;
+        int deleted;
+        int batches = 0;
+        do {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_BATCH, Long.class, deletedBefore, properties.getBatchSize());
+            if (ids.isEmpty())
+                break;
+            deleted = batchTimer.record(() -> namedParameterJdbcTemplate.update(DELETE_BATCH, Map.of("ids", ids)));
+            purged += deleted;
+            purgedRows.increment(deleted);
+            backlog.addAndGet(-deleted);
+            if (ids.size() < properties.getBatchSize() || ++batches == properties.getMaxBatchesPerRun() || !pause())
+                break;
+        } while (inWindow());
+        if (purged > 0)
+            log.info("employees purged {} {}", kv("rows", purged), kv("backlog", refreshBacklog()));
+        return purged;
+    }
+
+    public long getBacklog() {
+        return backlog.get();
+    }
+
+    private long refreshBacklog() {
+        Long count = jdbcTemplate.queryForObject(COUNT_BACKLOG, Long.class);
+        backlog.set(count == null ? 0 : count);
+        return backlog.get();
+    }
+
+    private boolean inWindow() {
+        LocalTime now = LocalTime.now(clock);
+        LocalTime start = properties.getWindowStart();
+        LocalTime end = properties.getWindowEnd();
+        if (start.equals(end))
+            return true;
+        return start.isBefore(end)
+                ? !now.isBefore(start) && now.isBefore(end)
+                : !now.isBefore(start) || now.isBefore(end);
+    }
+
+    // false when interrupted by the shutdown
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
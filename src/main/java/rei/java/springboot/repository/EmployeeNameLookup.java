@@ -0,0 +1,134 @@
+package rei.java.springboot.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import rei.java.springboot.model.Employee;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * The lookup of an employee by first and last name, which EmployeeRepository offers four equivalent ways: JPQL or
+ * native SQL, positional or named parameters. With a fixed strategy every call uses it. Adaptive, the calls go to
+ * the strategy with the lowest recent latency, and every {@code exploreEvery}-th call to the next one in turn, so
+ * that all of them stay measured and a change of plan, driver or data is followed. Metrics:
+ * <ul>
+ *     <li>{@code employee.name-lookup}: latency per strategy</li>
+ *     <li>{@code employee.name-lookup.selected}: 1 for the strategy the calls currently go to</li>
+ * </ul>
+ */
+@Slf4j
+public class EmployeeNameLookup {
+
+    // weight of a new sample in the moving average, about the last 20 calls of a strategy
+    private static final double WEIGHT = 0.05;
+
+    public enum Strategy {
+        JPQL(EmployeeRepository::findByJPQL),
+        JPQL_NAMED(EmployeeRepository::findByJPQLNamedParameters),
+        NATIVE(EmployeeRepository::findByNative),
+        NATIVE_NAMED(EmployeeRepository::findByNativeNamedParameters);
+
+        private final Query query;
+
+        Strategy(Query query) {
+            this.query = query;
+        }
+
+        private String tag() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private interface Query {
+        Employee find(EmployeeRepository repository, String firstName, String lastName);
+    }
+
+    private static final Strategy[] STRATEGIES = Strategy.values();
+    // round robin calls before the averages are trusted, 10 per strategy
+    private static final int WARMUP_CALLS = 10 * STRATEGIES.length;
+
+    private final EmployeeRepository employeeRepository;
+    // null when adaptive
+    private final Strategy fixed;
+    private final int exploreEvery;
+    private final Timer[] timers = new Timer[STRATEGIES.length];
+    // moving average latency per strategy, as double bits; concurrent calls may overwrite each other's sample,
+    // which an average of noisy samples can afford
+    private final AtomicLongArray meanNanos = new AtomicLongArray(STRATEGIES.length);
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong explorations = new AtomicLong();
+    private volatile Strategy selected;
+
+    public EmployeeNameLookup(EmployeeRepository employeeRepository, Strategy fixed, int exploreEvery,
+                              MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.fixed = fixed;
+        this.exploreEvery = exploreEvery;
+        this.selected = fixed == null ? Strategy.JPQL : fixed;
+        for (Strategy strategy : STRATEGIES) {
+            timers[strategy.ordinal()] = Timer.builder("employee.name-lookup")
+                    .description("Latency of the employee lookup by name")
+                    .tag("strategy", strategy.tag())
+                    .register(meterRegistry);
+            Gauge.builder("employee.name-lookup.selected", this, lookup -> lookup.selected == strategy ? 1 : 0)
+                    .description("1 for the name lookup strategy in use")
+                    .tag("strategy", strategy.tag())
+                    .register(meterRegistry);
+        }
+    }
+
+    // null when there is no such employee, IncorrectResultSizeDataAccessException when several share the name
+    public Employee find(String firstName, String lastName) {
+        long call = fixed == null ? calls.getAndIncrement() : 0;
+        Strategy strategy = next(call);
+        long start = System.nanoTime();
+        try {
+            return strategy.query.find(employeeRepository, firstName, lastName);
+        } finally {
+            record(call, strategy, System.nanoTime() - start);
+        }
+    }
+
+    public Strategy getSelected() {
+        return selected;
+    }
+
+    private Strategy next(long call) {
+        if (fixed != null)
+            return fixed;
+        if (call < WARMUP_CALLS || call % exploreEvery == 0)
+            return STRATEGIES[(int) (explorations.getAndIncrement() % STRATEGIES.length)];
+        return selected;
+    }
+
+    private void record(long call, Strategy strategy, long nanos) {
+        timers[strategy.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        // the first call of a strategy compiles the query and prepares the statement, it would weigh on the
+        // average long after
+        if (fixed != null || call < STRATEGIES.length)
+            return;
+        double mean = mean(strategy);
+        meanNanos.set(strategy.ordinal(), Double.doubleToRawLongBits(mean == 0 ? nanos : mean + WEIGHT * (nanos - mean)));
+        if (call < WARMUP_CALLS - 1)
+            return;
+        Strategy fastest = selected;
+        for (Strategy candidate : STRATEGIES)
+            if (mean(candidate) < mean(fastest))
+                fastest = candidate;
+        if (fastest != selected) {
+            log.info("employee name lookup strategy changed {} {} {}", kv("strategy", fastest.tag()),
+                    kv("meanMicros", Math.round(mean(fastest) / 1000)), kv("previousMeanMicros", Math.round(mean(selected) / 1000)));
+            selected = fastest;
+        }
+    }
+
+    private double mean(Strategy strategy) {
+        return Double.longBitsToDouble(meanNanos.get(strategy.ordinal()));
+    }
+}
@@ -0,0 +1,20 @@
+package rei.java.springboot.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration(proxyBeanMethods = false)
+@Profile("!memory-store")
+@EnableConfigurationProperties(EmployeeNameLookupProperties.class)
+public class EmployeeNameLookupConfig {
+
+    @Bean
+    public EmployeeNameLookup employeeNameLookup(EmployeeRepository employeeRepository,
+                                                 EmployeeNameLookupProperties properties, MeterRegistry meterRegistry) {
+        return new EmployeeNameLookup(employeeRepository, properties.getStrategy(), properties.getExploreEvery(),
+                meterRegistry);
+    }
+}
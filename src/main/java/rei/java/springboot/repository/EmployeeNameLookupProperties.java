@@ -0,0 +1,16 @@
+package rei.java.springboot.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.name-lookup")
+public class EmployeeNameLookupProperties {
+
+    // jpql, jpql-named, native or native-named; adaptive (the fastest one measured) when not set
+    private EmployeeNameLookup.Strategy strategy;
+    // adaptive: one call in explore-every samples another strategy than the fastest
+    private int exploreEvery = 100;
+}
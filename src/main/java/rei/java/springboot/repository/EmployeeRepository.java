@@ -5,21 +5,29 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import rei.java.springboot.model.Employee;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+// JPQL and derived queries skip deleted rows through Employee's @Where, native queries have to filter them
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
     Optional<Employee> findByEmail(String email);
 
+    // one statement per batch lookup, the IN list is padded to a power of 2 (hibernate.query.in_clause_parameter_padding)
+    // so that batches of similar sizes share a statement in the caches of Hibernate, the driver and the database
+    @Query("SELECT e FROM Employee e WHERE e.id IN :ids")
+    List<Employee> findByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT e FROM Employee e WHERE e.firstName = ?1 AND e.lastName = ?2")
     Employee findByJPQL(String firstName, String lastName);
 
     @Query("SELECT e FROM Employee e WHERE e.firstName =:firstName AND e.lastName =:lastName")
     Employee findByJPQLNamedParameters(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
-    @Query(value = "SELECT * FROM employee e WHERE e.first_name = ?1 AND e.last_name = ?2", nativeQuery = true)
+    @Query(value = "SELECT * FROM employee e WHERE e.first_name = ?1 AND e.last_name = ?2 AND e.deleted_at IS NULL", nativeQuery = true)
     Employee findByNative(String firstName, String lastName);
 
-    @Query(value = "SELECT * FROM employee e WHERE e.first_name =:firstName AND e.last_name =:lastName", nativeQuery = true)
+    @Query(value = "SELECT * FROM employee e WHERE e.first_name =:firstName AND e.last_name =:lastName AND e.deleted_at IS NULL", nativeQuery = true)
     Employee findByNativeNamedParameters(@Param("firstName") String firstName, @Param("lastName") String lastName);
 }
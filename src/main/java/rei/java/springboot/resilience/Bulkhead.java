@@ -0,0 +1,48 @@
+package rei.java.springboot.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// At most maxConcurrent calls at once, a caller waits up to maxWait for its turn and is turned away after that,
+// instead of queueing on the connection pool. Metrics employee.bulkhead.available and employee.bulkhead.rejected,
+// tagged with the bulkhead name.
+public class Bulkhead {
+
+    private final Semaphore permits;
+    private final long maxWaitNanos;
+    private final Counter rejections;
+
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaitNanos = maxWait.toNanos();
+        Gauge.builder("employee.bulkhead.available", permits, Semaphore::availablePermits)
+                .description("Calls the bulkhead still lets through at once")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        this.rejections = Counter.builder("employee.bulkhead.rejected")
+                .description("Calls turned away by a full bulkhead")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+    }
+
+    // false when the bulkhead stayed full for maxWait, or the thread was interrupted waiting
+    public boolean tryAcquire() {
+        try {
+            if (permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS))
+                return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejections.increment();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
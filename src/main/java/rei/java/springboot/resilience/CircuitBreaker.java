@@ -0,0 +1,177 @@
+package rei.java.springboot.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Trips on latency as well as on errors: once at least {@code minimumCalls} of the last {@code windowSize} calls
+ * were recorded, and the share of slow calls (longer than {@code slowCallThreshold}) or of failed calls reaches
+ * its rate threshold, the breaker opens and rejects every call for {@code openDuration}. It then lets
+ * {@code halfOpenCalls} probes through: it closes when all of them were fast and successful, and opens again at the
+ * first one that was not. Results of calls permitted before the last change of state are ignored.
+ * Metrics:
+ * <ul>
+ *     <li>{@code <name>.state}: 1 for the current state (closed, open, half-open)</li>
+ *     <li>{@code <name>.calls}: calls by outcome (success, slow, failure, rejected)</li>
+ * </ul>
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final byte SUCCESS = 0;
+    private static final byte SLOW = 1;
+    private static final byte FAILURE = 2;
+
+    private final String name;
+    private final Duration slowCallThreshold;
+    private final double slowCallRateThreshold;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+    private final Clock clock;
+    // outcomes of the last calls, a ring
+    private final byte[] window;
+    private final Counter successes;
+    private final Counter slowCalls;
+    private final Counter failures;
+    private final Counter rejections;
+
+    private State state = State.CLOSED;
+    // incremented by every change of state, a permit of an earlier one is stale
+    private long generation;
+    private int recorded;
+    private int next;
+    private int slowInWindow;
+    private int failedInWindow;
+    private Instant openedAt;
+    private int probesPermitted;
+    private int probesSucceeded;
+
+    public CircuitBreaker(String name, Duration slowCallThreshold, double slowCallRateThreshold,
+                          double failureRateThreshold, int windowSize, int minimumCalls, Duration openDuration,
+                          int halfOpenCalls, MeterRegistry meterRegistry) {
+        this(name, slowCallThreshold, slowCallRateThreshold, failureRateThreshold, windowSize, minimumCalls,
+                openDuration, halfOpenCalls, meterRegistry, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(String name, Duration slowCallThreshold, double slowCallRateThreshold,
+                          double failureRateThreshold, int windowSize, int minimumCalls, Duration openDuration,
+                          int halfOpenCalls, MeterRegistry meterRegistry, Clock clock) {
+        this.name = name;
+        this.slowCallThreshold = slowCallThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new byte[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+        for (State each : State.values())
+            Gauge.builder(name + ".state", this, breaker -> breaker.getState() == each ? 1 : 0)
+                    .description("1 for the current state of the circuit breaker")
+                    .tag("state", tag(each))
+                    .register(meterRegistry);
+        this.successes = calls("success", meterRegistry);
+        this.slowCalls = calls("slow", meterRegistry);
+        this.failures = calls("failure", meterRegistry);
+        this.rejections = calls("rejected", meterRegistry);
+    }
+
+    // a permit to pass to record or release, -1 when the call is rejected
+    public synchronized long acquire() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration)))
+            transition(State.HALF_OPEN);
+        if (state == State.OPEN || state == State.HALF_OPEN && probesPermitted == halfOpenCalls) {
+            rejections.increment();
+            return -1;
+        }
+        if (state == State.HALF_OPEN)
+            probesPermitted++;
+        return generation;
+    }
+
+    // the permitted call did not run after all
+    public synchronized void release(long permit) {
+        if (permit == generation && state == State.HALF_OPEN)
+            probesPermitted--;
+    }
+
+    public synchronized void record(long permit, Duration duration, boolean failed) {
+        byte outcome = failed ? FAILURE : duration.compareTo(slowCallThreshold) > 0 ? SLOW : SUCCESS;
+        (outcome == FAILURE ? failures : outcome == SLOW ? slowCalls : successes).increment();
+        if (permit != generation)
+            return;
+        if (state == State.HALF_OPEN) {
+            if (outcome != SUCCESS)
+                open(outcome, duration);
+            else if (++probesSucceeded == halfOpenCalls)
+                transition(State.CLOSED);
+            return;
+        }
+        if (recorded == window.length)
+            forget(window[next]);
+        else
+            recorded++;
+        window[next] = outcome;
+        next = (next + 1) % window.length;
+        if (outcome == SLOW)
+            slowInWindow++;
+        else if (outcome == FAILURE)
+            failedInWindow++;
+        if (recorded >= minimumCalls && (slowInWindow >= slowCallRateThreshold * recorded
+                || failedInWindow >= failureRateThreshold * recorded))
+            open(outcome, duration);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void open(byte outcome, Duration duration) {
+        log.warn("circuit breaker opened {} {} {} {} {}", kv("breaker", name),
+                kv("lastOutcome", outcome == FAILURE ? "failure" : outcome == SLOW ? "slow" : "success"),
+                kv("lastMillis", duration.toMillis()), kv("slowCalls", slowInWindow), kv("failedCalls", failedInWindow));
+        openedAt = clock.instant();
+        transition(State.OPEN);
+    }
+
+    private void transition(State to) {
+        if (to != State.OPEN)
+            log.info("circuit breaker {} {}", tag(to), kv("breaker", name));
+        state = to;
+        generation++;
+        recorded = next = slowInWindow = failedInWindow = 0;
+        probesPermitted = probesSucceeded = 0;
+    }
+
+    private void forget(byte outcome) {
+        if (outcome == SLOW)
+            slowInWindow--;
+        else if (outcome == FAILURE)
+            failedInWindow--;
+    }
+
+    private Counter calls(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder(name + ".calls")
+                .description("Calls through the circuit breaker by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String tag(State state) {
+        return state.name().toLowerCase().replace('_', '-');
+    }
+}
@@ -0,0 +1,82 @@
+package rei.java.springboot.resilience;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.TransactionException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Runs the EmployeeRepository calls of EmployeeServiceImpl, so that a stalled database costs a bounded number of
+ * threads instead of all of them:
+ * <ul>
+ *     <li>the {@link CircuitBreaker} turns calls away with {@link EmployeeUnavailableException} once too many of the
+ *     recent ones were slow or failed, until probes find the database back</li>
+ *     <li>reads and writes go through {@link Bulkhead}s of their own, so that neither can hold every connection of
+ *     the pool and starve the other</li>
+ * </ul>
+ * Only infrastructure errors count as failures: a conflict or a missing row is an answer of a healthy database.
+ */
+public class EmployeeRepositoryGuard {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead reads;
+    private final Bulkhead writes;
+
+    public EmployeeRepositoryGuard(CircuitBreaker circuitBreaker, Bulkhead reads, Bulkhead writes) {
+        this.circuitBreaker = circuitBreaker;
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    // every call goes straight to the repository (employee.resilience.enabled=false)
+    public static EmployeeRepositoryGuard none() {
+        return new EmployeeRepositoryGuard(null, null, null);
+    }
+
+    public <T> T read(Supplier<T> call) {
+        return call(reads, "read", call);
+    }
+
+    public <T> T write(Supplier<T> call) {
+        return call(writes, "write", call);
+    }
+
+    public void write(Runnable call) {
+        write(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private <T> T call(Bulkhead bulkhead, String kind, Supplier<T> call) {
+        if (circuitBreaker == null)
+            return call.get();
+        long permit = circuitBreaker.acquire();
+        if (permit < 0)
+            throw new EmployeeUnavailableException("Employee " + kind + " rejected, the database circuit breaker is open");
+        if (!bulkhead.tryAcquire()) {
+            circuitBreaker.release(permit);
+            throw new EmployeeUnavailableException("Employee " + kind + " rejected, too many " + kind + "s in progress");
+        }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            failed = isFailure(e);
+            throw e;
+        } finally {
+            bulkhead.release();
+            circuitBreaker.record(permit, Duration.ofNanos(System.nanoTime() - start), failed);
+        }
+    }
+
+    private static boolean isFailure(RuntimeException e) {
+        return e instanceof TransientDataAccessException && !(e instanceof ConcurrencyFailureException)
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+}
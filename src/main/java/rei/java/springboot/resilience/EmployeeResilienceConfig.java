@@ -0,0 +1,27 @@
+package rei.java.springboot.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration(proxyBeanMethods = false)
+@Profile("!memory-store")
+@EnableConfigurationProperties(EmployeeResilienceProperties.class)
+public class EmployeeResilienceConfig {
+
+    @Bean
+    public EmployeeRepositoryGuard employeeRepositoryGuard(EmployeeResilienceProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        if (!properties.isEnabled())
+            return EmployeeRepositoryGuard.none();
+        CircuitBreaker circuitBreaker = new CircuitBreaker("employee.circuit", properties.getSlowCallThreshold(),
+                properties.getSlowCallRateThreshold(), properties.getFailureRateThreshold(),
+                properties.getWindowSize(), properties.getMinimumCalls(), properties.getOpenDuration(),
+                properties.getHalfOpenCalls(), meterRegistry);
+        return new EmployeeRepositoryGuard(circuitBreaker,
+                new Bulkhead("read", properties.getMaxConcurrentReads(), properties.getMaxWait(), meterRegistry),
+                new Bulkhead("write", properties.getMaxConcurrentWrites(), properties.getMaxWait(), meterRegistry));
+    }
+}
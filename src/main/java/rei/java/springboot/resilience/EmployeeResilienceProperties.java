@@ -0,0 +1,35 @@
+package rei.java.springboot.resilience;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.resilience")
+public class EmployeeResilienceProperties {
+
+    // false: the repository calls are neither counted nor limited
+    private boolean enabled = true;
+    // a call taking longer counts as slow
+    private Duration slowCallThreshold = Duration.ofMillis(500);
+    // share of slow calls in the window that opens the breaker
+    private double slowCallRateThreshold = 0.5;
+    // share of failed calls in the window that opens the breaker
+    private double failureRateThreshold = 0.5;
+    // the last calls the rates are computed over
+    private int windowSize = 50;
+    // calls recorded before the rates are trusted
+    private int minimumCalls = 10;
+    // how long the breaker rejects every call once open
+    private Duration openDuration = Duration.ofSeconds(10);
+    // probes let through after that, all fast and successful close the breaker again
+    private int halfOpenCalls = 5;
+    // reads and writes in progress at once; together at most the connection pool size (10 by default)
+    private int maxConcurrentReads = 7;
+    private int maxConcurrentWrites = 3;
+    // how long a call waits for its bulkhead before it is turned away
+    private Duration maxWait = Duration.ofMillis(100);
+}
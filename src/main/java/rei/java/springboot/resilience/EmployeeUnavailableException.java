@@ -0,0 +1,11 @@
+package rei.java.springboot.resilience;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+// the database is not asked: the circuit breaker is open, or the bulkhead stayed full; answered with 503
+public class EmployeeUnavailableException extends TransientDataAccessResourceException {
+
+    public EmployeeUnavailableException(String msg) {
+        super(msg);
+    }
+}
@@ -1,15 +1,30 @@
 package rei.java.springboot.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import rei.java.springboot.model.Employee;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface EmployeeService {
 
     Employee saveEmployee(Employee employee);
     List<Employee> getAllEmployee();
+    // the JSON array of getAllEmployee, for GET /api/employee, when the backend can write it without building the
+    // Employee list (the memory store, from its rows); empty otherwise, the list is then returned as it is
+    default Optional<StreamingResponseBody> streamAllEmployees() {
+        return Optional.empty();
+    }
     Optional<Employee> getEmployeeById(Long id);
+    // the employees found, by id: from the cache first, the others with one query
+    Map<Long, Employee> getEmployeesById(Collection<Long> ids);
+    // fails with IncorrectResultSizeDataAccessException when several employees share the name
+    Optional<Employee> getEmployeeByName(String firstName, String lastName);
     Employee updateEmployee(Employee employee);
+    // no retry: fails with OptimisticLockingFailureException unless the row is still at expectedVersion, whatever
+    // version the employee passed in carries
+    Employee updateEmployee(Employee employee, long expectedVersion);
     void deleteEmployee(Long id);
 }
@@ -1,50 +1,184 @@
 package rei.java.springboot.service.implementation;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import rei.java.springboot.cache.EmployeeCache;
+import rei.java.springboot.cache.EmployeeInvalidationBus;
 import rei.java.springboot.model.Employee;
+import rei.java.springboot.repository.EmployeeNameLookup;
 import rei.java.springboot.repository.EmployeeRepository;
+import rei.java.springboot.resilience.EmployeeRepositoryGuard;
+import rei.java.springboot.resilience.EmployeeUnavailableException;
 import rei.java.springboot.service.EmployeeService;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
+// the JPA backend, InMemoryEmployeeService replaces it in the memory-store profile. Every repository call goes
+// through the EmployeeRepositoryGuard: while the database is unavailable, writes fail fast and reads by id are
+// answered from the cache, stale entries included
+@Profile("!memory-store")
 public class EmployeeServiceImpl implements EmployeeService {
 
+    // conflicting updates are retried after a random pause of up to 5, 10, 20, 40 ms (full jitter), so that
+    // writers of the same hot row do not collide again in lockstep
+    public static final int MAX_UPDATE_ATTEMPTS = 5;
+    private static final long BACKOFF_BASE_MILLIS = 5;
+
     private final EmployeeRepository employeeRepository;
+    private final EmployeeCache employeeCache;
+    private final EmployeeInvalidationBus invalidationBus;
+    private final EmployeeNameLookup nameLookup;
+    private final EmployeeRepositoryGuard guard;
+    private final Counter conflictsRetried;
+    private final Counter conflictsExhausted;
+    private final Counter conflictsRejected;
 
     // when we are using constructor injection, and we have only one constructor, there is no need to use ** @Autowired ** at the top of the constructor
 //    @Autowired
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeCache employeeCache,
+                               EmployeeInvalidationBus invalidationBus, EmployeeNameLookup nameLookup,
+                               EmployeeRepositoryGuard guard, MeterRegistry meterRegistry) {
         this.employeeRepository = employeeRepository;
+        this.employeeCache = employeeCache;
+        this.invalidationBus = invalidationBus;
+        this.nameLookup = nameLookup;
+        this.guard = guard;
+        this.conflictsRetried = conflicts("retried", meterRegistry);
+        this.conflictsExhausted = conflicts("exhausted", meterRegistry);
+        this.conflictsRejected = conflicts("rejected", meterRegistry);
     }
 
     @Override
     public Employee saveEmployee(Employee employee) {
 
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
+        Optional<Employee> savedEmployee = guard.write(() -> employeeRepository.findByEmail(employee.getEmail()));
         if (savedEmployee.isPresent())
             throw new IllegalStateException("An employee already exists with the given email: " + employee.getEmail());
-        return employeeRepository.save(employee);
+        return guard.write(() -> employeeRepository.save(employee));
     }
 
     @Override
     public List<Employee> getAllEmployee() {
-        return employeeRepository.findAll();
+        return guard.read(employeeRepository::findAll);
     }
 
+    // also cached, for the fallback
     @Override
     public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+        long generation = employeeCache.generation();
+        Optional<Employee> employee;
+        try {
+            employee = guard.read(() -> employeeRepository.findById(id));
+        } catch (EmployeeUnavailableException e) {
+            return Optional.of(employeeCache.getStale(id).orElseThrow(() -> e));
+        }
+        employee.ifPresent(found -> employeeCache.putAll(List.of(found), generation));
+        return employee;
+    }
+
+    @Override
+    public Map<Long, Employee> getEmployeesById(Collection<Long> ids) {
+        Map<Long, Employee> employees = employeeCache.getAll(ids);
+        // duplicates are queried once
+        Collection<Long> missing = new LinkedHashSet<>(ids);
+        missing.removeAll(employees.keySet());
+        if (missing.isEmpty())
+            return employees;
+        long generation = employeeCache.generation();
+        List<Employee> loaded;
+        try {
+            loaded = guard.read(() -> employeeRepository.findByIdIn(missing));
+        } catch (EmployeeUnavailableException e) {
+            // all or nothing: an id missing from the result would read as an employee that does not exist
+            for (Long id : missing)
+                employees.put(id, employeeCache.getStale(id).orElseThrow(() -> e));
+            return employees;
+        }
+        employeeCache.putAll(loaded, generation);
+        for (Employee employee : loaded)
+            employees.put(employee.getId(), employee);
+        return employees;
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByName(String firstName, String lastName) {
+        return Optional.ofNullable(guard.read(() -> nameLookup.find(firstName, lastName)));
     }
 
     @Override
     public Employee updateEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+        Employee changes = employee;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Employee attempted = employee;
+                return evictAfter(guard.write(() -> employeeRepository.save(attempted)));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_UPDATE_ATTEMPTS) {
+                    conflictsExhausted.increment();
+                    throw e;
+                }
+                conflictsRetried.increment();
+                backOff(attempt, e);
+                // the requested values on top of the row as another writer left it
+                employee = guard.write(() -> employeeRepository.findById(changes.getId())).orElseThrow(() -> e);
+                employee.setFirstName(changes.getFirstName());
+                employee.setLastName(changes.getLastName());
+                employee.setEmail(changes.getEmail());
+            }
+        }
+    }
+
+    // employee carries the version it was loaded at: Hibernate checks that one in the UPDATE (or the merge of a
+    // detached employee), so a change since the load is rejected too. The field is not a way to pass expectedVersion,
+    // Hibernate ignores it on an employee still managed by the request's session (open-in-view)
+    @Override
+    public Employee updateEmployee(Employee employee, long expectedVersion) {
+        try {
+            if (employee.getVersion() != expectedVersion)
+                throw new ObjectOptimisticLockingFailureException(Employee.class, employee.getId());
+            return evictAfter(guard.write(() -> employeeRepository.save(employee)));
+        } catch (OptimisticLockingFailureException e) {
+            conflictsRejected.increment();
+            throw e;
+        }
     }
 
     @Override
     public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+        guard.write(() -> employeeRepository.deleteById(id));
+        invalidationBus.invalidate(id);
+    }
+
+    // after the write: a lookup that loaded the previous row in the meantime does not cache it (see EmployeeCache),
+    // and the other instances evict it too
+    private Employee evictAfter(Employee updatedEmployee) {
+        invalidationBus.invalidate(updatedEmployee.getId());
+        return updatedEmployee;
+    }
+
+    private static void backOff(int attempt, OptimisticLockingFailureException conflict) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(BACKOFF_BASE_MILLIS << (attempt - 1)) + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private static Counter conflicts(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("employee.update.conflicts")
+                .description("Optimistic locking conflicts of employee updates")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 }
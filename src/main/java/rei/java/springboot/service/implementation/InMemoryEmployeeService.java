@@ -0,0 +1,83 @@
+package rei.java.springboot.service.implementation;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.service.EmployeeService;
+import rei.java.springboot.store.EmployeeStore;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// EmployeeService of the memory-store profile, for read heavy deployments: no JPA round trip, reads never block.
+// Behaves like EmployeeServiceImpl, see EmployeeServiceContractTest.
+@Service
+@Profile("memory-store")
+public class InMemoryEmployeeService implements EmployeeService {
+
+    private final EmployeeStore employeeStore;
+
+    public InMemoryEmployeeService(EmployeeStore employeeStore) {
+        this.employeeStore = employeeStore;
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+
+        Optional<Employee> savedEmployee = employeeStore.findByEmail(employee.getEmail());
+        if (savedEmployee.isPresent())
+            throw new IllegalStateException("An employee already exists with the given email: " + employee.getEmail());
+        return employeeStore.insert(employee);
+    }
+
+    @Override
+    public List<Employee> getAllEmployee() {
+        return employeeStore.findAll();
+    }
+
+    @Override
+    public Optional<StreamingResponseBody> streamAllEmployees() {
+        return Optional.of(employeeStore::writeAll);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id) {
+        return employeeStore.findById(id);
+    }
+
+    @Override
+    public Map<Long, Employee> getEmployeesById(Collection<Long> ids) {
+        return employeeStore.findAllById(ids);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByName(String firstName, String lastName) {
+        List<Employee> employees = employeeStore.findByName(firstName, lastName);
+        if (employees.size() > 1)
+            throw new IncorrectResultSizeDataAccessException(1, employees.size());
+        return employees.stream().findFirst();
+    }
+
+    // writes are serialized by the store, so the changes are applied to the current version instead of retried
+    @Override
+    public Employee updateEmployee(Employee employee) {
+        return employeeStore.update(employee, EmployeeStore.ANY_VERSION);
+    }
+
+    // the store compares expectedVersion with the stored row, under its write lock
+    @Override
+    public Employee updateEmployee(Employee employee, long expectedVersion) {
+        return employeeStore.update(employee, expectedVersion);
+    }
+
+    @Override
+    public void deleteEmployee(Long id) {
+        if (!employeeStore.delete(id))
+            throw new EmptyResultDataAccessException("No employee with id " + id + " exists!", 1);
+    }
+}
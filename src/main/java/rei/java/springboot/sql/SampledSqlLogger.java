@@ -0,0 +1,33 @@
+package rei.java.springboot.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+// Replaces spring.jpa.show-sql: slow statements are always logged, the others only for a sample
+public class SampledSqlLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampledSqlLogger.class);
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public SampledSqlLogger(double sampleRate, Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    public void log(String sql, long nanos) {
+        if (nanos >= slowThresholdNanos) {
+            if (logger.isWarnEnabled())
+                logger.warn("slow statement ({}): {}", kv("durationMs", TimeUnit.NANOSECONDS.toMillis(nanos)), kv("sql", sql));
+        } else if (sampleRate > 0 && logger.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            logger.info("sampled statement ({}): {}", kv("durationUs", TimeUnit.NANOSECONDS.toMicros(nanos)), kv("sql", sql));
+        }
+    }
+}
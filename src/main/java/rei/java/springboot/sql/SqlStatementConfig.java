@@ -0,0 +1,42 @@
+package rei.java.springboot.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SqlStatementProperties.class)
+@ConditionalOnProperty(prefix = "sql.statistics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementConfig {
+
+    // static and bound from the Environment: a BeanPostProcessor is created before the properties beans
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+                    SqlStatementProperties properties = Binder.get(environment)
+                            .bindOrCreate("sql.statistics", SqlStatementProperties.class);
+                    return new StatementCountingDataSource(dataSource,
+                            new SampledSqlLogger(properties.getLogSampleRate(), properties.getSlowThreshold()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatementStatisticsFilter> sqlStatementStatisticsFilter(MeterRegistry meterRegistry) {
+        return new FilterRegistrationBean<>(new SqlStatementStatisticsFilter(meterRegistry));
+    }
+}
@@ -0,0 +1,19 @@
+package rei.java.springboot.sql;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "sql.statistics")
+public class SqlStatementProperties {
+
+    private boolean enabled = true;
+    // share of the statements that are logged, 0 logs only the slow ones
+    private double logSampleRate = 0.01;
+    // statements at least this slow are always logged
+    private Duration slowThreshold = Duration.ofMillis(500);
+}
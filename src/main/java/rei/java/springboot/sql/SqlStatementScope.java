@@ -0,0 +1,73 @@
+package rei.java.springboot.sql;
+
+import java.time.Duration;
+
+/**
+ * Counts the SQL statements, fetched rows and database time of the JDBC calls made on the current thread while the
+ * scope is open. Scopes nest: a statement is counted by every open scope of the thread, so a test can open one
+ * around a MockMvc request that opens its own.
+ *
+ * <pre>
+ * try (SqlStatementScope scope = SqlStatementScope.open()) {
+ *     mockMvc.perform(get("/api/employee/{id}", id));
+ *     assertThat(scope.getStatements()).isEqualTo(1);
+ * }
+ * </pre>
+ */
+public final class SqlStatementScope implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementScope> CURRENT = new ThreadLocal<>();
+
+    private final SqlStatementScope parent;
+    private long statements;
+    private long rows;
+    private long databaseNanos;
+
+    private SqlStatementScope(SqlStatementScope parent) {
+        this.parent = parent;
+    }
+
+    public static SqlStatementScope open() {
+        SqlStatementScope scope = new SqlStatementScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void recordStatement(long nanos) {
+        for (SqlStatementScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+            scope.databaseNanos += nanos;
+        }
+    }
+
+    static void recordRow() {
+        for (SqlStatementScope scope = CURRENT.get(); scope != null; scope = scope.parent)
+            scope.rows++;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public Duration getDatabaseTime() {
+        return Duration.ofNanos(databaseNanos);
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (parent == null)
+                CURRENT.remove();
+            else
+                CURRENT.set(parent);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package rei.java.springboot.sql;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Records the SQL statements, rows and database time of every request as metrics and as attributes of the request span
+public class SqlStatementStatisticsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementStatisticsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                record(request, scope);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementScope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+
+        DistributionSummary.builder("http.server.requests.db.statements")
+                .description("SQL statements executed per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(scope.getStatements());
+        DistributionSummary.builder("http.server.requests.db.rows")
+                .description("Rows fetched per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(scope.getRows());
+        Timer.builder("http.server.requests.db.time")
+                .description("Time spent executing SQL statements per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(scope.getDatabaseTime());
+
+        // high cardinality: on the span only, not as metric tags
+        ServerHttpObservationFilter.findObservationContext(request).ifPresent(context -> context
+                .addHighCardinalityKeyValue(KeyValue.of("db.statements", Long.toString(scope.getStatements())))
+                .addHighCardinalityKeyValue(KeyValue.of("db.rows", Long.toString(scope.getRows())))
+                .addHighCardinalityKeyValue(KeyValue.of("db.time.ms", Long.toString(scope.getDatabaseTime().toMillis()))));
+    }
+}
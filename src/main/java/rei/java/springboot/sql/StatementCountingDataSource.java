@@ -0,0 +1,134 @@
+package rei.java.springboot.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps the connections of a DataSource, so that every executed statement and every fetched row is counted in the
+ * open {@link SqlStatementScope}s of the calling thread, and timed statements go to the {@link SampledSqlLogger}.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private final SampledSqlLogger sqlLogger;
+
+    public StatementCountingDataSource(DataSource targetDataSource, SampledSqlLogger sqlLogger) {
+        super(targetDataSource);
+        this.sqlLogger = sqlLogger;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return wrap(Connection.class, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Connection connection = super.getConnection(username, password);
+        return wrap(Connection.class, new ConnectionHandler(connection));
+    }
+
+    private static <T> T wrap(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        // Hibernate keeps statements in hash based collections, the proxies keep their own identity
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = StatementCountingDataSource.invoke(proxy, connection, method, args);
+            if (result instanceof CallableStatement statement)
+                return wrap(CallableStatement.class, new StatementHandler(statement, (String) args[0]));
+            if (result instanceof PreparedStatement statement)
+                return wrap(PreparedStatement.class, new StatementHandler(statement, (String) args[0]));
+            if (result instanceof Statement statement)
+                return wrap(Statement.class, new StatementHandler(statement, null));
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        // null for plain statements, their SQL is passed to execute
+        private final String preparedSql;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute"))
+                return wrapResultSet(StatementCountingDataSource.invoke(proxy, statement, method, args), method);
+
+            long start = System.nanoTime();
+            try {
+                return wrapResultSet(StatementCountingDataSource.invoke(proxy, statement, method, args), method);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                SqlStatementScope.recordStatement(nanos);
+                String sql = preparedSql != null ? preparedSql : args != null && args.length > 0 ? String.valueOf(args[0]) : "batch";
+                sqlLogger.log(sql, nanos);
+            }
+        }
+
+        private Object wrapResultSet(Object result, Method method) {
+            // the rows of getGeneratedKeys are not fetched data
+            if (result instanceof ResultSet resultSet && !method.getName().equals("getGeneratedKeys") && SqlStatementScope.isActive())
+                return wrap(ResultSet.class, new ResultSetHandler(resultSet));
+            return result;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet resultSet;
+
+        ResultSetHandler(ResultSet resultSet) {
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = StatementCountingDataSource.invoke(proxy, resultSet, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next"))
+                SqlStatementScope.recordRow();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package rei.java.springboot.stats;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Aggregates over the live employees, maintained incrementally from the committed writes (EmployeeStatsListener),
+// so that reading them never touches the employee table. LongAdder cells keep concurrent writers off a shared counter.
+// Writes that bypass JPA (bulk import, manual SQL) are picked up by the periodic reconciliation.
+public class EmployeeStatistics {
+
+    private static final int RATE_MINUTES = 60;
+
+    private final Clock clock;
+    private final LongAdder total = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> byEmailDomain = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> byLastNameInitial = new ConcurrentHashMap<>();
+    // creations per minute of the last hour, slot i counts the minute stored in creationMinutes[i]
+    private final AtomicLongArray creationMinutes = new AtomicLongArray(RATE_MINUTES);
+    private final LongAdder[] creations = new LongAdder[RATE_MINUTES];
+    private volatile Instant reconciledAt;
+
+    public EmployeeStatistics() {
+        this(Clock.systemUTC());
+    }
+
+    public EmployeeStatistics(Clock clock) {
+        this.clock = clock;
+        for (int i = 0; i < RATE_MINUTES; i++)
+            creations[i] = new LongAdder();
+    }
+
+    public void created(String email, String lastName) {
+        add(email, lastName, 1);
+        long minute = currentMinute();
+        int slot = (int) (minute % RATE_MINUTES);
+        long slotMinute = creationMinutes.get(slot);
+        // the first creation of a minute recycles the slot of an hour ago, one concurrent count may be lost
+        if (slotMinute != minute && creationMinutes.compareAndSet(slot, slotMinute, minute))
+            creations[slot].reset();
+        creations[slot].increment();
+    }
+
+    public void updated(String oldEmail, String oldLastName, String email, String lastName) {
+        if (!emailDomain(oldEmail).equals(emailDomain(email))) {
+            counter(byEmailDomain, emailDomain(oldEmail)).decrement();
+            counter(byEmailDomain, emailDomain(email)).increment();
+        }
+        if (!lastNameInitial(oldLastName).equals(lastNameInitial(lastName))) {
+            counter(byLastNameInitial, lastNameInitial(oldLastName)).decrement();
+            counter(byLastNameInitial, lastNameInitial(lastName)).increment();
+        }
+    }
+
+    public void deleted(String email, String lastName) {
+        add(email, lastName, -1);
+    }
+
+    // moves every counter to the value counted in the database, returns the absolute correction
+    public long reconcile(long total, Map<String, Long> byEmailDomain, Map<String, Long> byLastNameInitial) {
+        long drift = correct(this.total, total)
+                + correct(this.byEmailDomain, byEmailDomain)
+                + correct(this.byLastNameInitial, byLastNameInitial);
+        reconciledAt = clock.instant();
+        return drift;
+    }
+
+    public EmployeeStats snapshot() {
+        long minute = currentMinute();
+        long lastHour = 0;
+        for (int i = 0; i < RATE_MINUTES; i++)
+            if (minute - creationMinutes.get(i) < RATE_MINUTES)
+                lastHour += creations[i].sum();
+        int slot = (int) (minute % RATE_MINUTES);
+        long currentMinute = creationMinutes.get(slot) == minute ? creations[slot].sum() : 0;
+        return new EmployeeStats(total.sum(), counts(byEmailDomain), counts(byLastNameInitial),
+                new EmployeeStats.CreationRate(currentMinute, lastHour), reconciledAt);
+    }
+
+    // the same normalization as EmployeeStatsReconciler's query: lower case text after the first @
+    static String emailDomain(String email) {
+        return email == null ? "" : email.substring(email.indexOf('@') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    // upper case first character
+    static String lastNameInitial(String lastName) {
+        return lastName == null || lastName.isEmpty() ? ""
+                : lastName.substring(0, lastName.offsetByCodePoints(0, 1)).toUpperCase(Locale.ROOT);
+    }
+
+    private void add(String email, String lastName, int delta) {
+        total.add(delta);
+        counter(byEmailDomain, emailDomain(email)).add(delta);
+        counter(byLastNameInitial, lastNameInitial(lastName)).add(delta);
+    }
+
+    private long currentMinute() {
+        return clock.millis() / 60_000;
+    }
+
+    private static LongAdder counter(ConcurrentHashMap<String, LongAdder> counters, String key) {
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    // relative, so that writes counted concurrently are kept
+    private static long correct(LongAdder counter, long value) {
+        long difference = value - counter.sum();
+        counter.add(difference);
+        return Math.abs(difference);
+    }
+
+    private static long correct(ConcurrentHashMap<String, LongAdder> counters, Map<String, Long> values) {
+        long drift = 0;
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet())
+            if (!values.containsKey(counter.getKey()))
+                drift += correct(counter.getValue(), 0);
+        for (Map.Entry<String, Long> value : values.entrySet())
+            drift += correct(counter(counters, value.getKey()), value.getValue());
+        return drift;
+    }
+
+    // zero counters stay in the map, a writer may be about to increment them
+    private static Map<String, Long> counts(ConcurrentHashMap<String, LongAdder> counters) {
+        Map<String, Long> counts = new TreeMap<>();
+        counters.forEach((key, counter) -> {
+            long count = counter.sum();
+            if (count > 0)
+                counts.put(key, count);
+        });
+        return counts;
+    }
+}
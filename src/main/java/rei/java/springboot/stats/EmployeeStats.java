@@ -0,0 +1,13 @@
+package rei.java.springboot.stats;
+
+import java.time.Instant;
+import java.util.Map;
+
+// GET /api/employee/stats, reconciledAt is null until the first reconciliation with the database
+public record EmployeeStats(long total, Map<String, Long> byEmailDomain, Map<String, Long> byLastNameInitial,
+                            CreationRate creationRate, Instant reconciledAt) {
+
+    // employees created through the API in the current minute and in the last 60 minutes
+    public record CreationRate(long currentMinute, long lastHour) {
+    }
+}
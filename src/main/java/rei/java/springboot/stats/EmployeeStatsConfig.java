@@ -0,0 +1,32 @@
+package rei.java.springboot.stats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// counters kept by Hibernate events and recounted from the employee table, so off on the memory-store profile
+@Configuration(proxyBeanMethods = false)
+@Profile("!memory-store")
+@EnableConfigurationProperties(EmployeeStatsProperties.class)
+public class EmployeeStatsConfig {
+
+    @Bean
+    public EmployeeStatistics employeeStatistics() {
+        return new EmployeeStatistics();
+    }
+
+    // registered with Hibernate by HibernateIntegratorConfig
+    @Bean
+    public EmployeeStatsListener employeeStatsListener(EmployeeStatistics statistics) {
+        return new EmployeeStatsListener(statistics);
+    }
+
+    @Bean
+    public EmployeeStatsReconciler employeeStatsReconciler(JdbcTemplate jdbcTemplate, EmployeeStatistics statistics,
+                                                           MeterRegistry meterRegistry) {
+        return new EmployeeStatsReconciler(jdbcTemplate, statistics, meterRegistry);
+    }
+}
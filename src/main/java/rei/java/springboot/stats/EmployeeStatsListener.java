@@ -0,0 +1,82 @@
+package rei.java.springboot.stats;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import rei.java.springboot.model.Employee;
+
+// Feeds EmployeeStatistics from the employee writes of EmployeeService, once they are committed: rolled back writes
+// are never counted, and updates see the state they replace. Registered as a Hibernate Integrator (HibernateIntegratorConfig).
+public class EmployeeStatsListener implements Integrator, PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final EmployeeStatistics statistics;
+
+    public EmployeeStatsListener(EmployeeStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.getMappedClass() == Employee.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Employee employee)
+            statistics.created(employee.getEmail(), employee.getLastName());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        // no old state when a detached employee was updated without being read, the reconciliation corrects that
+        if (event.getEntity() instanceof Employee employee && event.getOldState() != null) {
+            EntityPersister persister = event.getPersister();
+            String oldEmail = (String) event.getOldState()[persister.getEntityMetamodel().getPropertyIndex("email")];
+            String oldLastName = (String) event.getOldState()[persister.getEntityMetamodel().getPropertyIndex("lastName")];
+            statistics.updated(oldEmail, oldLastName, employee.getEmail(), employee.getLastName());
+        }
+    }
+
+    // also the soft delete, see Employee's @SQLDelete
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Employee employee)
+            statistics.deleted(employee.getEmail(), employee.getLastName());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+}
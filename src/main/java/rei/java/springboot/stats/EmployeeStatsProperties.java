@@ -0,0 +1,16 @@
+package rei.java.springboot.stats;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.stats")
+public class EmployeeStatsProperties {
+
+    // how often the counters are recounted from the employee table, i.e. how long writes that bypass JPA go unnoticed
+    private Duration reconcileInterval = Duration.ofMinutes(5);
+}
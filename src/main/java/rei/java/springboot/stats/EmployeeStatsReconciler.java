@@ -0,0 +1,56 @@
+package rei.java.springboot.stats;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+// Recounts the live employees in one grouped scan and moves EmployeeStatistics to the result: loads the counters at
+// startup and then catches the writes the listener does not see. Writes committed while the scan runs may be off
+// until the next run.
+@Slf4j
+public class EmployeeStatsReconciler {
+
+    // same normalization as EmployeeStatistics.emailDomain and lastNameInitial
+    private static final String DOMAIN = "LOWER(SUBSTRING(email, LOCATE('@', email) + 1))";
+    private static final String INITIAL = "UPPER(SUBSTRING(last_name, 1, 1))";
+    private static final String COUNT = "SELECT " + DOMAIN + ", " + INITIAL + ", COUNT(*) FROM employee"
+            + " WHERE deleted_at IS NULL GROUP BY " + DOMAIN + ", " + INITIAL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EmployeeStatistics statistics;
+    private final AtomicLong drift = new AtomicLong();
+
+    public EmployeeStatsReconciler(JdbcTemplate jdbcTemplate, EmployeeStatistics statistics, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statistics = statistics;
+        Gauge.builder("employee.stats.drift", drift, AtomicLong::get)
+                .description("Correction applied to the employee statistics by the last reconciliation")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${employee.stats.reconcile-interval:PT5M}")
+    public long reconcile() {
+        long[] total = new long[1];
+        Map<String, Long> byEmailDomain = new HashMap<>();
+        Map<String, Long> byLastNameInitial = new HashMap<>();
+        jdbcTemplate.query(COUNT, rs -> {
+            long count = rs.getLong(3);
+            total[0] += count;
+            byEmailDomain.merge(rs.getString(1), count, Long::sum);
+            byLastNameInitial.merge(rs.getString(2), count, Long::sum);
+        });
+        long correction = statistics.reconcile(total[0], byEmailDomain, byLastNameInitial);
+        drift.set(correction);
+        if (correction > 0)
+            log.info("Employee statistics reconciled {} {}", kv("total", total[0]), kv("drift", correction));
+        return correction;
+    }
+}
@@ -0,0 +1,165 @@
+package rei.java.springboot.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable UTF-8 buffer the employee tables write their rows to as JSON, without an Employee or a String in
+ * between: the same bytes as EmployeeJsonComponent and Jackson's default escaping (quote, backslash and control
+ * characters, everything else as is).
+ */
+final class EmployeeJsonBuffer {
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] ID = field("{\"id\":");
+    static final byte[] FIRST_NAME = field(",\"firstName\":");
+    static final byte[] LAST_NAME = field(",\"lastName\":");
+    static final byte[] EMAIL = field(",\"email\":");
+    static final byte[] VERSION = field(",\"version\":");
+
+    private byte[] bytes;
+    private int size;
+
+    EmployeeJsonBuffer(int capacity) {
+        bytes = new byte[capacity];
+    }
+
+    // a JSON string, quotes included, for the values written again and again
+    static byte[] string(String value) {
+        if (value == null)
+            return field("null");
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        EmployeeJsonBuffer json = new EmployeeJsonBuffer(utf8.length + 2);
+        json.writeString(utf8, 0, utf8.length);
+        return json.toByteArray();
+    }
+
+    void write(byte b) {
+        ensure(1);
+        bytes[size++] = b;
+    }
+
+    void write(byte[] b) {
+        ensure(b.length);
+        System.arraycopy(b, 0, bytes, size, b.length);
+        size += b.length;
+    }
+
+    void writeNumber(long value) {
+        // at most 20 characters, Long.toString without the String
+        ensure(20);
+        if (value == Long.MIN_VALUE) {
+            write(field(Long.toString(value)));
+            return;
+        }
+        if (value < 0) {
+            bytes[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10)
+            digits++;
+        for (int i = size + digits - 1; i >= size; i--, value /= 10)
+            bytes[i] = (byte) ('0' + value % 10);
+        size += digits;
+    }
+
+    void writeString(String value) {
+        if (value == null)
+            write(field("null"));
+        else {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeString(utf8, 0, utf8.length);
+        }
+    }
+
+    // UTF-8 bytes copied straight from the buffer, escaped only when they need it
+    void writeString(ByteBuffer source, int offset, int length) {
+        ensure(length + 2);
+        bytes[size] = '"';
+        source.get(offset, bytes, size + 1, length);
+        if (needsEscaping(bytes, size + 1, length)) {
+            byte[] utf8 = Arrays.copyOfRange(bytes, size + 1, size + 1 + length);
+            writeString(utf8, 0, length);
+            return;
+        }
+        size += length + 1;
+        bytes[size++] = '"';
+    }
+
+    void writeString(byte[] utf8, int offset, int length) {
+        ensure(length + 2);
+        bytes[size++] = '"';
+        for (int i = offset; i < offset + length; i++) {
+            byte b = utf8[i];
+            if (b >= 0 && (b < 0x20 || b == '"' || b == '\\'))
+                escape(b);
+            else {
+                ensure(1);
+                bytes[size++] = b;
+            }
+        }
+        write((byte) '"');
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    // drops what was written after size() returned mark
+    void truncate(int mark) {
+        size = mark;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    private void escape(byte b) {
+        ensure(6);
+        bytes[size++] = '\\';
+        switch (b) {
+            case '"', '\\' -> bytes[size++] = b;
+            case '\b' -> bytes[size++] = 'b';
+            case '\t' -> bytes[size++] = 't';
+            case '\n' -> bytes[size++] = 'n';
+            case '\f' -> bytes[size++] = 'f';
+            case '\r' -> bytes[size++] = 'r';
+            default -> {
+                bytes[size++] = 'u';
+                bytes[size++] = '0';
+                bytes[size++] = '0';
+                bytes[size++] = HEX[b >> 4];
+                bytes[size++] = HEX[b & 0xF];
+            }
+        }
+    }
+
+    private static boolean needsEscaping(byte[] utf8, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            byte b = utf8[i];
+            // multi-byte UTF-8 sequences are negative and written as is
+            if (b >= 0 && (b < 0x20 || b == '"' || b == '\\'))
+                return true;
+        }
+        return false;
+    }
+
+    private void ensure(int more) {
+        if (size + more > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, size + more));
+    }
+
+    private static byte[] field(String json) {
+        return json.getBytes(StandardCharsets.US_ASCII);
+    }
+}
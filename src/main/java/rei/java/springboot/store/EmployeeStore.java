@@ -0,0 +1,281 @@
+package rei.java.springboot.store;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import rei.java.springboot.model.Employee;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process employee table for the memory-store profile (InMemoryEmployeeService), durable through
+ * {@link EmployeeWriteAheadLog}.
+ * <ul>
+ *     <li>rows and indexes (id, unique email, first and last name) live in an {@link EmployeeTable}: objects on the
+ *     heap, or fixed layout records off it for large tables</li>
+ *     <li>readers by id take an optimistic StampedLock stamp and only fall back to the read lock when a write ran
+ *     at the same time; lookups by email and name take the read lock, their indexes are hash maps that a
+ *     concurrent write may leave a reader looping in</li>
+ *     <li>writes are serialized by the write lock, logged first and then applied, so that the log order is the
+ *     order in which readers see the changes</li>
+ *     <li>the same failures as the JPA backend: DuplicateKeyException for a taken email,
+ *     ObjectOptimisticLockingFailureException for a stale version or a missing row</li>
+ * </ul>
+ */
+public class EmployeeStore implements Closeable {
+
+    // updateEmployee without a version check
+    public static final long ANY_VERSION = -1;
+
+    // rows per read of writeAll: the stamp is validated, or the read lock held, for one chunk at a time
+    private static final int JSON_CHUNK = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    private final EmployeeTable table;
+    private final EmployeeWriteAheadLog log;
+    private long lastId;
+
+    private EmployeeStore(EmployeeTable table, EmployeeWriteAheadLog log) {
+        this.table = table;
+        this.log = log;
+    }
+
+    public static EmployeeStore open(Path directory, boolean syncWrites) throws IOException {
+        return open(directory, syncWrites, false);
+    }
+
+    public static EmployeeStore open(Path directory, boolean syncWrites, boolean offHeap) throws IOException {
+        EmployeeTable table = offHeap ? new OffHeapEmployeeTable() : new HeapEmployeeTable();
+        EmployeeStore store = new EmployeeStore(table, new EmployeeWriteAheadLog(directory, syncWrites));
+        // replaying the log sets lastId to the highest id seen, the snapshot knows about deleted ones too
+        long snapshotLastId = store.log.recover(store::apply, table::remove);
+        store.lastId = Math.max(store.lastId, snapshotLastId);
+        return store;
+    }
+
+    public Optional<Employee> findById(long id) {
+        return Optional.ofNullable(read(() -> table.get(id))).map(StoredEmployee::toEmployee);
+    }
+
+    public Optional<Employee> findByEmail(String email) {
+        return Optional.ofNullable(readLocked(() -> {
+            long id = table.idByEmail(email);
+            return id == EmployeeTable.NO_ID ? null : table.get(id);
+        })).map(StoredEmployee::toEmployee);
+    }
+
+    public List<Employee> findByName(String firstName, String lastName) {
+        return readLocked(() -> {
+            List<StoredEmployee> employees = new ArrayList<>();
+            for (long id : table.idsByName(firstName, lastName))
+                employees.add(table.get(id));
+            return employees;
+        }).stream().map(StoredEmployee::toEmployee).toList();
+    }
+
+    public Map<Long, Employee> findAllById(Collection<Long> ids) {
+        List<StoredEmployee> found = read(() -> {
+            List<StoredEmployee> employees = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                StoredEmployee employee = table.get(id);
+                if (employee != null)
+                    employees.add(employee);
+            }
+            return employees;
+        });
+        Map<Long, Employee> employees = new HashMap<>();
+        for (StoredEmployee employee : found)
+            employees.put(employee.id(), employee.toEmployee());
+        return employees;
+    }
+
+    // in id order, like the table
+    public List<Employee> findAll() {
+        return all().stream()
+                .sorted(Comparator.comparingLong(StoredEmployee::id))
+                .map(StoredEmployee::toEmployee)
+                .toList();
+    }
+
+    // the JSON array of findAll, written from the table's bytes in chunks, no Employee in between.
+    // Consistent per chunk, not across chunks: rows written meanwhile may or may not be in it.
+    public void writeAll(OutputStream out) throws IOException {
+        long[] ids = read(table::ids);
+        Arrays.sort(ids);
+        EmployeeJsonBuffer json = new EmployeeJsonBuffer(64 * JSON_CHUNK);
+        boolean first = true;
+        out.write('[');
+        for (int from = 0; from < ids.length; from += JSON_CHUNK) {
+            int to = Math.min(ids.length, from + JSON_CHUNK);
+            int chunk = from;
+            read(() -> {
+                json.reset();
+                for (int i = chunk; i < to; i++) {
+                    int mark = json.size();
+                    json.write((byte) ',');
+                    // deleted since ids() was read
+                    if (!table.writeJson(ids[i], json))
+                        json.truncate(mark);
+                }
+                return null;
+            });
+            int skip = first && json.size() > 0 ? 1 : 0;
+            out.write(json.array(), skip, json.size() - skip);
+            first &= json.size() == 0;
+        }
+        out.write(']');
+    }
+
+    public Employee insert(Employee employee) {
+        long stamp = lock.writeLock();
+        try {
+            if (table.idByEmail(employee.getEmail()) != EmployeeTable.NO_ID)
+                throw duplicateEmail(employee.getEmail());
+            StoredEmployee stored = StoredEmployee.of(employee, lastId + 1, 0);
+            write(stored);
+            return stored.toEmployee();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Employee update(Employee employee, long expectedVersion) {
+        long stamp = lock.writeLock();
+        try {
+            StoredEmployee current = table.get(employee.getId());
+            if (current == null || (expectedVersion != ANY_VERSION && current.version() != expectedVersion))
+                throw new ObjectOptimisticLockingFailureException(Employee.class, employee.getId());
+            long owner = table.idByEmail(employee.getEmail());
+            if (owner != EmployeeTable.NO_ID && owner != current.id())
+                throw duplicateEmail(employee.getEmail());
+            // like Hibernate's dirty checking: nothing to write, the version stays
+            if (current.hasValuesOf(employee))
+                return current.toEmployee();
+            StoredEmployee stored = StoredEmployee.of(employee, current.id(), current.version() + 1);
+            write(stored);
+            return stored.toEmployee();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean delete(long id) {
+        long stamp = lock.writeLock();
+        try {
+            if (table.get(id) == null)
+                return false;
+            try {
+                log.appendDelete(id);
+            } catch (IOException e) {
+                throw logFailure(e);
+            }
+            table.remove(id);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        return read(table::size);
+    }
+
+    // the rows are copied under the write lock, the snapshot file is written without it
+    @Scheduled(fixedDelayString = "${employee.store.snapshot-interval:PT10M}")
+    public void snapshot() {
+        List<StoredEmployee> employees;
+        long sequence;
+        long lastId;
+        long stamp = lock.writeLock();
+        try {
+            if (log.getRecordsSinceSnapshot() == 0)
+                return;
+            sequence = log.rotate();
+            employees = new ArrayList<>(table.size());
+            table.forEach(employees::add);
+            lastId = this.lastId;
+        } catch (IOException e) {
+            throw logFailure(e);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        try {
+            log.writeSnapshot(sequence, employees, lastId);
+        } catch (IOException e) {
+            throw logFailure(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshot();
+        log.close();
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp))
+                    return result;
+            } catch (RuntimeException e) {
+                // the indexes changed under the reader, retried under the read lock
+            }
+        }
+        return readLocked(reader);
+    }
+
+    private <T> T readLocked(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private List<StoredEmployee> all() {
+        return read(() -> {
+            List<StoredEmployee> employees = new ArrayList<>(table.size());
+            table.forEach(employees::add);
+            return employees;
+        });
+    }
+
+    private void write(StoredEmployee employee) {
+        try {
+            log.appendPut(employee);
+        } catch (IOException e) {
+            throw logFailure(e);
+        }
+        apply(employee);
+    }
+
+    private void apply(StoredEmployee employee) {
+        table.put(employee);
+        lastId = Math.max(lastId, employee.id());
+    }
+
+    private static DuplicateKeyException duplicateEmail(String email) {
+        return new DuplicateKeyException("An employee already exists with the given email: " + email);
+    }
+
+    private static DataAccessResourceFailureException logFailure(IOException e) {
+        return new DataAccessResourceFailureException("Employee store log failed", e);
+    }
+}
@@ -0,0 +1,21 @@
+package rei.java.springboot.store;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+
+// --spring.profiles.active=memory-store: EmployeeService is served by InMemoryEmployeeService instead of JPA
+@Configuration(proxyBeanMethods = false)
+@Profile("memory-store")
+@EnableConfigurationProperties(EmployeeStoreProperties.class)
+public class EmployeeStoreConfig {
+
+    // recovered from the snapshot and log on startup, snapshotted again on close
+    @Bean
+    public EmployeeStore employeeStore(EmployeeStoreProperties properties) throws IOException {
+        return EmployeeStore.open(properties.getDirectory(), properties.isSyncWrites(), properties.isOffHeap());
+    }
+}
@@ -0,0 +1,24 @@
+package rei.java.springboot.store;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.store")
+public class EmployeeStoreProperties {
+
+    // write-ahead logs and snapshots
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "employee-store");
+    // fsync every log record: an acknowledged write survives a power loss, at the cost of write throughput
+    private boolean syncWrites = true;
+    // how often the log is folded into a snapshot, which bounds the replay on startup
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+    // rows as records in direct buffers instead of objects: a fraction of the heap and next to no GC work for large
+    // tables, at the cost of decoding on every read. Needs -XX:MaxDirectMemorySize to fit the table.
+    private boolean offHeap = false;
+}
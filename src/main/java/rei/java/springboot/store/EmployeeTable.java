@@ -0,0 +1,36 @@
+package rei.java.springboot.store;
+
+import java.util.function.Consumer;
+
+/**
+ * Rows and indexes of {@link EmployeeStore}, on the heap ({@link HeapEmployeeTable}) or off it
+ * ({@link OffHeapEmployeeTable}). Writes are serialized by the store's write lock. The other reads may run
+ * concurrently under an optimistic stamp: they have to terminate, and may only fail with a RuntimeException, while
+ * a write runs. {@link #idByEmail} and {@link #idsByName} are only called under the read or write lock.
+ */
+interface EmployeeTable {
+
+    // 0, which is never an id, when there is no such employee
+    long NO_ID = 0;
+
+    StoredEmployee get(long id);
+
+    long idByEmail(String email);
+
+    long[] idsByName(String firstName, String lastName);
+
+    // inserts or replaces the row with the same id
+    void put(StoredEmployee employee);
+
+    StoredEmployee remove(long id);
+
+    int size();
+
+    // all ids, in no particular order
+    long[] ids();
+
+    void forEach(Consumer<StoredEmployee> action);
+
+    // appends the employee as EmployeeJsonComponent writes it, false when there is no such id
+    boolean writeJson(long id, EmployeeJsonBuffer json);
+}
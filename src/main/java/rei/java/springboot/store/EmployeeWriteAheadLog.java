@@ -0,0 +1,272 @@
+package rei.java.springboot.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Durability of {@link EmployeeStore}: every change is appended to {@code wal-<n>.log} before it is applied in memory,
+ * and a snapshot of all rows periodically replaces the log written before it.
+ * <ul>
+ *     <li>{@code snapshot-<n>.bin} holds the rows as they were when {@code wal-<n>.log} was started, recovery loads
+ *     the latest snapshot and replays the logs from {@code n} on</li>
+ *     <li>records are framed as length, CRC32, payload: a write torn by a crash ends the replay of its log</li>
+ *     <li>snapshots are written to a temporary file and moved in place, the logs they replace are deleted after</li>
+ * </ul>
+ * Appends are serialized by the store's write lock, snapshots by this class.
+ */
+@Slf4j
+class EmployeeWriteAheadLog implements Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    // last record of a complete snapshot, with the row count and the highest id handed out
+    private static final byte END = 3;
+    // type, id, version and the three strings, whose lengths StoredEmployee bounds; writeUTF takes up to 3 bytes per
+    // char and 2 for the length. A longer record could be written, but would read as torn
+    private static final int MAX_RECORD = 1 + 2 * Long.BYTES + 3 * 2
+            + 3 * (StoredEmployee.FIRST_NAME_LENGTH + StoredEmployee.LAST_NAME_LENGTH + StoredEmployee.EMAIL_LENGTH);
+
+    private final Path directory;
+    private final boolean syncWrites;
+    private final Object snapshotLock = new Object();
+    private FileChannel channel;
+    private long sequence;
+    private long recordsSinceSnapshot;
+
+    EmployeeWriteAheadLog(Path directory, boolean syncWrites) {
+        this.directory = directory;
+        this.syncWrites = syncWrites;
+    }
+
+    // loads the latest snapshot and replays the logs after it, then starts a new log; returns the snapshot's last id
+    long recover(Consumer<StoredEmployee> put, LongConsumer delete) throws IOException {
+        Files.createDirectories(directory);
+        long snapshot = latest("snapshot-", ".bin");
+        long lastId = snapshot > 0 ? readSnapshot(file("snapshot-", snapshot, ".bin"), put) : 0;
+        long lastLog = snapshot;
+        for (long wal : sequences("wal-", ".log")) {
+            if (wal < snapshot)
+                continue;
+            recordsSinceSnapshot += replay(file("wal-", wal, ".log"), put, delete);
+            lastLog = Math.max(lastLog, wal);
+        }
+        // never appended to: a torn tail of the previous log stays where the replay stops
+        open(lastLog + 1);
+        return lastId;
+    }
+
+    void appendPut(StoredEmployee employee) throws IOException {
+        append(encode(PUT, employee.id(), employee));
+    }
+
+    void appendDelete(long id) throws IOException {
+        append(encode(DELETE, id, null));
+    }
+
+    long getRecordsSinceSnapshot() {
+        return recordsSinceSnapshot;
+    }
+
+    // to be called under the store's write lock: later appends go to a new log, returns the sequence of the snapshot
+    long rotate() throws IOException {
+        long next = sequence + 1;
+        channel.force(false);
+        channel.close();
+        open(next);
+        recordsSinceSnapshot = 0;
+        return next;
+    }
+
+    // the rows as they were at rotate(), replaces the snapshots and logs before it
+    void writeSnapshot(long sequence, Collection<StoredEmployee> employees, long lastId) throws IOException {
+        synchronized (snapshotLock) {
+            Path snapshot = file("snapshot-", sequence, ".bin");
+            Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+                for (StoredEmployee employee : employees) {
+                    buffer.write(encode(PUT, employee.id(), employee));
+                    if (buffer.size() >= 1 << 16)
+                        flush(out, buffer);
+                }
+                buffer.write(frame(ByteBuffer.allocate(1 + 2 * Long.BYTES)
+                        .put(END).putLong(employees.size()).putLong(lastId).array()));
+                flush(out, buffer);
+                out.force(true);
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (long wal : sequences("wal-", ".log"))
+                if (wal < sequence)
+                    Files.deleteIfExists(file("wal-", wal, ".log"));
+            for (long older : sequences("snapshot-", ".bin"))
+                if (older < sequence)
+                    Files.deleteIfExists(file("snapshot-", older, ".bin"));
+            log.info("Employee store snapshot written {} {}", kv("sequence", sequence), kv("rows", employees.size()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private void append(byte[] record) throws IOException {
+        long size = channel.size();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            if (syncWrites)
+                channel.force(false);
+        } catch (IOException e) {
+            // a partly written record would end the replay of the records appended after it
+            channel.truncate(size);
+            throw e;
+        }
+        recordsSinceSnapshot++;
+    }
+
+    private void open(long sequence) throws IOException {
+        this.sequence = sequence;
+        channel = FileChannel.open(file("wal-", sequence, ".log"), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private static void flush(FileChannel out, ByteArrayOutputStream buffer) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining())
+            out.write(bytes);
+        buffer.reset();
+    }
+
+    private static byte[] encode(byte type, long id, StoredEmployee employee) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeByte(type);
+        data.writeLong(id);
+        if (employee != null) {
+            data.writeLong(employee.version());
+            data.writeUTF(employee.firstName());
+            data.writeUTF(employee.lastName());
+            data.writeUTF(employee.email());
+        }
+        if (payload.size() > MAX_RECORD)
+            throw new IOException("Employee store record of " + payload.size() + " bytes, at most " + MAX_RECORD);
+        return frame(payload.toByteArray());
+    }
+
+    private static byte[] frame(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer record = ByteBuffer.allocate(8 + bytes.length);
+        record.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        return record.array();
+    }
+
+    // returns the last id handed out
+    private static long readSnapshot(Path file, Consumer<StoredEmployee> put) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            long rows = 0;
+            for (DataInputStream record; (record = next(in)) != null; ) {
+                byte type = record.readByte();
+                long id = record.readLong();
+                if (type == END) {
+                    if (id != rows)
+                        throw new IOException("Corrupt snapshot " + file + ": " + rows + " rows, expected " + id);
+                    return record.readLong();
+                }
+                put.accept(read(id, record));
+                rows++;
+            }
+            throw new IOException("Incomplete snapshot " + file);
+        }
+    }
+
+    // the number of records replayed
+    private static long replay(Path file, Consumer<StoredEmployee> put, LongConsumer delete) throws IOException {
+        long records = 0;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            for (DataInputStream record; (record = next(in)) != null; records++) {
+                byte type = record.readByte();
+                long id = record.readLong();
+                if (type == PUT)
+                    put.accept(read(id, record));
+                else if (type == DELETE)
+                    delete.accept(id);
+            }
+        }
+        return records;
+    }
+
+    private static StoredEmployee read(long id, DataInputStream record) throws IOException {
+        long version = record.readLong();
+        return new StoredEmployee(id, record.readUTF(), record.readUTF(), record.readUTF(), version);
+    }
+
+    // the payload of the next intact record, null at the end of the file or at a torn or corrupt record
+    private static DataInputStream next(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int expectedCrc = in.readInt();
+            if (length <= 0 || length > MAX_RECORD)
+                return torn();
+            byte[] payload = in.readNBytes(length);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (payload.length != length || (int) crc.getValue() != expectedCrc)
+                return torn();
+            return new DataInputStream(new ByteArrayInputStream(payload));
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static DataInputStream torn() {
+        log.warn("Employee store log ends with a torn record, the rest of the file is ignored");
+        return null;
+    }
+
+    private long latest(String prefix, String suffix) throws IOException {
+        List<Long> sequences = sequences(prefix, suffix);
+        return sequences.isEmpty() ? 0 : sequences.get(sequences.size() - 1);
+    }
+
+    private List<Long> sequences(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path file(String prefix, long sequence, String suffix) {
+        return directory.resolve(prefix + String.format("%020d", sequence) + suffix);
+    }
+}
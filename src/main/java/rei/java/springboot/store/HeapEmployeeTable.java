@@ -0,0 +1,103 @@
+package rei.java.springboot.store;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+// EmployeeStore rows as immutable StoredEmployee objects: the fastest reads, one object and four Strings per row
+class HeapEmployeeTable implements EmployeeTable {
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final LongObjectMap<StoredEmployee> byId = new LongObjectMap<>();
+    private final HashMap<String, Long> byEmail = new HashMap<>();
+    // id arrays are replaced, never changed, so a returned one is not changed by a later write
+    private final HashMap<Name, long[]> byName = new HashMap<>();
+
+    @Override
+    public StoredEmployee get(long id) {
+        return byId.get(id);
+    }
+
+    @Override
+    public long idByEmail(String email) {
+        Long id = byEmail.get(email);
+        return id == null ? NO_ID : id;
+    }
+
+    @Override
+    public long[] idsByName(String firstName, String lastName) {
+        return byName.getOrDefault(new Name(firstName, lastName), NO_IDS);
+    }
+
+    @Override
+    public void put(StoredEmployee employee) {
+        remove(employee.id());
+        byId.put(employee.id(), employee);
+        byEmail.put(employee.email(), employee.id());
+        Name name = new Name(employee.firstName(), employee.lastName());
+        long[] ids = byName.getOrDefault(name, NO_IDS);
+        long[] withId = Arrays.copyOf(ids, ids.length + 1);
+        withId[ids.length] = employee.id();
+        byName.put(name, withId);
+    }
+
+    @Override
+    public StoredEmployee remove(long id) {
+        StoredEmployee previous = byId.remove(id);
+        if (previous == null)
+            return null;
+        byEmail.remove(previous.email());
+        Name name = new Name(previous.firstName(), previous.lastName());
+        long[] ids = byName.get(name);
+        long[] withoutId = Arrays.stream(ids).filter(other -> other != id).toArray();
+        if (withoutId.length == 0)
+            byName.remove(name);
+        else
+            byName.put(name, withoutId);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return byId.size();
+    }
+
+    @Override
+    public long[] ids() {
+        long[] ids = new long[byId.size()];
+        int[] n = {0};
+        byId.forEach(employee -> {
+            if (n[0] < ids.length)
+                ids[n[0]++] = employee.id();
+        });
+        return n[0] == ids.length ? ids : Arrays.copyOf(ids, n[0]);
+    }
+
+    @Override
+    public void forEach(Consumer<StoredEmployee> action) {
+        byId.forEach(action);
+    }
+
+    @Override
+    public boolean writeJson(long id, EmployeeJsonBuffer json) {
+        StoredEmployee employee = byId.get(id);
+        if (employee == null)
+            return false;
+        json.write(EmployeeJsonBuffer.ID);
+        json.writeNumber(employee.id());
+        json.write(EmployeeJsonBuffer.FIRST_NAME);
+        json.writeString(employee.firstName());
+        json.write(EmployeeJsonBuffer.LAST_NAME);
+        json.writeString(employee.lastName());
+        json.write(EmployeeJsonBuffer.EMAIL);
+        json.writeString(employee.email());
+        json.write(EmployeeJsonBuffer.VERSION);
+        json.writeNumber(employee.version());
+        json.write((byte) '}');
+        return true;
+    }
+
+    private record Name(String firstName, String lastName) {
+    }
+}
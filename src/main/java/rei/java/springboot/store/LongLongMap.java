@@ -0,0 +1,131 @@
+package rei.java.springboot.store;
+
+import java.util.Arrays;
+
+/**
+ * {@link LongObjectMap} with primitive long values: two long arrays, nothing else per entry. Values can be anything
+ * but {@link #NONE}, which marks the empty slots and is returned for missing keys.
+ * <p>
+ * Same concurrency contract as LongObjectMap: one writer at a time, optimistic readers may get a wrong answer
+ * while a write runs, but {@link #get} always terminates and never throws.
+ */
+class LongLongMap {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private int size;
+
+    long get(long key) {
+        Table t = table;
+        int mask = t.keys.length - 1;
+        for (int i = index(key, mask), probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            long value = t.values[i];
+            if (value == NONE)
+                return NONE;
+            if (t.keys[i] == key)
+                return value;
+        }
+        return NONE;
+    }
+
+    long put(long key, long value) {
+        if (value == NONE)
+            throw new IllegalArgumentException("NONE is not a value");
+        Table t = table;
+        int mask = t.keys.length - 1;
+        int i = index(key, mask);
+        while (t.values[i] != NONE) {
+            if (t.keys[i] == key) {
+                long previous = t.values[i];
+                t.values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        t.keys[i] = key;
+        t.values[i] = value;
+        if (++size > (t.keys.length >> 1) + (t.keys.length >> 2))
+            resize(t.keys.length << 1);
+        return NONE;
+    }
+
+    long remove(long key) {
+        Table t = table;
+        int mask = t.keys.length - 1;
+        int i = index(key, mask);
+        while (t.values[i] != NONE) {
+            if (t.keys[i] == key) {
+                long previous = t.values[i];
+                shiftBack(t, i);
+                size--;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        return NONE;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // the keys of all entries, in table order
+    long[] keys() {
+        Table t = table;
+        long[] keys = new long[t.keys.length];
+        int n = 0;
+        for (int i = 0; i < t.keys.length && n < keys.length; i++)
+            if (t.values[i] != NONE)
+                keys[n++] = t.keys[i];
+        return Arrays.copyOf(keys, n);
+    }
+
+    private static void shiftBack(Table t, int removed) {
+        int mask = t.keys.length - 1;
+        int gap = removed;
+        for (int i = (gap + 1) & mask; t.values[i] != NONE; i = (i + 1) & mask) {
+            int home = index(t.keys[i], mask);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                t.keys[gap] = t.keys[i];
+                t.values[gap] = t.values[i];
+                gap = i;
+            }
+        }
+        t.values[gap] = NONE;
+    }
+
+    private void resize(int capacity) {
+        Table old = table;
+        Table t = new Table(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < old.keys.length; j++) {
+            if (old.values[j] == NONE)
+                continue;
+            int i = index(old.keys[j], mask);
+            while (t.values[i] != NONE)
+                i = (i + 1) & mask;
+            t.keys[i] = old.keys[j];
+            t.values[i] = old.values[j];
+        }
+        table = t;
+    }
+
+    private static int index(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private static final class Table {
+
+        final long[] keys;
+        final long[] values;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new long[capacity];
+            Arrays.fill(values, NONE);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package rei.java.springboot.store;
+
+import java.util.function.Consumer;
+
+/**
+ * Open addressing hash map from primitive long keys to values: no boxing of the key and no entry objects, one
+ * probe sequence through two parallel arrays. Linear probing, removals shift the following entries back instead of
+ * leaving tombstones.
+ * <p>
+ * Not thread safe. Writers are serialized by {@link EmployeeStore}'s lock, readers may run concurrently with a
+ * writer under an optimistic stamp: {@link #get} always terminates and never throws, it may only return a wrong
+ * answer, which the failed stamp validation then discards.
+ */
+class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    // keys and values of one capacity, replaced together on resize so that a reader never mixes two tables
+    private volatile Table<V> table;
+    private int size;
+
+    LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongObjectMap(int expectedSize) {
+        this.table = new Table<>(capacityFor(expectedSize));
+    }
+
+    V get(long key) {
+        Table<V> t = table;
+        int mask = t.keys.length - 1;
+        // bounded by the capacity, a concurrent writer may leave the table without an empty slot for a moment
+        for (int i = index(key, mask), probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            V value = t.values[i];
+            if (value == null)
+                return null;
+            if (t.keys[i] == key)
+                return value;
+        }
+        return null;
+    }
+
+    V put(long key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("null values are not supported");
+        Table<V> t = table;
+        int mask = t.keys.length - 1;
+        int i = index(key, mask);
+        while (t.values[i] != null) {
+            if (t.keys[i] == key) {
+                V previous = t.values[i];
+                t.values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        // the key before the value: the value marks the slot as used
+        t.keys[i] = key;
+        t.values[i] = value;
+        if (++size > (t.keys.length >> 1) + (t.keys.length >> 2))
+            resize(t.keys.length << 1);
+        return null;
+    }
+
+    V remove(long key) {
+        Table<V> t = table;
+        int mask = t.keys.length - 1;
+        int i = index(key, mask);
+        while (t.values[i] != null) {
+            if (t.keys[i] == key) {
+                V previous = t.values[i];
+                shiftBack(t, i);
+                size--;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(Consumer<V> action) {
+        Table<V> t = table;
+        for (V value : t.values)
+            if (value != null)
+                action.accept(value);
+    }
+
+    void clear() {
+        table = new Table<>(MIN_CAPACITY);
+        size = 0;
+    }
+
+    // moves the entries after the removed slot back where their probe sequence still finds them
+    private static <V> void shiftBack(Table<V> t, int removed) {
+        int mask = t.keys.length - 1;
+        int gap = removed;
+        for (int i = (gap + 1) & mask; t.values[i] != null; i = (i + 1) & mask) {
+            int home = index(t.keys[i], mask);
+            // the entry can move to the gap unless its home slot lies cyclically in (gap, i]
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                t.keys[gap] = t.keys[i];
+                t.values[gap] = t.values[i];
+                gap = i;
+            }
+        }
+        t.values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        Table<V> old = table;
+        Table<V> t = new Table<>(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < old.keys.length; j++) {
+            if (old.values[j] == null)
+                continue;
+            int i = index(old.keys[j], mask);
+            while (t.values[i] != null)
+                i = (i + 1) & mask;
+            t.keys[i] = old.keys[j];
+            t.values[i] = old.values[j];
+        }
+        table = t;
+    }
+
+    // Fibonacci hashing: consecutive ids, the common case, spread over the whole table
+    private static int index(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private static final class Table<V> {
+
+        final long[] keys;
+        final V[] values;
+
+        @SuppressWarnings("unchecked")
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = (V[]) new Object[capacity];
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package rei.java.springboot.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * EmployeeStore rows outside of the Java heap (employee.store.off-heap=true), for tables too large to keep as
+ * objects: the heap only holds a few primitive arrays, whatever the row count, so there is next to nothing for the
+ * collector to trace.
+ * <ul>
+ *     <li>rows are fixed layout records in direct ByteBuffer slabs: id, version, first and last name reference,
+ *     email length and UTF-8 bytes, padded to 8 bytes</li>
+ *     <li>first and last names are deduplicated in a dictionary holding each distinct name once, as a String and
+ *     as its encoded JSON string</li>
+ *     <li>indexes are primitive: id to record address, 64-bit email hash to id (checked against the record's bytes,
+ *     the rare collisions go to a HashMap), name reference pair to id; the name dictionary and the collisions are
+ *     only looked up under the store's read lock</li>
+ *     <li>a write of a same size record overwrites it in place, other writes append and leave the old record as
+ *     garbage, compacted into fresh slabs once it is half of the used space</li>
+ * </ul>
+ * Readers decode the bytes of a record that may be written at the same time: the torn result is discarded by the
+ * store's stamp validation, any exception (a freed name, an index out of bounds) retries under the read lock.
+ */
+class OffHeapEmployeeTable implements EmployeeTable {
+
+    static final int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+
+    private static final long[] NO_IDS = new long[0];
+    private static final int ID = 0;
+    private static final int VERSION = 8;
+    private static final int FIRST_NAME = 16;
+    private static final int LAST_NAME = 20;
+    private static final int EMAIL_LENGTH = 24;
+    private static final int EMAIL = 26;
+
+    private final int slabSize;
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    // append position in the last slab
+    private int position;
+    private long usedBytes;
+    private long garbageBytes;
+    private final LongLongMap addresses = new LongLongMap();
+    private final Names names = new Names();
+    private final LongLongMap byEmailHash = new LongLongMap();
+    private final HashMap<String, Long> emailCollisions = new HashMap<>();
+    // name pairs of one id in byName, of several ids in sharedNames (replaced, never changed)
+    private final LongLongMap byName = new LongLongMap();
+    private final LongObjectMap<long[]> sharedNames = new LongObjectMap<>();
+
+    OffHeapEmployeeTable() {
+        this(DEFAULT_SLAB_SIZE);
+    }
+
+    OffHeapEmployeeTable(int slabSize) {
+        this.slabSize = slabSize;
+    }
+
+    @Override
+    public StoredEmployee get(long id) {
+        long address = addresses.get(id);
+        if (address == LongLongMap.NONE)
+            return null;
+        ByteBuffer slab = slabs[slab(address)];
+        int offset = offset(address);
+        byte[] email = new byte[Short.toUnsignedInt(slab.getShort(offset + EMAIL_LENGTH))];
+        slab.get(offset + EMAIL, email);
+        return new StoredEmployee(slab.getLong(offset + ID), names.value(slab.getInt(offset + FIRST_NAME)),
+                names.value(slab.getInt(offset + LAST_NAME)), new String(email, StandardCharsets.UTF_8),
+                slab.getLong(offset + VERSION));
+    }
+
+    @Override
+    public long idByEmail(String email) {
+        byte[] utf8 = email.getBytes(StandardCharsets.UTF_8);
+        long id = byEmailHash.get(hash(utf8));
+        if (id != LongLongMap.NONE && hasEmail(addresses.get(id), utf8))
+            return id;
+        Long collision = emailCollisions.get(email);
+        return collision == null ? NO_ID : collision;
+    }
+
+    @Override
+    public long[] idsByName(String firstName, String lastName) {
+        int first = names.ref(firstName);
+        int last = names.ref(lastName);
+        if (first < 0 || last < 0)
+            return NO_IDS;
+        long key = nameKey(first, last);
+        long[] shared = sharedNames.get(key);
+        if (shared != null)
+            return shared;
+        long id = byName.get(key);
+        return id == LongLongMap.NONE ? NO_IDS : new long[]{id};
+    }
+
+    @Override
+    public void put(StoredEmployee employee) {
+        byte[] email = employee.email().getBytes(StandardCharsets.UTF_8);
+        if (email.length > 0xFFFF)
+            throw new IllegalArgumentException("Email too long: " + email.length + " bytes");
+        int length = recordLength(email.length);
+        // acquired before the previous names are released, an unchanged name keeps its reference
+        int first = names.acquire(employee.firstName());
+        int last = names.acquire(employee.lastName());
+        long previous = addresses.get(employee.id());
+        long address;
+        if (previous != LongLongMap.NONE) {
+            unindex(employee.id(), previous);
+            int previousLength = recordLength(emailLength(previous));
+            if (previousLength == length)
+                address = previous;
+            else {
+                garbageBytes += previousLength;
+                address = allocate(length);
+            }
+        } else
+            address = allocate(length);
+
+        ByteBuffer slab = slabs[slab(address)];
+        int offset = offset(address);
+        slab.putLong(offset + ID, employee.id())
+                .putLong(offset + VERSION, employee.version())
+                .putInt(offset + FIRST_NAME, first)
+                .putInt(offset + LAST_NAME, last)
+                .putShort(offset + EMAIL_LENGTH, (short) email.length)
+                .put(offset + EMAIL, email);
+        addresses.put(employee.id(), address);
+        index(employee.id(), email, first, last);
+        if (garbageBytes > slabSize && garbageBytes > usedBytes / 2)
+            compact();
+    }
+
+    @Override
+    public StoredEmployee remove(long id) {
+        long address = addresses.get(id);
+        if (address == LongLongMap.NONE)
+            return null;
+        StoredEmployee previous = get(id);
+        unindex(id, address);
+        addresses.remove(id);
+        garbageBytes += recordLength(emailLength(address));
+        if (garbageBytes > slabSize && garbageBytes > usedBytes / 2)
+            compact();
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return addresses.size();
+    }
+
+    @Override
+    public long[] ids() {
+        return addresses.keys();
+    }
+
+    @Override
+    public void forEach(Consumer<StoredEmployee> action) {
+        for (long id : addresses.keys())
+            action.accept(get(id));
+    }
+
+    @Override
+    public boolean writeJson(long id, EmployeeJsonBuffer json) {
+        long address = addresses.get(id);
+        if (address == LongLongMap.NONE)
+            return false;
+        ByteBuffer slab = slabs[slab(address)];
+        int offset = offset(address);
+        json.write(EmployeeJsonBuffer.ID);
+        json.writeNumber(slab.getLong(offset + ID));
+        json.write(EmployeeJsonBuffer.FIRST_NAME);
+        json.write(names.json(slab.getInt(offset + FIRST_NAME)));
+        json.write(EmployeeJsonBuffer.LAST_NAME);
+        json.write(names.json(slab.getInt(offset + LAST_NAME)));
+        json.write(EmployeeJsonBuffer.EMAIL);
+        json.writeString(slab, offset + EMAIL, Short.toUnsignedInt(slab.getShort(offset + EMAIL_LENGTH)));
+        json.write(EmployeeJsonBuffer.VERSION);
+        json.writeNumber(slab.getLong(offset + VERSION));
+        json.write((byte) '}');
+        return true;
+    }
+
+    // bytes of the slabs, live records and garbage
+    long offHeapBytes() {
+        return (long) slabs.length * slabSize;
+    }
+
+    private void index(long id, byte[] email, int first, int last) {
+        long hash = hash(email);
+        long owner = byEmailHash.get(hash);
+        if (owner == LongLongMap.NONE || owner == id)
+            byEmailHash.put(hash, id);
+        else
+            emailCollisions.put(new String(email, StandardCharsets.UTF_8), id);
+
+        long key = nameKey(first, last);
+        long[] shared = sharedNames.get(key);
+        long single = byName.get(key);
+        if (shared != null) {
+            long[] withId = Arrays.copyOf(shared, shared.length + 1);
+            withId[shared.length] = id;
+            sharedNames.put(key, withId);
+        } else if (single != LongLongMap.NONE) {
+            sharedNames.put(key, new long[]{single, id});
+            byName.remove(key);
+        } else
+            byName.put(key, id);
+    }
+
+    private void unindex(long id, long address) {
+        ByteBuffer slab = slabs[slab(address)];
+        int offset = offset(address);
+        byte[] email = new byte[emailLength(address)];
+        slab.get(offset + EMAIL, email);
+        long hash = hash(email);
+        if (byEmailHash.get(hash) == id)
+            byEmailHash.remove(hash);
+        else
+            emailCollisions.remove(new String(email, StandardCharsets.UTF_8));
+
+        int first = slab.getInt(offset + FIRST_NAME);
+        int last = slab.getInt(offset + LAST_NAME);
+        long key = nameKey(first, last);
+        long[] shared = sharedNames.get(key);
+        if (shared == null)
+            byName.remove(key);
+        else {
+            long[] withoutId = Arrays.stream(shared).filter(other -> other != id).toArray();
+            if (withoutId.length == 1) {
+                byName.put(key, withoutId[0]);
+                sharedNames.remove(key);
+            } else
+                sharedNames.put(key, withoutId);
+        }
+        names.release(first);
+        names.release(last);
+    }
+
+    private boolean hasEmail(long address, byte[] email) {
+        if (address == LongLongMap.NONE || emailLength(address) != email.length)
+            return false;
+        ByteBuffer slab = slabs[slab(address)];
+        int offset = offset(address) + EMAIL;
+        for (int i = 0; i < email.length; i++)
+            if (slab.get(offset + i) != email[i])
+                return false;
+        return true;
+    }
+
+    private int emailLength(long address) {
+        return Short.toUnsignedInt(slabs[slab(address)].getShort(offset(address) + EMAIL_LENGTH));
+    }
+
+    private long allocate(int length) {
+        if (slabs.length == 0 || position + length > slabSize) {
+            ByteBuffer[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+            grown[slabs.length] = ByteBuffer.allocateDirect(slabSize);
+            slabs = grown;
+            position = 0;
+        }
+        long address = address(slabs.length - 1, position);
+        position += length;
+        usedBytes += length;
+        return address;
+    }
+
+    // copies the live records to fresh slabs, the old ones are freed by their cleaner once unreachable
+    private void compact() {
+        ByteBuffer[] old = slabs;
+        long[] ids = addresses.keys();
+        long[] moved = new long[ids.length];
+        for (int i = 0; i < ids.length; i++)
+            moved[i] = addresses.get(ids[i]);
+        slabs = new ByteBuffer[0];
+        usedBytes = 0;
+        garbageBytes = 0;
+        for (int i = 0; i < ids.length; i++) {
+            ByteBuffer from = old[slab(moved[i])];
+            int offset = offset(moved[i]);
+            int length = recordLength(Short.toUnsignedInt(from.getShort(offset + EMAIL_LENGTH)));
+            long address = allocate(length);
+            slabs[slab(address)].put(offset(address), from, offset, length);
+            addresses.put(ids[i], address);
+        }
+    }
+
+    private int recordLength(int emailLength) {
+        int length = (EMAIL + emailLength + 7) & ~7;
+        if (length > slabSize)
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit a slab of " + slabSize);
+        return length;
+    }
+
+    private static long address(int slab, int offset) {
+        return (long) slab << 32 | offset;
+    }
+
+    private static int slab(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private static long nameKey(int first, int last) {
+        return (long) first << 32 | (last & 0xFFFFFFFFL);
+    }
+
+    // FNV-1a, then the murmur3 finalizer to spread the bits
+    private static long hash(byte[] bytes) {
+        long h = 0xCBF29CE484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    // distinct names with a reference count, the references of unused ones are handed out again
+    private static final class Names {
+
+        private final HashMap<String, Integer> refs = new HashMap<>();
+        private volatile String[] values = new String[64];
+        private volatile byte[][] json = new byte[64][];
+        private int[] counts = new int[64];
+        private int[] free = new int[16];
+        private int freeCount;
+        private int next;
+
+        // -1 when unknown
+        int ref(String value) {
+            Integer ref = refs.get(value);
+            return ref == null ? -1 : ref;
+        }
+
+        String value(int ref) {
+            return values[ref];
+        }
+
+        byte[] json(int ref) {
+            return json[ref];
+        }
+
+        int acquire(String value) {
+            Integer known = refs.get(value);
+            if (known != null) {
+                counts[known]++;
+                return known;
+            }
+            int ref = freeCount > 0 ? free[--freeCount] : next++;
+            if (ref == values.length) {
+                int capacity = values.length << 1;
+                String[] grownValues = Arrays.copyOf(values, capacity);
+                byte[][] grownJson = Arrays.copyOf(json, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                grownValues[ref] = value;
+                grownJson[ref] = EmployeeJsonBuffer.string(value);
+                values = grownValues;
+                json = grownJson;
+            } else {
+                values[ref] = value;
+                json[ref] = EmployeeJsonBuffer.string(value);
+            }
+            counts[ref] = 1;
+            refs.put(value, ref);
+            return ref;
+        }
+
+        void release(int ref) {
+            if (--counts[ref] > 0)
+                return;
+            refs.remove(values[ref]);
+            values[ref] = null;
+            json[ref] = null;
+            if (freeCount == free.length)
+                free = Arrays.copyOf(free, freeCount << 1);
+            free[freeCount++] = ref;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package rei.java.springboot.store;
+
+import jakarta.persistence.Column;
+import org.springframework.dao.DataIntegrityViolationException;
+import rei.java.springboot.model.Employee;
+
+import java.util.Objects;
+
+// Immutable row of the store: readers holding an optimistic stamp can never see it half written.
+// Callers get their own Employee copies.
+record StoredEmployee(long id, String firstName, String lastName, String email, long version) {
+
+    // the column lengths of the Employee mapping, which the JPA backend gets enforced by the database
+    static final int FIRST_NAME_LENGTH = columnLength("firstName");
+    static final int LAST_NAME_LENGTH = columnLength("lastName");
+    static final int EMAIL_LENGTH = columnLength("email");
+
+    // fails like the JPA backend on a missing or too long value, before anything is written to the log
+    static StoredEmployee of(Employee employee, long id, long version) {
+        return new StoredEmployee(id, checked("firstName", employee.getFirstName(), FIRST_NAME_LENGTH),
+                checked("lastName", employee.getLastName(), LAST_NAME_LENGTH),
+                checked("email", employee.getEmail(), EMAIL_LENGTH), version);
+    }
+
+    boolean hasValuesOf(Employee employee) {
+        return Objects.equals(firstName, employee.getFirstName())
+                && Objects.equals(lastName, employee.getLastName())
+                && Objects.equals(email, employee.getEmail());
+    }
+
+    Employee toEmployee() {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .version(version)
+                .build();
+    }
+
+    private static String checked(String field, String value, int length) {
+        if (value == null)
+            throw new DataIntegrityViolationException("Employee " + field + " is required");
+        if (value.length() > length)
+            throw new DataIntegrityViolationException("Employee " + field + " is longer than " + length + " characters");
+        return value;
+    }
+
+    private static int columnLength(String field) {
+        try {
+            return Employee.class.getDeclaredField(field).getAnnotation(Column.class).length();
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+CREATE TABLE employee
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,7 @@
+ALTER TABLE employee ALTER COLUMN first_name VARCHAR(100) NOT NULL;
+ALTER TABLE employee ALTER COLUMN last_name VARCHAR(100) NOT NULL;
+ALTER TABLE employee ALTER COLUMN email VARCHAR(320) NOT NULL;
+
+CREATE UNIQUE INDEX uk_employee_email ON employee (email);
+
+CREATE INDEX idx_employee_first_name_last_name ON employee (first_name, last_name);
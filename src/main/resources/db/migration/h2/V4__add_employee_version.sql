@@ -0,0 +1 @@
+ALTER TABLE employee ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,8 @@
+ALTER TABLE employee ADD COLUMN deleted_at TIMESTAMP(6) NULL;
+ALTER TABLE employee ADD COLUMN active_email VARCHAR(320) GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN email END);
+
+CREATE UNIQUE INDEX uk_employee_active_email ON employee (active_email);
+CREATE INDEX idx_employee_email_deleted_at ON employee (email, deleted_at);
+DROP INDEX uk_employee_email;
+
+CREATE INDEX idx_employee_deleted_at ON employee (deleted_at);
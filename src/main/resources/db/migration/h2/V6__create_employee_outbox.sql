@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS employee_outbox
+(
+    id               BIGINT        NOT NULL AUTO_INCREMENT,
+    event_type       VARCHAR(16)   NOT NULL,
+    employee_id      BIGINT        NOT NULL,
+    employee_version BIGINT        NOT NULL,
+    payload          VARCHAR(4000) NOT NULL,
+    created_at       TIMESTAMP(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,9 @@
+-- same table Hibernate used to create with ddl-auto=update, existing databases are baselined at this version
+CREATE TABLE employee
+(
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
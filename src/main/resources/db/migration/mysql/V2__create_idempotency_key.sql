@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS idempotency_key
+(
+    idempotency_key VARCHAR(255) NOT NULL,
+    status          INT          NOT NULL,
+    content_type    VARCHAR(255),
+    body            BLOB,
+    created_at      TIMESTAMP    NOT NULL,
+    PRIMARY KEY (idempotency_key)
+) ENGINE = InnoDB;
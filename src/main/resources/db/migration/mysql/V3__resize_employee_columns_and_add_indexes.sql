@@ -0,0 +1,14 @@
+-- right-sized columns: names up to 100 characters, emails up to the 320 characters allowed by RFC 3696
+-- DYNAMIC keeps long values off-page, so the clustered index stays dense
+ALTER TABLE employee
+    MODIFY first_name VARCHAR(100) NOT NULL,
+    MODIFY last_name VARCHAR(100) NOT NULL,
+    MODIFY email VARCHAR(320) NOT NULL,
+    ROW_FORMAT = DYNAMIC;
+
+-- EmployeeRepository.findByEmail, and the uniqueness EmployeeService.saveEmployee checks for
+-- (fails if the table already holds duplicate emails, those have to be cleaned up first)
+CREATE UNIQUE INDEX uk_employee_email ON employee (email);
+
+-- the findByJPQL* / findByNative* lookups on first_name AND last_name
+CREATE INDEX idx_employee_first_name_last_name ON employee (first_name, last_name);
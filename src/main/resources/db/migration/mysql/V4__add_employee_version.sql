@@ -0,0 +1,3 @@
+-- optimistic locking (Employee.version): existing rows start at version 0
+-- INSTANT: metadata only change on MySQL 8.0.12+, the table is not rebuilt
+ALTER TABLE employee ADD COLUMN version BIGINT NOT NULL DEFAULT 0, ALGORITHM = INSTANT;
@@ -0,0 +1,14 @@
+-- soft delete (Employee.deletedAt): a deleted employee is only tombstoned, EmployeePurger removes the row later
+ALTER TABLE employee
+    ADD COLUMN deleted_at DATETIME(6) NULL,
+    -- MySQL has no partial indexes: the email of live rows, NULL for tombstones, so that the unique index
+    -- below only covers live rows and the email of a deleted employee can be used again
+    ADD COLUMN active_email VARCHAR(320) GENERATED ALWAYS AS (IF(deleted_at IS NULL, email, NULL)) VIRTUAL;
+
+CREATE UNIQUE INDEX uk_employee_active_email ON employee (active_email);
+-- findByEmail and the bulk import lookups (email IN (...) AND deleted_at IS NULL), answered from the index
+CREATE INDEX idx_employee_email_deleted_at ON employee (email, deleted_at);
+DROP INDEX uk_employee_email ON employee;
+
+-- EmployeePurger's scan for old tombstones
+CREATE INDEX idx_employee_deleted_at ON employee (deleted_at);
@@ -0,0 +1,13 @@
+-- transactional outbox: one row per employee change, inserted in the transaction of the change (EmployeeOutboxListener)
+-- and deleted by EmployeeOutboxRelay once the sink has the event; the relay claims the oldest rows by primary key
+CREATE TABLE IF NOT EXISTS employee_outbox
+(
+    id               BIGINT        NOT NULL AUTO_INCREMENT,
+    event_type       VARCHAR(16)   NOT NULL,
+    employee_id      BIGINT        NOT NULL,
+    employee_version BIGINT        NOT NULL,
+    -- the employee as EmployeeJsonComponent writes it
+    payload          VARCHAR(4000) NOT NULL,
+    created_at       DATETIME(6)   NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,24 @@
+-- Optional range partitioning of very large employee tables (tens of millions of rows), not applied by Flyway.
+-- Run it by hand in a maintenance window: the table is rebuilt, and partitions can then be added,
+-- dropped or rebuilt one at a time instead of locking the whole table.
+--
+-- MySQL requires every unique key of a partitioned table to contain the partitioning column, so the
+-- unique index on the live rows' email is dropped (idx_employee_email_deleted_at still serves the lookups)
+-- and email uniqueness is left to EmployeeService.saveEmployee.
+
+ALTER TABLE employee
+    DROP INDEX uk_employee_active_email;
+
+ALTER TABLE employee
+    PARTITION BY RANGE (id) (
+        PARTITION p00 VALUES LESS THAN (10000000),
+        PARTITION p01 VALUES LESS THAN (20000000),
+        PARTITION p02 VALUES LESS THAN (30000000),
+        PARTITION p03 VALUES LESS THAN (40000000),
+        PARTITION pmax VALUES LESS THAN MAXVALUE
+        );
+
+-- when ids approach the last bound, split pmax instead of letting it grow:
+-- ALTER TABLE employee REORGANIZE PARTITION pmax INTO (
+--     PARTITION p04 VALUES LESS THAN (50000000),
+--     PARTITION pmax VALUES LESS THAN MAXVALUE);
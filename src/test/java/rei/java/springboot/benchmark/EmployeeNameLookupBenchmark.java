@@ -0,0 +1,74 @@
+package rei.java.springboot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rei.java.springboot.SpringBootTestingApplication;
+import rei.java.springboot.fixture.EmployeeFixtures;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.repository.EmployeeNameLookup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmployeeNameLookup on a table of {@code rows} employees (H2 in memory), with each of the four equivalent queries
+ * fixed, and adaptive ({@code strategy=adaptive}): the latency of one lookup by a random existing name.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="EmployeeNameLookupBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeNameLookupBenchmark {
+
+    @Param({"jpql", "jpql-named", "native", "native-named", "adaptive"})
+    private String strategy;
+    @Param({"100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeNameLookup lookup;
+
+    @Setup
+    public void setup() {
+        context = SpringApplication.run(SpringBootTestingApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:name-lookup;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.username=sa", "--spring.datasource.password=",
+                "--employee.name-lookup.strategy=" + (strategy.equals("adaptive") ? "" : strategy),
+                "--employee.outbox.relay-enabled=false",
+                "--logging.level.root=WARN");
+        lookup = context.getBean(EmployeeNameLookup.class);
+        EmployeeFixtures.insertEmployees(context.getBean(JdbcTemplate.class), 1, rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n  selected %s%n", lookup.getSelected());
+        context.close();
+    }
+
+    // firstName(n) and lastName(n) are unique together below 1000 * 1000 rows
+    @Benchmark
+    public Employee find() {
+        long n = ThreadLocalRandom.current().nextLong(1, rows + 1);
+        return lookup.find(EmployeeFixtures.firstName(n), EmployeeFixtures.lastName(n));
+    }
+}
@@ -0,0 +1,98 @@
+package rei.java.springboot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import rei.java.springboot.fixture.EmployeeFixtures;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.store.EmployeeStore;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmployeeStore with {@code rows} employees, rows on the heap against rows off it (employee.store.off-heap).
+ * The footprint after a full collection is printed once the rows are loaded; fullGc is the pause of a full
+ * collection with the table live, run with {@code -prof gc} for the collections under the read workloads.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="EmployeeOffHeapBenchmark -prof gc"
+ * </pre>
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g", "-XX:MaxDirectMemorySize=1g"})
+@State(Scope.Benchmark)
+public class EmployeeOffHeapBenchmark {
+
+    @Param({"heap", "off-heap"})
+    private String table;
+    @Param({"5000000"})
+    private int rows;
+
+    private Path directory;
+    private EmployeeStore store;
+    private long[] ids;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("employee-store");
+        store = EmployeeStore.open(directory, false, table.equals("off-heap"));
+        ids = new long[rows];
+        for (int i = 0; i < rows; i++)
+            ids[i] = store.insert(EmployeeFixtures.employee(i)).getId();
+        System.gc();
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+        System.out.printf("%n%s table, %d rows: %d MiB heap used after GC, %d MiB direct buffers%n",
+                table, rows, heap >> 20, direct >> 20);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void fullGc() {
+        System.gc();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 2, time = 3)
+    @Measurement(iterations = 3, time = 5)
+    public Employee getEmployeeById() {
+        return store.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]).orElseThrow();
+    }
+
+    // GET /api/employee of the memory store, the whole table as JSON
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void writeAll() throws IOException {
+        store.writeAll(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,108 @@
+package rei.java.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import rei.java.springboot.SpringBootTestingApplication;
+import rei.java.springboot.outbox.EmployeeEventSink;
+import rei.java.springboot.outbox.EmployeeOutboxRelay;
+import rei.java.springboot.outbox.LogFileEventSink;
+
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmployeeOutboxRelay draining {@code events} outbox rows (H2 in memory) in batches of {@code batchSize}, to a sink
+ * that drops the events and to the NDJSON log file, synced once per batch. The score is the time to drain them,
+ * events per second are printed after each iteration.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="EmployeeOutboxRelayBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeOutboxRelayBenchmark {
+
+    private static final String FILL = "INSERT INTO employee_outbox " +
+            "(event_type, employee_id, employee_version, payload, created_at) " +
+            "SELECT 'UPDATED', n, 1, CONCAT('{\"id\":', n, ',\"firstName\":\"First\",\"lastName\":\"Last\"," +
+            "\"email\":\"employee', n, '@domain.com\",\"version\":1}'), CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, ?) r(n)";
+
+    @Param({"10", "100", "1000"})
+    private int batchSize;
+    @Param({"discard", "log-file"})
+    private String sink;
+    @Param({"100000"})
+    private int events;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private EmployeeOutboxRelay relay;
+    private Path file;
+    private long started;
+
+    @Setup
+    public void setup() throws IOException {
+        context = SpringApplication.run(SpringBootTestingApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.username=sa", "--spring.datasource.password=",
+                "--employee.outbox.relay-enabled=false",
+                "--logging.level.root=WARN");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        file = Files.createTempFile("employee-events", ".ndjson");
+        EmployeeEventSink eventSink = sink.equals("log-file")
+                ? new LogFileEventSink(file, context.getBean(ObjectMapper.class))
+                : batch -> {
+                };
+        relay = new EmployeeOutboxRelay(jdbcTemplate, context.getBean(TransactionTemplate.class), eventSink, batchSize,
+                Integer.MAX_VALUE, new SimpleMeterRegistry());
+    }
+
+    @Setup(Level.Iteration)
+    public void fill() throws IOException {
+        jdbcTemplate.update(FILL, events);
+        Files.write(file, new byte[0]);
+        started = System.nanoTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportIteration() {
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%n  %.0f events/s%n", events / seconds);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long drain() {
+        return relay.relay();
+    }
+}
@@ -0,0 +1,99 @@
+package rei.java.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rei.java.springboot.json.EmployeeJsonComponent;
+import rei.java.springboot.model.Employee;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Reflective bean serializer (the ObjectMapper default) against EmployeeJsonComponent, writing to a stream
+// the way MappingJackson2HttpMessageConverter writes the EmployeeController responses
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeSerializationBenchmark {
+
+    @Param({"1", "10000"})
+    private int size;
+
+    private ObjectWriter defaultWriter;
+    private ObjectWriter fastWriter;
+    private ObjectMapper defaultMapper;
+    private ObjectMapper fastMapper;
+    private Object payload;
+    private byte[] singleJson;
+    private final OutputStream out = new DiscardingOutputStream();
+
+    @Setup
+    public void setup() throws IOException {
+        defaultMapper = new ObjectMapper();
+        fastMapper = new ObjectMapper().registerModule(new SimpleModule()
+                .addSerializer(Employee.class, new EmployeeJsonComponent.Serializer())
+                .addDeserializer(Employee.class, new EmployeeJsonComponent.Deserializer()));
+        defaultWriter = defaultMapper.writer();
+        fastWriter = fastMapper.writer();
+
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            employees.add(Employee.builder()
+                    .id(i + 1)
+                    .firstName("First" + i)
+                    .lastName("Last" + (i % 500))
+                    .email("employee" + i + "@domain" + (i % 20) + ".com")
+                    .build());
+        payload = size == 1 ? employees.get(0) : employees;
+        singleJson = defaultMapper.writeValueAsBytes(employees.get(0));
+    }
+
+    @Benchmark
+    public void serializeDefault() throws IOException {
+        defaultWriter.writeValue(out, payload);
+    }
+
+    @Benchmark
+    public void serializeJsonComponent() throws IOException {
+        fastWriter.writeValue(out, payload);
+    }
+
+    @Benchmark
+    public Employee deserializeDefault() throws IOException {
+        return defaultMapper.readValue(singleJson, Employee.class);
+    }
+
+    @Benchmark
+    public Employee deserializeJsonComponent() throws IOException {
+        return fastMapper.readValue(singleJson, Employee.class);
+    }
+
+    // unlike OutputStream.nullOutputStream() it stays usable after the writer closes it
+    private static class DiscardingOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
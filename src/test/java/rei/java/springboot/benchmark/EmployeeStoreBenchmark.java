@@ -0,0 +1,102 @@
+package rei.java.springboot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import rei.java.springboot.SpringBootTestingApplication;
+import rei.java.springboot.fixture.EmployeeFixtures;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.service.EmployeeService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmployeeService backends side by side, 4 threads on {@code rows} employees: EmployeeServiceImpl on JPA (H2 in
+ * memory) and InMemoryEmployeeService (memory-store profile). The store's log is not fsynced here
+ * (employee.store.sync-writes=false), so that update compares the CPU cost of both paths, not the disk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class EmployeeStoreBenchmark {
+
+    @Param({"jpa", "memory"})
+    private String backend;
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private long[] ids;
+
+    @Setup
+    public void setup() throws IOException {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:store;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.username=sa", "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=8",
+                "--logging.level.root=WARN"));
+        if (backend.equals("memory")) {
+            args.add("--spring.profiles.active=memory-store");
+            args.add("--employee.store.directory=" + Files.createTempDirectory("employee-store"));
+            args.add("--employee.store.sync-writes=false");
+        }
+        context = SpringApplication.run(SpringBootTestingApplication.class, args.toArray(String[]::new));
+        employeeService = context.getBean(EmployeeService.class);
+        ids = new long[rows];
+        for (int i = 0; i < rows; i++)
+            ids[i] = employeeService.saveEmployee(EmployeeFixtures.employee(i)).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee getEmployeeById() {
+        return employeeService.getEmployeeById(randomId()).orElseThrow();
+    }
+
+    @Benchmark
+    public Map<Long, Employee> getEmployeesById() {
+        List<Long> batch = new ArrayList<>(50);
+        for (int i = 0; i < 50; i++)
+            batch.add(randomId());
+        return employeeService.getEmployeesById(batch);
+    }
+
+    @Benchmark
+    public Employee update() {
+        Employee employee = employeeService.getEmployeeById(randomId()).orElseThrow();
+        employee.setFirstName("First" + ThreadLocalRandom.current().nextInt(1000));
+        return employeeService.updateEmployee(employee);
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
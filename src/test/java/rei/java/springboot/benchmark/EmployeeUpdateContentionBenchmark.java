@@ -0,0 +1,106 @@
+package rei.java.springboot.benchmark;
+
+import io.micrometer.core.instrument.Metrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rei.java.springboot.SpringBootTestingApplication;
+import rei.java.springboot.fixture.EmployeeFixtures;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.service.EmployeeService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 8 threads doing read-modify-write updates through EmployeeService on the first {@code hotRows} rows of the
+ * table (H2 in memory): throughput, and after each iteration the optimistic locking conflicts per update,
+ * retried and given up (employee.update.conflicts).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class EmployeeUpdateContentionBenchmark {
+
+    @Param({"1", "8", "1000"})
+    private int hotRows;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private long firstId;
+    private final LongAdder updates = new LongAdder();
+    private double retriedBefore;
+    private double exhaustedBefore;
+
+    @Setup
+    public void setup() {
+        context = SpringApplication.run(SpringBootTestingApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:contention;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.username=sa", "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=16",
+                "--logging.level.root=WARN");
+        employeeService = context.getBean(EmployeeService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        EmployeeFixtures.insertEmployees(jdbcTemplate, 1, hotRows);
+        firstId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM employee", Long.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        updates.reset();
+        retriedBefore = conflicts("retried");
+        exhaustedBefore = conflicts("exhausted");
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportIteration() {
+        long count = updates.sum();
+        System.out.printf("%n  updates %d, retries per update %.3f, given up %.0f%n", count,
+                (conflicts("retried") - retriedBefore) / Math.max(1, count), conflicts("exhausted") - exhaustedBefore);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee update() {
+        long id = firstId + ThreadLocalRandom.current().nextInt(hotRows);
+        Employee employee = employeeService.getEmployeeById(id).orElseThrow();
+        employee.setFirstName("First" + ThreadLocalRandom.current().nextInt(1000));
+        try {
+            return employeeService.updateEmployee(employee);
+        } catch (OptimisticLockingFailureException e) {
+            return null;
+        } finally {
+            updates.increment();
+        }
+    }
+
+    private static double conflicts(String outcome) {
+        var counter = Metrics.globalRegistry.find("employee.update.conflicts").tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
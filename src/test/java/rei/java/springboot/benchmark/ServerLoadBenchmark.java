@@ -0,0 +1,221 @@
+package rei.java.springboot.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test of the embedded server: {@code clients} threads calling GET /api/employee/{id} back to back for
+ * {@code seconds}, after as long a warm-up, then the throughput, the latency percentiles, the CPU time the server
+ * spent per request and its resident set size. Over HTTP/1.1 every client has its own keep-alive connection, over
+ * h2c all of them share one.
+ *
+ * <pre>
+ * mvn clean package -DskipTests [-Pundertow | -Pjetty]
+ * java -cp target/test-classes rei.java.springboot.benchmark.ServerLoadBenchmark http1 16 10 \
+ *     java -jar target/spring-boot-testing-0.0.1-SNAPSHOT.jar --spring.profiles.active=server-tuned \
+ *     --spring.datasource.url=jdbc:h2:mem:ems --spring.datasource.username=sa --spring.datasource.password=
+ * </pre>
+ * The arguments are http1 or h2c, the number of clients, the seconds to measure, and the command that starts the
+ * application; {@code --server.port} is appended to it. Client and server share the machine, so the throughput
+ * depends on the client too: the server's CPU per request (Linux only, read from /proc) is the figure to compare.
+ */
+public class ServerLoadBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    // USER_HZ, the unit of /proc/[pid]/stat, 100 on all mainstream Linux architectures
+    private static final int TICKS_PER_SECOND = 100;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("usage: ServerLoadBenchmark <http1|h2c> <clients> <seconds> <command...>");
+            System.exit(1);
+        }
+        HttpClient.Version version = switch (args[0]) {
+            case "http1" -> HttpClient.Version.HTTP_1_1;
+            case "h2c" -> HttpClient.Version.HTTP_2;
+            default -> throw new IllegalArgumentException("http1 or h2c: " + args[0]);
+        };
+        int clients = Integer.parseInt(args[1]);
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[2]));
+        List<String> command = new ArrayList<>(Arrays.asList(args).subList(3, args.length));
+        int port = freePort();
+        command.add("--server.port=" + port);
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(new File(System.getProperty("java.io.tmpdir"), "server-load-benchmark.log")))
+                .start();
+        try {
+            URI base = URI.create("http://localhost:" + port + "/api/employee");
+            awaitStartup(process, base);
+            URI employee = base.resolve("/api/employee/" + createEmployee(base));
+
+            HttpClient shared = HttpClient.newBuilder().version(version).build();
+            // the h2c upgrade happens on the first request, before the clients share the connection
+            HttpResponse<Void> first = shared.send(HttpRequest.newBuilder(employee).build(), HttpResponse.BodyHandlers.discarding());
+            System.out.printf("%s, %d clients: negotiated %s%n", args[0], clients, first.version());
+
+            run(employee, version, shared, clients, duration);
+            long cpuBefore = cpuTicks(process.pid());
+            Result result = run(employee, version, shared, clients, duration);
+            long cpu = cpuTicks(process.pid()) - cpuBefore;
+            long[] latencies = result.latencies();
+            Arrays.sort(latencies);
+            System.out.printf("requests/s=%.0f, p50=%.2f ms, p99=%.2f ms, p99.9=%.2f ms, errors=%d, " +
+                            "server cpu=%.3f ms/request, rss=%d MB%n",
+                    latencies.length / (double) duration.toSeconds(), millis(latencies, 0.5), millis(latencies, 0.99),
+                    millis(latencies, 0.999), result.errors(), cpu * 1000.0 / TICKS_PER_SECOND / Math.max(1, latencies.length),
+                    rssKilobytes(process.pid()) / 1024);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS))
+                process.destroyForcibly();
+        }
+    }
+
+    private static Result run(URI employee, HttpClient.Version version, HttpClient shared, int clients, Duration duration)
+            throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        Client[] running = new Client[clients];
+        for (int i = 0; i < clients; i++) {
+            // over HTTP/1.1 a client of its own keeps its own connection
+            HttpClient httpClient = version == HttpClient.Version.HTTP_2 ? shared
+                    : HttpClient.newBuilder().version(version).build();
+            running[i] = new Client(httpClient, HttpRequest.newBuilder(employee).build(), end);
+            running[i].start();
+        }
+        long[] latencies = new long[0];
+        long errors = 0;
+        for (Client client : running) {
+            client.join();
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + client.count);
+            System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+            errors += client.errors;
+        }
+        return new Result(latencies, errors);
+    }
+
+    private static void awaitStartup(Process process, URI base) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(100)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (true) {
+            try {
+                // any HTTP status means the request went through the whole stack
+                httpClient.send(HttpRequest.newBuilder(base.resolve("/api/employee/0")).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException e) {
+                if (!process.isAlive())
+                    throw new IllegalStateException("application exited with " + process.exitValue());
+                if (System.nanoTime() > deadline)
+                    throw new IllegalStateException("application did not answer within " + STARTUP_TIMEOUT);
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    private static long createEmployee(URI base) throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(base)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"firstName\":\"Ramesh\",\"lastName\":\"Fadatare\",\"email\":\"ramesh@gmail.com\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher id = ID.matcher(response.body());
+        if (response.statusCode() != 201 || !id.find())
+            throw new IllegalStateException("employee not created: " + response.statusCode() + " " + response.body());
+        return Long.parseLong(id.group(1));
+    }
+
+    private static double millis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0)
+            return Double.NaN;
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, sortedNanos.length * percentile)] / 1e6;
+    }
+
+    // user and system time of the process, in ticks
+    private static long cpuTicks(long pid) throws IOException {
+        Path stat = Path.of("/proc", Long.toString(pid), "stat");
+        if (!Files.exists(stat))
+            return 0;
+        String line = Files.readString(stat);
+        // the fields after the command name, which is in parentheses and may contain spaces
+        String[] fields = line.substring(line.lastIndexOf(')') + 2).split(" ");
+        return Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+    }
+
+    private static long rssKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status))
+            return -1;
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.replaceAll("\\D", ""))
+                .mapToLong(Long::parseLong)
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static final class Client extends Thread {
+
+        private final HttpClient httpClient;
+        private final HttpRequest request;
+        private final long end;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        Client(HttpClient httpClient, HttpRequest request, long end) {
+            this.httpClient = httpClient;
+            this.request = request;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            long start;
+            while ((start = System.nanoTime()) < end) {
+                try {
+                    HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                    if (response.statusCode() != 200) {
+                        errors++;
+                        continue;
+                    }
+                } catch (IOException e) {
+                    errors++;
+                    continue;
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (count == latencies.length)
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                latencies[count++] = System.nanoTime() - start;
+            }
+        }
+    }
+
+    private record Result(long[] latencies, long errors) {
+    }
+}
@@ -0,0 +1,113 @@
+package rei.java.springboot.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import net.logstash.logback.appender.LoggingEventAsyncDisruptorAppender;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rei.java.springboot.sql.SampledSqlLogger;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Latency added to a request thread by logging one SQL statement, with 4 threads logging concurrently:
+ * <ul>
+ *     <li>show-sql: what spring.jpa.show-sql=true did, a println on a synchronized, line flushed PrintStream</li>
+ *     <li>async: the logback-spring.xml pipeline, ring buffer in front of a JSON encoder</li>
+ *     <li>async-sampled: SampledSqlLogger with a 1% sample on top of the async pipeline</li>
+ * </ul>
+ * Output goes to temporary files, so that the console of the JMH run is not flooded.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SqlLoggingBenchmark {
+
+    private static final String SQL = "select e1_0.id,e1_0.email,e1_0.first_name,e1_0.last_name from employee e1_0 where e1_0.id=?";
+
+    @Param({"show-sql", "async", "async-sampled"})
+    private String pipeline;
+
+    private PrintStream showSqlOut;
+    private Logger logger;
+    private SampledSqlLogger sampledSqlLogger;
+    private LoggingEventAsyncDisruptorAppender asyncAppender;
+
+    @Setup
+    public void setup() throws IOException {
+        File showSqlFile = File.createTempFile("show-sql", ".log");
+        showSqlFile.deleteOnExit();
+        showSqlOut = new PrintStream(new BufferedOutputStream(new FileOutputStream(showSqlFile), 8192), true);
+
+        File jsonFile = File.createTempFile("async-json", ".log");
+        jsonFile.deleteOnExit();
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> fileAppender = new OutputStreamAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setEncoder(encoder);
+        fileAppender.setOutputStream(new FileOutputStream(jsonFile));
+        fileAppender.start();
+
+        asyncAppender = new LoggingEventAsyncDisruptorAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setRingBufferSize(8192);
+        asyncAppender.setAppendTimeout(ch.qos.logback.core.util.Duration.buildByMilliseconds(0));
+        asyncAppender.addAppender(fileAppender);
+        asyncAppender.start();
+
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(asyncAppender);
+
+        logger = LoggerFactory.getLogger("sql");
+        sampledSqlLogger = new SampledSqlLogger(0.01, Duration.ofSeconds(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        asyncAppender.stop();
+        showSqlOut.close();
+    }
+
+    @Benchmark
+    public void logStatement() {
+        switch (pipeline) {
+            case "show-sql" -> showSqlOut.println("Hibernate: " + SQL);
+            case "async" -> logger.info("statement {}", kv("sql", SQL));
+            default -> sampledSqlLogger.log(SQL, 50_000);
+        }
+    }
+}
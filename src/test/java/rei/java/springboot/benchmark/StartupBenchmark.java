@@ -0,0 +1,116 @@
+package rei.java.springboot.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cold start of the application: time from process launch to the first answered HTTP request,
+ * and the resident set size of the process at that moment (Linux only, read from /proc).
+ *
+ * <pre>
+ * java -cp target/test-classes rei.java.springboot.benchmark.StartupBenchmark 5 \
+ *     java -XX:SharedArchiveFile=target/app-cds.jsa -Dspring.aot.enabled=true -jar target/spring-boot-testing-0.0.1-SNAPSHOT.jar \
+ *     --spring.profiles.active=startup --spring.datasource.url=jdbc:h2:mem:ems --spring.datasource.username=sa --spring.datasource.password=
+ * </pre>
+ * The first argument is the number of runs, the rest is the command that starts the application;
+ * {@code --server.port} is appended to it.
+ */
+public class StartupBenchmark {
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: StartupBenchmark <runs> <command...>");
+            System.exit(1);
+        }
+        int runs = Integer.parseInt(args[0]);
+        List<String> command = Arrays.asList(args).subList(1, args.length);
+
+        long[] startupMillis = new long[runs];
+        long[] rssKilobytes = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            Result result = measure(command);
+            startupMillis[run] = result.timeToFirstRequestMillis();
+            rssKilobytes[run] = result.rssKilobytes();
+            System.out.printf("run %d: time-to-first-request=%d ms, rss=%d MB%n",
+                    run + 1, result.timeToFirstRequestMillis(), result.rssKilobytes() / 1024);
+        }
+        Arrays.sort(startupMillis);
+        Arrays.sort(rssKilobytes);
+        System.out.printf("median: time-to-first-request=%d ms, rss=%d MB%n",
+                startupMillis[runs / 2], rssKilobytes[runs / 2] / 1024);
+    }
+
+    private static Result measure(List<String> command) throws Exception {
+        int port = freePort();
+        List<String> processCommand = new ArrayList<>(command);
+        processCommand.add("--server.port=" + port);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(processCommand)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(new File(System.getProperty("java.io.tmpdir"), "startup-benchmark.log")))
+                .start();
+        try {
+            // any HTTP status means the request went through the whole stack
+            URL url = new URL("http://localhost:" + port + "/api/employee/0");
+            while (!answers(url)) {
+                if (!process.isAlive())
+                    throw new IllegalStateException("application exited with " + process.exitValue());
+                if (System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS))
+                    throw new IllegalStateException("application did not answer within " + TIMEOUT_MILLIS + " ms");
+                Thread.sleep(5);
+            }
+            long timeToFirstRequest = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new Result(timeToFirstRequest, rssKilobytes(process.pid()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS))
+                process.destroyForcibly();
+        }
+    }
+
+    private static boolean answers(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(100);
+            connection.setReadTimeout(TIMEOUT_MILLIS > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) TIMEOUT_MILLIS);
+            connection.getResponseCode();
+            connection.disconnect();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long rssKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status))
+            return -1;
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.replaceAll("\\D", ""))
+                .mapToLong(Long::parseLong)
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Result(long timeToFirstRequestMillis, long rssKilobytes) {
+    }
+}
@@ -0,0 +1,63 @@
+package rei.java.springboot.bulk;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MappedLineReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("JUnit test for lines crossing the memory-mapped window")
+    public void givenSmallWindow_whenNextLine_thenReturnEveryLine() throws IOException {
+
+        Path file = write("﻿first_name,email\r\nRei,rd@domain.com\r\n\r\nAVeryLongLineThatDoesNotFitTheWindow\nlast");
+
+        try (MappedLineReader reader = new MappedLineReader(file, 0, 8)) {
+            assertThat(readAll(reader)).containsExactly(
+                    "first_name,email", "Rei,rd@domain.com", "", "AVeryLongLineThatDoesNotFitTheWindow", "last");
+            assertThat(reader.offset()).isEqualTo(reader.size());
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for resuming from the offset of a line")
+    public void givenOffset_whenSeek_thenContinueFromThatLine() throws IOException {
+
+        Path file = write("a\nbb\nccc\n");
+
+        long offset;
+        try (MappedLineReader reader = new MappedLineReader(file, 0, 4)) {
+            reader.nextLine();
+            reader.nextLine();
+            offset = reader.offset();
+        }
+
+        try (MappedLineReader reader = new MappedLineReader(file, offset, 4)) {
+            assertThat(readAll(reader)).containsExactly("ccc");
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(directory.resolve("employees.csv"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> readAll(MappedLineReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.nextLine()) != null)
+            lines.add(line);
+        return lines;
+    }
+}
@@ -0,0 +1,132 @@
+package rei.java.springboot.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import rei.java.springboot.model.Employee;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("JUnit test for the size bound of the employee cache, least recently used first")
+    public void givenFullCache_whenPutAll_thenEvictLeastRecentlyUsed() {
+
+        EmployeeCache cache = new EmployeeCache(2, Duration.ofMinutes(1), meterRegistry);
+
+        cache.putAll(List.of(employee(1L), employee(2L)), cache.generation());
+        cache.getAll(List.of(1L));
+        cache.putAll(List.of(employee(3L)), cache.generation());
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getAll(List.of(1L, 2L, 3L))).containsOnlyKeys(1L, 3L);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for the TTL of the employee cache")
+    public void givenExpiredEmployee_whenGetAll_thenMiss() {
+
+        MutableClock clock = new MutableClock(Instant.parse("2023-01-01T00:00:00Z"));
+        EmployeeCache cache = new EmployeeCache(10, Duration.ofSeconds(30), Duration.ZERO, meterRegistry, clock);
+
+        cache.putAll(List.of(employee(1L)), cache.generation());
+        assertThat(cache.getAll(List.of(1L))).containsOnlyKeys(1L);
+
+        clock.instant = clock.instant.plusSeconds(30);
+        assertThat(cache.getAll(List.of(1L))).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the stale entries of the employee cache, only getStale serves them")
+    public void givenExpiredEmployee_whenGetStale_thenServedUntilStaleTtl() {
+
+        MutableClock clock = new MutableClock(Instant.parse("2023-01-01T00:00:00Z"));
+        EmployeeCache cache = new EmployeeCache(10, Duration.ofSeconds(30), Duration.ofMinutes(10), meterRegistry, clock);
+
+        cache.putAll(List.of(employee(1L)), cache.generation());
+        clock.instant = clock.instant.plusSeconds(30);
+
+        assertThat(cache.getAll(List.of(1L))).isEmpty();
+        assertThat(cache.getStale(1L)).hasValueSatisfying(stale -> assertThat(stale.getId()).isEqualTo(1L));
+        clock.instant = clock.instant.plusSeconds(600);
+        assertThat(cache.getStale(1L)).isEmpty();
+        assertThat(meterRegistry.get("cache.gets").tag("result", "stale").counter().count()).isEqualTo(1);
+        // evicted, a row known to have changed is not served stale either
+        cache.putAll(List.of(employee(2L)), cache.generation());
+        cache.evict(2L);
+        assertThat(cache.getStale(2L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("JUnit test for a load racing with an eviction, it is not cached")
+    public void givenEvictionDuringLoad_whenPutAll_thenNotCached() {
+
+        EmployeeCache cache = new EmployeeCache(10, Duration.ofMinutes(1), meterRegistry);
+
+        long generation = cache.generation();
+        // the employee is updated while the lookup is loading it
+        cache.evict(1L);
+        cache.putAll(List.of(employee(1L)), generation);
+
+        assertThat(cache.getAll(List.of(1L))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the copies handed out by the employee cache")
+    public void givenCachedEmployee_whenChangedByCaller_thenCacheUnchanged() {
+
+        EmployeeCache cache = new EmployeeCache(10, Duration.ofMinutes(1), meterRegistry);
+        Employee employee = employee(1L);
+
+        cache.putAll(List.of(employee), cache.generation());
+        employee.setEmail("changed@domain.com");
+        cache.getAll(List.of(1L)).get(1L).setEmail("changed@domain.com");
+
+        assertThat(cache.getAll(List.of(1L)).get(1L).getEmail()).isEqualTo("rd@domain.com");
+    }
+
+    private static Employee employee(long id) {
+        return Employee.builder()
+                .id(id)
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email("rd@domain.com")
+                .build();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
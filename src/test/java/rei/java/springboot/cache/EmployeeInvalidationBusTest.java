@@ -0,0 +1,128 @@
+package rei.java.springboot.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import rei.java.springboot.model.Employee;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeInvalidationBusTest {
+
+    @Test
+    @DisplayName("JUnit test for an update on one instance, the others evict the employee with the next flush")
+    public void givenTwoInstances_whenInvalidateAndFlush_thenEvictedOnTheOther() {
+
+        // given: two instances on one in-JVM channel, the second one's clock 20 ms ahead
+        Instant now = Instant.parse("2023-01-01T00:00:00Z");
+        String channel = UUID.randomUUID().toString();
+        SimpleMeterRegistry firstMeters = new SimpleMeterRegistry();
+        SimpleMeterRegistry secondMeters = new SimpleMeterRegistry();
+        EmployeeCache firstCache = cache(firstMeters);
+        EmployeeCache secondCache = cache(secondMeters);
+        EmployeeInvalidationBus first = new EmployeeInvalidationBus(firstCache, new InJvmInvalidationTransport(channel),
+                1000, firstMeters, Clock.fixed(now, ZoneOffset.UTC));
+        EmployeeInvalidationBus second = new EmployeeInvalidationBus(secondCache, new InJvmInvalidationTransport(channel),
+                1000, secondMeters, Clock.fixed(now.plusMillis(20), ZoneOffset.UTC));
+        secondCache.putAll(List.of(employee(1L), employee(2L)), secondCache.generation());
+
+        // when: the same row is written three times before the flush
+        first.invalidate(1L);
+        first.invalidate(1L);
+        first.invalidate(1L);
+        assertThat(secondCache.getAll(List.of(1L))).containsOnlyKeys(1L);
+        first.flush();
+
+        // then
+        assertThat(secondCache.getAll(List.of(1L, 2L))).containsOnlyKeys(2L);
+        assertThat(firstMeters.get("cache.invalidation.ids").tag("stage", "requested").counter().count()).isEqualTo(3);
+        assertThat(firstMeters.get("cache.invalidation.messages").tag("result", "sent").counter().count()).isEqualTo(1);
+        assertThat(secondMeters.get("cache.invalidation.ids").tag("stage", "received").counter().count()).isEqualTo(1);
+        assertThat(secondMeters.get("cache.invalidation.lag").timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("JUnit test for a burst of writes, sent in batches of max-batch ids without waiting for the flush")
+    public void givenBurst_whenMaxBatchPending_thenSentInBatches() {
+
+        // given
+        String channel = UUID.randomUUID().toString();
+        List<EmployeeInvalidation> received = new ArrayList<>();
+        InJvmInvalidationTransport other = new InJvmInvalidationTransport(channel);
+        other.listen(message -> received.add(EmployeeInvalidation.decode(message)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EmployeeInvalidationBus bus = new EmployeeInvalidationBus(cache(meterRegistry),
+                new InJvmInvalidationTransport(channel), 100, meterRegistry);
+
+        // when
+        for (long id = 1; id <= 250; id++)
+            bus.invalidate(id);
+        bus.close();
+
+        // then
+        assertThat(received).extracting(invalidation -> invalidation.ids().length).containsExactly(100, 100, 50);
+        assertThat(received.stream().flatMapToLong(invalidation -> Arrays.stream(invalidation.ids())).distinct().count())
+                .isEqualTo(250);
+        other.close();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the multicast transport on the loopback interface, no broker involved")
+    public void givenTwoMulticastInstances_whenInvalidateAndFlush_thenEvictedOnTheOther() throws Exception {
+
+        // given
+        InetSocketAddress group = new InetSocketAddress(InetAddress.getByName("239.255.42.42"),
+                ThreadLocalRandom.current().nextInt(40_000, 50_000));
+        NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        BlockingQueue<Long> evicted = new LinkedBlockingQueue<>();
+        EmployeeCache secondCache = new EmployeeCache(10, Duration.ofMinutes(1), new SimpleMeterRegistry()) {
+            @Override
+            public synchronized void evict(long id) {
+                super.evict(id);
+                evicted.add(id);
+            }
+        };
+        try (MulticastInvalidationTransport firstTransport = new MulticastInvalidationTransport(group, loopback, 0);
+             MulticastInvalidationTransport secondTransport = new MulticastInvalidationTransport(group, loopback, 0)) {
+            EmployeeInvalidationBus first = new EmployeeInvalidationBus(cache(new SimpleMeterRegistry()),
+                    firstTransport, 1000, new SimpleMeterRegistry());
+            new EmployeeInvalidationBus(secondCache, secondTransport, 1000, new SimpleMeterRegistry());
+
+            // when
+            first.invalidate(42L);
+            first.flush();
+
+            // then
+            assertThat(evicted.poll(5, TimeUnit.SECONDS)).isEqualTo(42L);
+        }
+    }
+
+    private static EmployeeCache cache(SimpleMeterRegistry meterRegistry) {
+        return new EmployeeCache(10, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    private static Employee employee(long id) {
+        return Employee.builder()
+                .id(id)
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email("rd" + id + "@domain.com")
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package rei.java.springboot.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import rei.java.springboot.model.Employee;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    public void setup() {
+        hints = new RuntimeHints();
+        new EmployeeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("Employee is reflectively accessible for Hibernate and Jackson")
+    public void givenHints_whenCheckEmployee_thenReflectionIsRegistered() throws Exception {
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(Employee.class)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(Employee.class.getMethod("getEmail"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(Employee.class.getMethod("setEmail", String.class))).accepts(hints);
+    }
+
+    @Test
+    @DisplayName("Flyway migrations are included in the native image")
+    public void givenHints_whenCheckMigrations_thenResourcesAreRegistered() {
+
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/migration/h2/V1__create_employee.sql")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/migration/mysql/V1__create_employee.sql")).accepts(hints);
+    }
+}
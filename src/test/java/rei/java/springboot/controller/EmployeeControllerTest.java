@@ -5,27 +5,38 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import rei.java.springboot.model.Employee;
 import rei.java.springboot.service.EmployeeService;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 // It will load all the components that are required to Employee Controller
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
 public class EmployeeControllerTest {
 
     @Autowired
@@ -97,6 +108,29 @@ public class EmployeeControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    public void givenStreamingBackend_whenGetAllEmployees_thenStreamedList() throws Exception {
+
+        List<Employee> employeeList = List.of(Employee.builder().firstName("Rei").lastName("Dallo").email("rd@domain.com").build());
+
+        // given
+        given(employeeService.streamAllEmployees())
+                .willReturn(Optional.of(out -> objectMapper.writeValue(out, employeeList)));
+
+        // when: the body is written after the handler returned
+        MvcResult started = mockMvc.perform(get("/api/employee")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(started));
+
+        // then
+        response.andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.size()", is(1)));
+        verify(employeeService, never()).getAllEmployee();
+    }
+
     @Test
     public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject() throws Exception {
 
@@ -139,6 +173,37 @@ public class EmployeeControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    public void givenEmployeeName_whenGetEmployeeByName_thenReturnEmployeeObject() throws Exception {
+
+        Employee employee = Employee.builder()
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email("rd@domain.com")
+                .build();
+
+        // given
+        given(employeeService.getEmployeeByName("Rei", "Dallo")).willReturn(Optional.of(employee));
+        given(employeeService.getEmployeeByName("Oni", "Dado")).willReturn(Optional.empty());
+        given(employeeService.getEmployeeByName("Rei", "Dado"))
+                .willThrow(new IncorrectResultSizeDataAccessException(1, 2));
+
+        // when
+        ResultActions response = mockMvc.perform(get("/api/employee")
+                .param("firstName", "Rei")
+                .param("lastName", "Dallo"));
+
+        // then
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())))
+                .andDo(print());
+        mockMvc.perform(get("/api/employee").param("firstName", "Oni").param("lastName", "Dado"))
+                .andExpect(status().isNotFound());
+        // several employees of that name
+        mockMvc.perform(get("/api/employee").param("firstName", "Rei").param("lastName", "Dado"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() throws Exception {
 
@@ -197,6 +262,148 @@ public class EmployeeControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    public void givenMatchingIfMatch_whenUpdateEmployee_thenReturnUpdatedEmployeeWithETag() throws Exception {
+
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email("rd@domain.com")
+                .version(3L)
+                .build();
+
+        // given
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+        given(employeeService.updateEmployee(any(Employee.class), eq(3L))).willAnswer((invocation) -> {
+            Employee updated = invocation.getArgument(0);
+            updated.setVersion(4L);
+            return updated;
+        });
+
+        // when
+        ResultActions response = mockMvc.perform(put("/api/employee/{id}", employeeId)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then
+        response.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version", is(4)))
+                .andDo(print());
+    }
+
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email("rd@domain.com")
+                .version(4L)
+                .build();
+
+        // given
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+        given(employeeService.updateEmployee(any(Employee.class), eq(3L)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+
+        // when
+        ResultActions response = mockMvc.perform(put("/api/employee/{id}", employeeId)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then the version of the header is the one checked, and the current one is returned
+        response.andExpect(status().isPreconditionFailed())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andDo(print());
+        verify(employeeService, never()).updateEmployee(any(Employee.class));
+    }
+
+    @Test
+    public void givenExhaustedRetries_whenUpdateEmployee_thenReturnConflict() throws Exception {
+
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email("rd@domain.com")
+                .build();
+
+        // given
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+        given(employeeService.updateEmployee(any(Employee.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+
+        // when
+        ResultActions response = mockMvc.perform(put("/api/employee/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then
+        response.andExpect(status().isConflict())
+                .andDo(print());
+    }
+
+    @Test
+    public void givenEmployeeIds_whenGetEmployeesByIds_thenReturnEmployeesInRequestOrder() throws Exception {
+
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email("rd@domain.com")
+                .build();
+        Employee anotherEmployee = Employee.builder()
+                .id(2L)
+                .firstName("Oni")
+                .lastName("Dallo")
+                .email("od@domain.com")
+                .build();
+
+        // given
+        given(employeeService.getEmployeesById(List.of(2L, 3L, 1L, 2L)))
+                .willReturn(Map.of(1L, employee, 2L, anotherEmployee));
+
+        // when
+        ResultActions response = mockMvc.perform(get("/api/employee").param("ids", "2,3,1,2"));
+
+        // then
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(4)))
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[0].found", is(true)))
+                .andExpect(jsonPath("$[0].employee.email", is(anotherEmployee.getEmail())))
+                .andExpect(jsonPath("$[1].id", is(3)))
+                .andExpect(jsonPath("$[1].found", is(false)))
+                .andExpect(jsonPath("$[1].employee").doesNotExist())
+                .andExpect(jsonPath("$[2].employee.email", is(employee.getEmail())))
+                .andExpect(jsonPath("$[3].employee.email", is(anotherEmployee.getEmail())))
+                .andDo(print());
+    }
+
+    @Test
+    public void givenTooManyEmployeeIds_whenLookupEmployees_thenReturnBadRequest() throws Exception {
+
+        List<Long> ids = LongStream.rangeClosed(1, 1001).boxed().toList();
+
+        // when
+        ResultActions response = mockMvc.perform(post("/api/employee/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)));
+
+        // then
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+        verify(employeeService, never()).getEmployeesById(anyCollection());
+    }
+
     @Test
     public void givenEmployeeId_whenDeleteEmployee_return200() throws Exception {
 
@@ -0,0 +1,85 @@
+package rei.java.springboot.fixture;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rei.java.springboot.model.Employee;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic bulk data for the employee table: row {@code n} always has the same names and email, so tests
+ * can look rows up without keeping them in memory. Every (first name, last name) pair and every email is unique.
+ */
+public final class EmployeeFixtures {
+
+    private static final int SLICE = 100_000;
+    private static final int BATCH = 1_000;
+
+    private EmployeeFixtures() {
+    }
+
+    public static Employee employee(long n) {
+        return Employee.builder()
+                .firstName(firstName(n))
+                .lastName(lastName(n))
+                .email(email(n))
+                .build();
+    }
+
+    // one employee with a given email, for the tests that create a handful of rows
+    public static Employee employee(String email) {
+        return Employee.builder()
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email(email)
+                .build();
+    }
+
+    public static String firstName(long n) {
+        return "First" + (n % 1000);
+    }
+
+    public static String lastName(long n) {
+        return "Last" + (n / 1000);
+    }
+
+    public static String email(long n) {
+        return "employee" + n + "@domain" + (n % 20) + ".com";
+    }
+
+    /**
+     * Inserts the rows {@code from} to {@code to} (both inclusive). H2 generates the rows itself with one
+     * INSERT ... SELECT per slice, other databases get JDBC batches.
+     */
+    public static void insertEmployees(JdbcTemplate jdbcTemplate, long from, long to) {
+        boolean h2 = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "H2".equals(connection.getMetaData().getDatabaseProductName())));
+        for (long start = from; start <= to; start += SLICE) {
+            long end = Math.min(to, start + SLICE - 1);
+            if (h2)
+                insertWithSystemRange(jdbcTemplate, start, end);
+            else
+                insertWithBatches(jdbcTemplate, start, end);
+        }
+    }
+
+    // the same values as firstName(n), lastName(n) and email(n); the range column is renamed, so that it is
+    // found whatever the identifier case mode of the database (DATABASE_TO_LOWER in AbstractContainerBaseTest)
+    private static void insertWithSystemRange(JdbcTemplate jdbcTemplate, long from, long to) {
+        jdbcTemplate.update("INSERT INTO employee (first_name, last_name, email) " +
+                "SELECT CONCAT('First', MOD(n, 1000)), CONCAT('Last', n / 1000), CONCAT('employee', n, '@domain', MOD(n, 20), '.com') " +
+                "FROM SYSTEM_RANGE(?, ?) r(n)", from, to);
+    }
+
+    private static void insertWithBatches(JdbcTemplate jdbcTemplate, long from, long to) {
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (long n = from; n <= to; n++) {
+            batch.add(new Object[]{firstName(n), lastName(n), email(n)});
+            if (batch.size() == BATCH || n == to) {
+                jdbcTemplate.batchUpdate("INSERT INTO employee (first_name, last_name, email) VALUES (?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package rei.java.springboot.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import rei.java.springboot.controller.EmployeeController;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.service.EmployeeService;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyFilterTest {
+
+    @Mock
+    private EmployeeService employeeService;
+    @Mock
+    private IdempotencyStore failingStore;
+    private MockMvc mockMvc;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        IdempotencyFilter filter = new IdempotencyFilter(new InMemoryIdempotencyStore(100, Duration.ofMinutes(1)), Duration.ofSeconds(5));
+        mockMvc = MockMvcBuilders.standaloneSetup(new EmployeeController(employeeService, 1000))
+                .addFilters(filter)
+                .build();
+        employee = Employee.builder()
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email("rd@domain.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Retry with the same Idempotency-Key replays the first response")
+    public void givenSameKey_whenCreateEmployeeTwice_thenSaveOnceAndReplay() throws Exception {
+
+        // given
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer((invocation) -> {
+            Employee saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+
+        // when
+        mockMvc.perform(createRequest("key-1")).andExpect(status().isCreated());
+
+        // then
+        mockMvc.perform(createRequest("key-1"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    @DisplayName("Requests with different or without Idempotency-Key are executed each time")
+    public void givenDifferentKeys_whenCreateEmployee_thenSaveEachTime() throws Exception {
+
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer((invocation) -> invocation.getArgument(0));
+
+        mockMvc.perform(createRequest("key-1")).andExpect(status().isCreated());
+        mockMvc.perform(createRequest("key-2")).andExpect(status().isCreated());
+        mockMvc.perform(createRequest(null)).andExpect(status().isCreated());
+        mockMvc.perform(createRequest(null)).andExpect(status().isCreated());
+
+        verify(employeeService, times(4)).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    @DisplayName("Concurrent duplicates wait for the first execution")
+    public void givenConcurrentDuplicates_whenCreateEmployee_thenSaveOnce() throws Exception {
+
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer((invocation) -> {
+            saving.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MvcResult> first = executor.submit(() -> mockMvc.perform(createRequest("key-1")).andReturn());
+            assertThat(saving.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<MvcResult> duplicate = executor.submit(() -> mockMvc.perform(createRequest("key-1")).andReturn());
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).getResponse().getStatus()).isEqualTo(201);
+            MvcResult replayed = duplicate.get(5, TimeUnit.SECONDS);
+            assertThat(replayed.getResponse().getStatus()).isEqualTo(201);
+            assertThat(replayed.getResponse().getContentAsString())
+                    .isEqualTo(first.get().getResponse().getContentAsString());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    @DisplayName("A failure to store the response still returns it, and the retry is executed again")
+    public void givenStoreFailure_whenCreateEmployee_thenResponseReturned() throws Exception {
+
+        // given
+        willThrow(new DataAccessResourceFailureException("database down")).given(failingStore).save(any(), any());
+        mockMvc = MockMvcBuilders.standaloneSetup(new EmployeeController(employeeService, 1000))
+                .addFilters(new IdempotencyFilter(failingStore, Duration.ofSeconds(5)))
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer((invocation) -> invocation.getArgument(0));
+        String longKey = "k".repeat(1000);
+
+        // when
+        mockMvc.perform(createRequest(longKey))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        mockMvc.perform(createRequest(longKey)).andExpect(status().isCreated());
+
+        // then
+        verify(employeeService, times(2)).saveEmployee(any(Employee.class));
+        // the stored key fits the idempotency_key column
+        verify(failingStore, times(2)).save(argThat(key -> key.length() <= 255), any());
+    }
+
+    private org.springframework.test.web.servlet.RequestBuilder createRequest(String idempotencyKey) throws Exception {
+        var request = post("/api/employee")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee));
+        if (idempotencyKey != null)
+            request.header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        return request;
+    }
+}
@@ -0,0 +1,71 @@
+package rei.java.springboot.idempotency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryIdempotencyStoreTest {
+
+    private final IdempotentResponse response = new IdempotentResponse(201, "application/json", "{}".getBytes());
+
+    @Test
+    @DisplayName("JUnit test for the size bound of the in-memory store")
+    public void givenFullStore_whenSave_thenEvictOldestKey() {
+
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, Duration.ofMinutes(1));
+
+        store.save("a", response);
+        store.save("b", response);
+        store.save("c", response);
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.find("a")).isEmpty();
+        assertThat(store.find("b")).isPresent();
+        assertThat(store.find("c")).isPresent();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the TTL of the in-memory store")
+    public void givenExpiredKey_whenFind_thenReturnEmpty() {
+
+        MutableClock clock = new MutableClock(Instant.parse("2023-01-01T00:00:00Z"));
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofMinutes(1), clock);
+
+        store.save("a", response);
+        assertThat(store.find("a")).isPresent();
+
+        clock.instant = clock.instant.plus(Duration.ofMinutes(1));
+        assertThat(store.find("a")).isEmpty();
+        assertThat(store.size()).isZero();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
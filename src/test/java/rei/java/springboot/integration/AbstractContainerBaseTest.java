@@ -2,27 +2,90 @@ package rei.java.springboot.integration;
 
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Database for the integration tests.
+ * <ul>
+ *     <li>every test class gets its own Spring test context ({@link TestClassContextCustomizerFactory}) and so its
+ *     own database, so that test classes can run in parallel (see junit-platform.properties) without seeing each
+ *     other's rows</li>
+ *     <li>the MySQL container is reused between runs when {@code testcontainers.reuse.enable=true} is set in
+ *     {@code ~/.testcontainers.properties}</li>
+ *     <li>without Docker the tests fall back to H2 in MySQL compatibility mode</li>
+ * </ul>
+ */
 public abstract class AbstractContainerBaseTest {
 
+    private static final String USERNAME = "username";
+    private static final String PASSWORD = "password";
+    // unique per JVM, a reused container keeps the databases of the previous runs until they are dropped
+    private static final String RUN_ID = UUID.randomUUID().toString().substring(0, 8);
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+    private static final List<String> CREATED_DATABASES = new CopyOnWriteArrayList<>();
+
+    // null when Docker is not available
     @Container
-    static final MySQLContainer MY_SQL_CONTAINER;
+    static final MySQLContainer<?> MY_SQL_CONTAINER;
 
     static {
-        MY_SQL_CONTAINER = new MySQLContainer<>("mysql:latest")
-                .withUsername("username")
-                .withPassword("password")
-                .withDatabaseName("ems");
-        // manually starting the mysql container, so it is not necessary to keep **@TestContainers** at the top of the test class
-        MY_SQL_CONTAINER.start();
+        if (DockerClientFactory.instance().isDockerAvailable()) {
+            MY_SQL_CONTAINER = new MySQLContainer<>("mysql:latest")
+                    .withUsername(USERNAME)
+                    .withPassword(PASSWORD)
+                    .withDatabaseName("ems")
+                    .withReuse(true);
+            // manually starting the mysql container, so it is not necessary to keep **@TestContainers** at the top of the test class
+            MY_SQL_CONTAINER.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(AbstractContainerBaseTest::dropCreatedDatabases));
+        } else {
+            MY_SQL_CONTAINER = null;
+        }
     }
 
+    // called once per Spring test context, that is once per test class; the context keeps its database
     @DynamicPropertySource
     public static void dynamicPropertySource(DynamicPropertyRegistry registry) {
-        registry.add("spring.datasource.url", MY_SQL_CONTAINER::getJdbcUrl);
-        registry.add("spring.datasource.username", MY_SQL_CONTAINER::getUsername);
-        registry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
+        String database = "ems_" + RUN_ID.replace('-', '_') + "_" + DATABASES.incrementAndGet();
+        if (MY_SQL_CONTAINER != null) {
+            CREATED_DATABASES.add(database);
+            // the container sets the root password to the user's one, root may create databases
+            registry.add("spring.datasource.url", () -> mySqlUrl(database) + "?createDatabaseIfNotExist=true");
+            registry.add("spring.datasource.username", () -> "root");
+            registry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
+        } else {
+            registry.add("spring.datasource.url",
+                    () -> "jdbc:h2:mem:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+            registry.add("spring.datasource.username", () -> "sa");
+            registry.add("spring.datasource.password", () -> "");
+        }
+    }
+
+    private static String mySqlUrl(String database) {
+        return "jdbc:mysql://" + MY_SQL_CONTAINER.getHost() + ":" + MY_SQL_CONTAINER.getMappedPort(MySQLContainer.MYSQL_PORT)
+                + "/" + database;
+    }
+
+    private static void dropCreatedDatabases() {
+        if (CREATED_DATABASES.isEmpty() || !MY_SQL_CONTAINER.isRunning())
+            return;
+        try (Connection connection = DriverManager.getConnection(mySqlUrl(""), "root", MY_SQL_CONTAINER.getPassword());
+             Statement statement = connection.createStatement()) {
+            for (String database : CREATED_DATABASES)
+                statement.execute("DROP DATABASE IF EXISTS " + database);
+        } catch (SQLException e) {
+            // best effort, a new run uses new database names anyway
+        }
     }
 }
@@ -0,0 +1,183 @@
+package rei.java.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.repository.EmployeeRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static rei.java.springboot.fixture.EmployeeFixtures.employee;
+
+// Fault injection: every connection taken from the pool is handed out late, as by a stalled database. A call
+// longer than 100ms is slow, 4 slow calls open the breaker for 1s, then 2 fast probes close it again
+@SpringBootTest(properties = {
+        "employee.resilience.slow-call-threshold=100ms",
+        "employee.resilience.window-size=10",
+        "employee.resilience.minimum-calls=4",
+        "employee.resilience.open-duration=1s",
+        "employee.resilience.half-open-calls=2",
+        "employee.outbox.relay-enabled=false"})
+@AutoConfigureMockMvc
+public class EmployeeCircuitBreakerITest extends AbstractContainerBaseTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SlowDataSource slowDataSource;
+
+    @AfterEach
+    void finish() throws Exception {
+        awaitRecovery();
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Integration test for a slow database: reads by id served stale, the rest fails fast until it recovers")
+    public void givenSlowDatabase_whenBreakerOpen_thenStaleReadsAndFastFailures() throws Exception {
+
+        Employee cached = employeeRepository.save(employee("cached@domain.com"));
+        Employee uncached = employeeRepository.save(employee("uncached@domain.com"));
+        mockMvc.perform(get("/api/employee/{id}", cached.getId())).andExpect(status().isOk());
+
+        // slow, but still answered, until the breaker opens
+        slowDataSource.delay = Duration.ofMillis(300);
+        for (int i = 0; i < 4; i++)
+            mockMvc.perform(get("/api/employee/{id}", cached.getId())).andExpect(status().isOk());
+        assertThat(state("open")).isEqualTo(1);
+
+        long start = System.nanoTime();
+        mockMvc.perform(get("/api/employee/{id}", cached.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("cached@domain.com"));
+        mockMvc.perform(get("/api/employee/{id}", uncached.getId())).andExpect(status().isServiceUnavailable());
+        mockMvc.perform(put("/api/employee/{id}", cached.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee("changed@domain.com"))))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(post("/api/employee")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee("new@domain.com"))))
+                .andExpect(status().isServiceUnavailable());
+        // none of them waited for a connection
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(300));
+        assertThat(meterRegistry.get("cache.gets").tag("result", "stale").counter().count()).isPositive();
+
+        awaitRecovery();
+        mockMvc.perform(get("/api/employee/{id}", uncached.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Integration test for a slow database: reads beyond the read bulkhead are turned away, writes keep theirs")
+    public void givenSlowDatabase_whenReadBulkheadFull_thenReadsRejected() throws Exception {
+
+        Employee employee = employeeRepository.save(employee("bulkhead@domain.com"));
+        slowDataSource.delay = Duration.ofSeconds(2);
+        ExecutorService executor = Executors.newFixedThreadPool(7);
+        try {
+            List<Future<Integer>> reads = new ArrayList<>();
+            for (int i = 0; i < 7; i++)
+                reads.add(executor.submit(() -> mockMvc.perform(get("/api/employee/{id}", employee.getId()))
+                        .andReturn().getResponse().getStatus()));
+            for (int i = 0; i < 100 && available("read") > 0; i++)
+                Thread.sleep(10);
+            assertThat(available("read")).isZero();
+
+            long start = System.nanoTime();
+            mockMvc.perform(get("/api/employee/{id}", employee.getId())).andExpect(status().isServiceUnavailable());
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+            assertThat(available("write")).isEqualTo(3);
+            for (Future<Integer> read : reads)
+                assertThat(read.get()).isEqualTo(200);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // the delay removed, probes close the breaker once it let them through again
+    private void awaitRecovery() throws Exception {
+        slowDataSource.delay = Duration.ZERO;
+        long id = employeeRepository.save(employee("probe" + System.nanoTime() + "@domain.com")).getId();
+        for (int i = 0; i < 100 && state("closed") == 0; i++) {
+            mockMvc.perform(get("/api/employee/{id}", id));
+            Thread.sleep(50);
+        }
+        assertThat(state("closed")).isEqualTo(1);
+    }
+
+    private double state(String state) {
+        return meterRegistry.get("employee.circuit.state").tag("state", state).gauge().value();
+    }
+
+    private double available(String bulkhead) {
+        return meterRegistry.get("employee.bulkhead.available").tag("bulkhead", bulkhead).gauge().value();
+    }
+
+    static class SlowDataSource extends DelegatingDataSource {
+
+        volatile Duration delay = Duration.ZERO;
+
+        SlowDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException(e);
+            }
+            return super.getConnection();
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SlowDataSourceConfig {
+
+        @Bean
+        public static BeanPostProcessor slowDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                    return bean instanceof DataSource dataSource && !(bean instanceof SlowDataSource)
+                            ? new SlowDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package rei.java.springboot.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +10,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 import rei.java.springboot.model.Employee;
 import rei.java.springboot.repository.EmployeeRepository;
@@ -27,6 +27,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @AutoConfigureWebMvc
 // integrate test containers
 //@Testcontainers
+// MockMvc runs the request on the test thread, so every test is rolled back instead of cleaning up with deleteAll()
+@Transactional
 public class EmployeeControllerITest extends AbstractContainerBaseTest {
 
     @Autowired
@@ -43,12 +45,6 @@ public class EmployeeControllerITest extends AbstractContainerBaseTest {
     @BeforeEach
     void setup() {
         mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
-        employeeRepository.deleteAll();
-    }
-
-    @AfterEach
-    void finish() {
-        employeeRepository.deleteAll();
     }
 
     @Test
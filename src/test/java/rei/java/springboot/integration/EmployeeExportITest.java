@@ -0,0 +1,138 @@
+package rei.java.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import rei.java.springboot.bulk.EmployeeExport;
+import rei.java.springboot.bulk.EmployeeExportService;
+import rei.java.springboot.fixture.EmployeeFixtures;
+import rei.java.springboot.model.Employee;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// a real server, so that downloads go through Tomcat's sendfile support
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "employee.export.chunk-rows=1000")
+public class EmployeeExportITest extends AbstractContainerBaseTest {
+
+    private static final Path EXPORT_DIRECTORY = createTempDirectory();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private EmployeeExportService exportService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void exportDirectory(DynamicPropertyRegistry registry) {
+        registry.add("employee.export.directory", EXPORT_DIRECTORY::toString);
+    }
+
+    @AfterEach
+    void finish() {
+        jdbcTemplate.update("DELETE FROM employee");
+    }
+
+    @Test
+    @DisplayName("Integration test for an export written as gzip members of chunk-rows rows")
+    public void givenEmployees_whenExport_thenWriteEveryRowInChunks() throws Exception {
+
+        EmployeeFixtures.insertEmployees(jdbcTemplate, 1, 2500);
+
+        EmployeeExport export = exportService.start().get();
+
+        byte[] file = Files.readAllBytes(EXPORT_DIRECTORY.resolve(export.name()));
+        List<String> lines = lines(new GZIPInputStream(new ByteArrayInputStream(file)).readAllBytes());
+        assertThat(lines).hasSize(2500);
+        Employee first = objectMapper.readValue(lines.get(0), Employee.class);
+        assertThat(first.getFirstName()).isEqualTo(EmployeeFixtures.firstName(1));
+        assertThat(first.getLastName()).isEqualTo(EmployeeFixtures.lastName(1));
+        assertThat(first.getEmail()).isEqualTo(EmployeeFixtures.email(1));
+        assertThat(lines(firstMember(file))).hasSize(1000);
+    }
+
+    @Test
+    @DisplayName("Integration test for downloading an export")
+    public void givenExport_whenDownload_thenReturnFileBytes() throws Exception {
+
+        EmployeeFixtures.insertEmployees(jdbcTemplate, 1, 10);
+        ResponseEntity<Void> started = restTemplate.postForEntity("/api/employee/export", null, Void.class);
+        assertThat(started.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        EmployeeExport export = exportService.start().get();
+
+        ResponseEntity<EmployeeExport[]> exports = restTemplate.getForEntity("/api/employee/export", EmployeeExport[].class);
+        ResponseEntity<byte[]> download = restTemplate.getForEntity("/api/employee/export/{name}", byte[].class, export.name());
+
+        assertThat(exports.getBody()).extracting(EmployeeExport::name).contains(export.name());
+        assertThat(download.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(download.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("application/gzip"));
+        assertThat(download.getBody()).isEqualTo(Files.readAllBytes(EXPORT_DIRECTORY.resolve(export.name())));
+    }
+
+    @Test
+    @DisplayName("Integration test for an export of an empty table and unknown export names")
+    public void givenEmptyTable_whenExport_thenValidEmptyFile() throws Exception {
+
+        EmployeeExport export = exportService.export();
+
+        byte[] file = Files.readAllBytes(EXPORT_DIRECTORY.resolve(export.name()));
+        assertThat(new GZIPInputStream(new ByteArrayInputStream(file)).readAllBytes()).isEmpty();
+        assertThat(restTemplate.getForEntity("/api/employee/export/{name}", byte[].class, "employees-20230101T000000Z.ndjson.gz")
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(restTemplate.getForEntity("/api/employee/export/{name}", byte[].class, "application.properties")
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private static List<String> lines(byte[] content) throws IOException {
+        try (InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8)) {
+            return new BufferedReader(reader).lines().toList();
+        }
+    }
+
+    // inflates only the first gzip member: a 10 byte header (no optional fields) and the deflate stream
+    private static byte[] firstMember(byte[] file) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(file, 10, file.length - 10);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        while (!inflater.finished())
+            out.write(buffer, 0, inflater.inflate(buffer));
+        inflater.end();
+        return out.toByteArray();
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("employee-export");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package rei.java.springboot.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import rei.java.springboot.bulk.EmployeeImportJob;
+import rei.java.springboot.bulk.EmployeeImportService;
+import rei.java.springboot.bulk.EmployeeImportStatus;
+import rei.java.springboot.bulk.ImportCheckpoint;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.repository.EmployeeRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// small chunks and 2 workers, so that every file spans several concurrent chunks; the events stay in the outbox
+@SpringBootTest(properties = {"employee.import.chunk-size=3", "employee.import.threads=2", "employee.outbox.relay-enabled=false"})
+@AutoConfigureMockMvc
+public class EmployeeImportITest extends AbstractContainerBaseTest {
+
+    private static final Path WORK_DIRECTORY = createTempDirectory();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmployeeImportService importService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void workDirectory(DynamicPropertyRegistry registry) {
+        registry.add("employee.import.work-directory", WORK_DIRECTORY::toString);
+    }
+
+    @AfterEach
+    void finish() {
+        employeeRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM employee_outbox");
+    }
+
+    @Test
+    @DisplayName("Integration test for a CSV upload with invalid and duplicate rows")
+    public void givenCsvUpload_whenImport_thenImportValidRowsAndReportOthers() throws Exception {
+
+        employeeRepository.save(Employee.builder().firstName("Old").lastName("Row").email("taken@domain.com").build());
+        String csv = """
+                id,email,last_name,first_name
+                1,rd@domain.com,Dallo,Rei
+                2,"quoted@domain.com","Dallo, Jr.",Rei
+                3,not-an-email,Dallo,Rei
+
+                4,RD@domain.com,Dallo,Duplicate
+                5,taken@domain.com,Row,New
+                6,missing@domain.com,,Rei
+                7,last@domain.com,Dallo,Rei
+                """;
+
+        MvcResult upload = mockMvc.perform(multipart("/api/employee/import")
+                        .file(new MockMultipartFile("file", "hr-export.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn();
+        String id = com.jayway.jsonpath.JsonPath.read(upload.getResponse().getContentAsString(), "$.id");
+
+        awaitCompletion(id);
+
+        mockMvc.perform(get("/api/employee/import/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("COMPLETED")))
+                .andExpect(jsonPath("$.percent", is(100.0)))
+                .andExpect(jsonPath("$.rowsRead", is(7)))
+                .andExpect(jsonPath("$.imported", is(3)))
+                .andExpect(jsonPath("$.duplicates", is(2)))
+                .andExpect(jsonPath("$.invalid", is(2)));
+        assertThat(employeeRepository.findAll()).extracting(Employee::getEmail)
+                .containsExactlyInAnyOrder("taken@domain.com", "rd@domain.com", "quoted@domain.com", "last@domain.com");
+        assertThat(employeeRepository.findAll()).extracting(Employee::getLastName).contains("Dallo, Jr.");
+        // one CREATED event per row, the imported ones like the one saved through JPA
+        assertThat(jdbcTemplate.queryForList("SELECT e.email FROM employee_outbox o JOIN employee e ON e.id = o.employee_id " +
+                "WHERE o.event_type = 'CREATED' AND o.employee_version = e.version", String.class))
+                .containsExactlyInAnyOrder("taken@domain.com", "rd@domain.com", "quoted@domain.com", "last@domain.com");
+
+        String errors = mockMvc.perform(get("/api/employee/import/{id}/errors", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(errors.lines()).containsExactlyInAnyOrder(
+                "line,email,error",
+                "4,,\"invalid email\"",
+                "6,\"RD@domain.com\",\"duplicate email in file\"",
+                "7,\"taken@domain.com\",\"email already exists\"",
+                "8,,\"lastName is missing\"");
+    }
+
+    @Test
+    @DisplayName("Integration test for an upload that is not CSV or NDJSON")
+    public void givenUnsupportedUpload_whenImport_thenBadRequest() throws Exception {
+
+        List<Path> stored = workDirectoryFiles();
+
+        mockMvc.perform(multipart("/api/employee/import")
+                        .file(new MockMultipartFile("file", "hr-export.xlsx", "application/octet-stream", new byte[]{1})))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(multipart("/api/employee/import")
+                        .file(new MockMultipartFile("file", "hr-export.txt", "text/plain", "rd@domain.com".getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(multipart("/api/employee/import")
+                        .file(new MockMultipartFile("file", "hr-export", "text/plain", "rd@domain.com".getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isBadRequest());
+        // rejected before the upload is copied
+        assertThat(workDirectoryFiles()).isEqualTo(stored);
+        mockMvc.perform(get("/api/employee/import/{id}", "0123456789abcdef"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Integration test for an NDJSON import resumed from a checkpoint")
+    public void givenCheckpoint_whenImport_thenResumeAfterCommittedLines() throws Exception {
+
+        // named like an upload, so the job id is the file name
+        Path file = WORK_DIRECTORY.resolve("00000000000000aa.ndjson");
+        Files.writeString(file, IntStream.rangeClosed(1, 10)
+                .mapToObj(n -> "{\"firstName\":\"Rei\",\"lastName\":\"Dallo\",\"email\":\"employee" + n + "@domain.com\"}\n")
+                .collect(Collectors.joining()));
+        // a previous run committed the first 4 lines, then crashed
+        long offset = Files.readString(file).lines().limit(4).mapToLong(line -> line.length() + 1).sum();
+        new ImportCheckpoint(offset, 4, 4, 0, 0, false).save(WORK_DIRECTORY.resolve("00000000000000aa.checkpoint"));
+
+        EmployeeImportStatus status = importService.run(file).status();
+
+        assertThat(status.status()).isEqualTo(EmployeeImportJob.Status.COMPLETED);
+        assertThat(status.imported()).isEqualTo(10);
+        assertThat(employeeRepository.findAll()).extracting(Employee::getEmail)
+                .containsExactlyInAnyOrderElementsOf(IntStream.rangeClosed(5, 10)
+                        .mapToObj(n -> "employee" + n + "@domain.com").toList());
+
+        // a completed import is not run again
+        assertThat(importService.run(file).status().imported()).isEqualTo(10);
+        assertThat(employeeRepository.count()).isEqualTo(6);
+    }
+
+    private void awaitCompletion(String id) throws Exception {
+        for (int i = 0; i < 200; i++) {
+            EmployeeImportJob.Status status = importService.find(id).orElseThrow().getStatus();
+            if (status != EmployeeImportJob.Status.RUNNING) {
+                assertThat(status).isEqualTo(EmployeeImportJob.Status.COMPLETED);
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("import " + id + " did not complete");
+    }
+
+    private static List<Path> workDirectoryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(WORK_DIRECTORY)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("employee-import");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package rei.java.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.repository.EmployeeRepository;
+import rei.java.springboot.service.EmployeeService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static rei.java.springboot.fixture.EmployeeFixtures.employee;
+
+// not @Transactional: versions are only checked and incremented when the updates commit. The concurrent writers
+// wait for the write bulkhead (3) instead of being turned away after 100 ms on a busy machine.
+@SpringBootTest(properties = "employee.resilience.max-wait=10s")
+@AutoConfigureMockMvc
+public class EmployeeOptimisticLockingITest extends AbstractContainerBaseTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void finish() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Integration test for two clients updating the version they read")
+    public void givenTwoClientsWithSameETag_whenUpdateEmployee_thenSecondGetsPreconditionFailed() throws Exception {
+
+        Employee employee = employeeRepository.save(employee("rd@domain.com"));
+        String eTag = mockMvc.perform(get("/api/employee/{id}", employee.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(put("/api/employee/{id}", employee.getId())
+                        .header("If-Match", eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee("first@domain.com"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+        mockMvc.perform(put("/api/employee/{id}", employee.getId())
+                        .header("If-Match", eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee("second@domain.com"))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        assertThat(employeeRepository.findById(employee.getId())).get()
+                .extracting(Employee::getEmail).isEqualTo("first@domain.com");
+    }
+
+    @Test
+    @DisplayName("Integration test for concurrent updates of the same row without a lost update")
+    public void givenConcurrentUpdates_whenUpdateEmployee_thenEveryUpdateIsApplied() throws Exception {
+
+        Employee employee = employeeRepository.save(employee("rd@domain.com"));
+        int writers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Callable<Employee>> updates = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            // every writer starts from version 0, all but the first one to commit conflict
+            Employee stale = employeeRepository.findById(employee.getId()).orElseThrow();
+            stale.setEmail("writer" + i + "@domain.com");
+            updates.add(() -> employeeService.updateEmployee(stale));
+        }
+
+        List<Future<Employee>> results = executor.invokeAll(updates);
+        executor.shutdown();
+
+        for (Future<Employee> result : results)
+            assertThat(result.get().getEmail()).startsWith("writer");
+        assertThat(employeeRepository.findById(employee.getId())).get()
+                .extracting(Employee::getVersion).isEqualTo((long) writers);
+    }
+}
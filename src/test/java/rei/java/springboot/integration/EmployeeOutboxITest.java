@@ -0,0 +1,171 @@
+package rei.java.springboot.integration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import rei.java.springboot.fixture.EmployeeFixtures;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.outbox.EmployeeChangeEvent;
+import rei.java.springboot.outbox.EmployeeEventSink;
+import rei.java.springboot.outbox.EmployeeOutboxRelay;
+import rei.java.springboot.service.EmployeeService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// own context (and database): the outbox is drained by the relays of the test, not the scheduled one
+@SpringBootTest(properties = {"employee.outbox.relay-enabled=false", "employee.outbox.sink=in-memory"})
+public class EmployeeOutboxITest extends AbstractContainerBaseTest {
+
+    private static final int EMPLOYEES = 200;
+    private static final int RELAYS = 3;
+
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Every committed employee write is delivered at least once by concurrent relays whose sink keeps failing")
+    public void givenWrites_whenRelayedWithFailingSink_thenEveryEventDeliveredAtLeastOnce() throws Exception {
+
+        // given
+        for (int n = 0; n < EMPLOYEES; n++) {
+            Employee employee = employeeService.saveEmployee(EmployeeFixtures.employee(n));
+            if (n % 2 == 0) {
+                employee.setLastName("Renamed");
+                employeeService.updateEmployee(employee);
+            }
+            if (n % 4 == 0)
+                employeeService.deleteEmployee(employee.getId());
+        }
+        // rolled back, no event
+        assertThatThrownBy(() -> employeeService.saveEmployee(EmployeeFixtures.employee(1)))
+                .isInstanceOf(IllegalStateException.class);
+        List<Long> written = jdbcTemplate.queryForList("SELECT id FROM employee_outbox ORDER BY id", Long.class);
+        assertThat(written).hasSize(EMPLOYEES + EMPLOYEES / 2 + EMPLOYEES / 4);
+
+        // every third publish fails after the sink got the batch, as when the acknowledgement is lost
+        Map<Long, EmployeeChangeEvent> delivered = new ConcurrentHashMap<>();
+        AtomicInteger publishes = new AtomicInteger();
+        AtomicInteger redelivered = new AtomicInteger();
+        EmployeeEventSink flakySink = events -> {
+            for (EmployeeChangeEvent event : events)
+                if (delivered.put(event.id(), event) != null)
+                    redelivered.incrementAndGet();
+            if (publishes.incrementAndGet() % 3 == 0)
+                throw new IOException("acknowledgement lost");
+        };
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(RELAYS);
+        try {
+            List<Future<?>> relays = new ArrayList<>();
+            for (int i = 0; i < RELAYS; i++) {
+                // 2 batches per run, the next run goes on
+                EmployeeOutboxRelay relay = new EmployeeOutboxRelay(jdbcTemplate, transactionTemplate, flakySink, 16, 2,
+                        new SimpleMeterRegistry());
+                // until the outbox is drained, retrying after the failures
+                relays.add(executor.submit(() -> {
+                    do {
+                        relay.relay();
+                    } while (relay.getBacklog() > 0);
+                }));
+            }
+            for (Future<?> relay : relays)
+                relay.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee_outbox", Long.class)).isZero();
+        assertThat(delivered.keySet()).containsExactlyInAnyOrderElementsOf(written);
+        assertThat(redelivered.get()).isPositive();
+
+        Map<Long, List<EmployeeChangeEvent>> byEmployee = delivered.values().stream()
+                .sorted((a, b) -> Long.compare(a.id(), b.id()))
+                .collect(Collectors.groupingBy(EmployeeChangeEvent::employeeId));
+        assertThat(byEmployee).hasSize(EMPLOYEES);
+        Set<String> histories = new HashSet<>();
+        byEmployee.values().forEach(events -> histories.add(events.stream()
+                .map(event -> event.type() + "@" + event.employeeVersion())
+                .collect(Collectors.joining(" "))));
+        assertThat(histories).containsExactlyInAnyOrder(
+                "CREATED@0",
+                "CREATED@0 UPDATED@1",
+                "CREATED@0 UPDATED@1 DELETED@2");
+        EmployeeChangeEvent renamed = byEmployee.values().stream()
+                .flatMap(List::stream)
+                .filter(event -> event.type() == EmployeeChangeEvent.Type.UPDATED)
+                .findFirst().orElseThrow();
+        assertThat(renamed.payload())
+                .contains("\"lastName\":\"Renamed\"")
+                .contains("\"version\":1");
+    }
+
+    @Test
+    @DisplayName("A relay destroyed on shutdown waits for the batch in progress and runs no more")
+    public void givenRunInProgress_whenDestroy_thenWaitsAndRunsNoMore() throws Exception {
+
+        // given
+        jdbcTemplate.update("DELETE FROM employee_outbox");
+        Employee employee = employeeService.saveEmployee(EmployeeFixtures.employee(EMPLOYEES));
+        CountDownLatch publishing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EmployeeEventSink slowSink = events -> {
+            publishing.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        EmployeeOutboxRelay relay = new EmployeeOutboxRelay(jdbcTemplate, transactionTemplate, slowSink, 16, 2,
+                new SimpleMeterRegistry());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> run = executor.submit(relay::relay);
+            assertThat(publishing.await(5, TimeUnit.SECONDS)).isTrue();
+            // when
+            Future<?> destroy = executor.submit(relay::destroy);
+            Thread.sleep(100);
+            // then
+            assertThat(destroy).isNotDone();
+            release.countDown();
+            assertThat(run.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThatCode(() -> destroy.get(5, TimeUnit.SECONDS)).doesNotThrowAnyException();
+        } finally {
+            executor.shutdown();
+        }
+        employeeService.deleteEmployee(employee.getId());
+        assertThat(relay.relay()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee_outbox", Long.class)).isEqualTo(1);
+
+        jdbcTemplate.update("DELETE FROM employee_outbox");
+        jdbcTemplate.update("DELETE FROM employee");
+    }
+}
@@ -0,0 +1,132 @@
+package rei.java.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.repository.EmployeeRepository;
+import rei.java.springboot.sql.SqlStatementScope;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static rei.java.springboot.fixture.EmployeeFixtures.employee;
+
+// Statement budgets of the employee API: a change that adds a query to a request fails here
+@SpringBootTest
+@AutoConfigureMockMvc
+public class EmployeeSqlStatementBudgetITest extends AbstractContainerBaseTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void finish() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("GET /api/employee/{id} executes exactly 1 statement")
+    public void givenEmployee_whenGetEmployeeById_thenOneStatement() throws Exception {
+
+        Employee employee = employeeRepository.save(employee("rd@domain.com"));
+
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            mockMvc.perform(get("/api/employee/{id}", employee.getId())).andExpect(status().isOk());
+
+            assertThat(scope.getStatements()).isEqualTo(1);
+            assertThat(scope.getRows()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("POST /api/employee executes the email check, the insert and its outbox row")
+    public void givenEmployee_whenCreateEmployee_thenTwoStatements() throws Exception {
+
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            mockMvc.perform(post("/api/employee")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(employee("rd@domain.com"))))
+                    .andExpect(status().isCreated());
+
+            assertThat(scope.getStatements()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("PUT /api/employee/{id} executes the lookup, the update and its outbox row")
+    public void givenEmployee_whenUpdateEmployee_thenTwoStatements() throws Exception {
+
+        Employee employee = employeeRepository.save(employee("rd@domain.com"));
+
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            mockMvc.perform(put("/api/employee/{id}", employee.getId())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(employee("rei@domain.com"))))
+                    .andExpect(status().isOk());
+
+            assertThat(scope.getStatements()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("DELETE /api/employee/{id} executes deleteById's hidden SELECT, the tombstone UPDATE and its outbox row")
+    public void givenEmployee_whenDeleteEmployee_thenTwoStatements() throws Exception {
+
+        Employee employee = employeeRepository.save(employee("rd@domain.com"));
+
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            mockMvc.perform(delete("/api/employee/{id}", employee.getId())).andExpect(status().isOk());
+
+            assertThat(scope.getStatements()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/employee?ids= executes 1 statement for all ids, and none once they are cached")
+    public void givenEmployees_whenGetEmployeesByIds_thenOneStatementThenNone() throws Exception {
+
+        Employee employee = employeeRepository.save(employee("rd@domain.com"));
+        Employee anotherEmployee = employeeRepository.save(employee("od@domain.com"));
+        String ids = employee.getId() + "," + anotherEmployee.getId();
+
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            mockMvc.perform(get("/api/employee").param("ids", ids + ",0")).andExpect(status().isOk());
+
+            assertThat(scope.getStatements()).isEqualTo(1);
+            assertThat(scope.getRows()).isEqualTo(2);
+        }
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            mockMvc.perform(get("/api/employee").param("ids", ids)).andExpect(status().isOk());
+
+            assertThat(scope.getStatements()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Statements per request are recorded as metrics")
+    public void givenRequest_whenDone_thenStatementMetricsRecorded() throws Exception {
+
+        mockMvc.perform(get("/api/employee/{id}", 0L)).andExpect(status().isNotFound());
+
+        assertThat(meterRegistry.get("http.server.requests.db.statements")
+                .tags("method", "GET", "uri", "/api/employee/{id}")
+                .summary().totalAmount()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get("http.server.requests.db.time")
+                .tags("method", "GET", "uri", "/api/employee/{id}")
+                .timer().count()).isGreaterThanOrEqualTo(1);
+    }
+}
@@ -0,0 +1,92 @@
+package rei.java.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.sql.SqlStatementScope;
+import rei.java.springboot.stats.EmployeeStatsReconciler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// own context (and database): the counters are per application
+@SpringBootTest(properties = "employee.stats.reconcile-interval=PT1H")
+@AutoConfigureMockMvc
+public class EmployeeStatsITest extends AbstractContainerBaseTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EmployeeStatsReconciler reconciler;
+
+    @Test
+    @DisplayName("GET /api/employee/stats follows the API writes without reading the employee table, and is reconciled with it")
+    public void givenWrites_whenGetStats_thenCountersFollowThem() throws Exception {
+
+        // given
+        long rd = create("rd@domain.com", "Dallo");
+        create("od@domain.com", "Dado");
+        long ab = create("ab@other.org", "Bell");
+        mockMvc.perform(put("/api/employee/{id}", ab)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee("ab@domain.com", "Ball"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/employee/{id}", rd)).andExpect(status().isOk());
+
+        // when
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            mockMvc.perform(get("/api/employee/stats"))
+                    // then
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total", is(2)))
+                    .andExpect(jsonPath("$.byEmailDomain['domain.com']", is(2)))
+                    .andExpect(jsonPath("$.byEmailDomain['other.org']").doesNotExist())
+                    .andExpect(jsonPath("$.byLastNameInitial.B", is(1)))
+                    .andExpect(jsonPath("$.byLastNameInitial.D", is(1)))
+                    .andExpect(jsonPath("$.creationRate.lastHour", is(3)));
+
+            assertThat(scope.getStatements()).isZero();
+        }
+
+        // an insert that bypasses JPA, like the bulk import
+        jdbcTemplate.update("INSERT INTO employee (first_name, last_name, email) VALUES ('Cid', 'Cole', 'cc@other.org')");
+        assertThat(reconciler.reconcile()).isEqualTo(3);
+
+        mockMvc.perform(get("/api/employee/stats"))
+                .andExpect(jsonPath("$.total", is(3)))
+                .andExpect(jsonPath("$.byEmailDomain['other.org']", is(1)))
+                .andExpect(jsonPath("$.byLastNameInitial.C", is(1)));
+        assertThat(reconciler.reconcile()).isZero();
+    }
+
+    private long create(String email, String lastName) throws Exception {
+        String response = mockMvc.perform(post("/api/employee")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee(email, lastName))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, Employee.class).getId();
+    }
+
+    private static Employee employee(String email, String lastName) {
+        return Employee.builder()
+                .firstName("Rei")
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package rei.java.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import rei.java.springboot.bulk.EmployeeImportService;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.outbox.EmployeeOutboxRelay;
+import rei.java.springboot.purge.EmployeePurger;
+import rei.java.springboot.service.EmployeeService;
+import rei.java.springboot.service.implementation.InMemoryEmployeeService;
+import rei.java.springboot.stats.EmployeeStatistics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static rei.java.springboot.fixture.EmployeeFixtures.employee;
+
+// the employee API on the memory-store profile, rows off the heap: same responses, and the employee table is never touched
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("memory-store")
+public class InMemoryEmployeeStoreITest extends AbstractContainerBaseTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationContext context;
+
+    @DynamicPropertySource
+    static void storeDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("employee-store").toString();
+        registry.add("employee.store.directory", () -> directory);
+        registry.add("employee.store.off-heap", () -> "true");
+    }
+
+    @Test
+    @DisplayName("Create, read, conditional update, list, batch lookup and delete through the in-memory store")
+    public void givenMemoryStoreProfile_whenUsingTheApi_thenServedFromTheStore() throws Exception {
+
+        assertThat(employeeService).isInstanceOf(InMemoryEmployeeService.class);
+
+        // create
+        String response = mockMvc.perform(post("/api/employee")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee("rd@domain.com"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readValue(response, Employee.class).getId();
+
+        // read
+        mockMvc.perform(get("/api/employee/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.email", is("rd@domain.com")));
+
+        // conditional update
+        mockMvc.perform(put("/api/employee/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee("rei@domain.com"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        mockMvc.perform(put("/api/employee/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee("oni@domain.com"))))
+                .andExpect(status().isPreconditionFailed());
+
+        // list, written from the store's bytes
+        MvcResult started = mockMvc.perform(get("/api/employee")).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].email", is("rei@domain.com")))
+                .andExpect(jsonPath("$[0].version", is(1)));
+
+        // batch lookup
+        mockMvc.perform(get("/api/employee").param("ids", id + ",0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].employee.email", is("rei@domain.com")))
+                .andExpect(jsonPath("$[1].found", is(false)));
+
+        // delete
+        mockMvc.perform(delete("/api/employee/{id}", id)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/employee/{id}", id)).andExpect(status().isNotFound());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee", Long.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("The features working on the employee table are not started on the memory-store profile")
+    public void givenMemoryStoreProfile_whenStarted_thenTableFeaturesOff() {
+
+        assertThat(context.getBeanNamesForType(EmployeeImportService.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(EmployeeStatistics.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(EmployeePurger.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(EmployeeOutboxRelay.class)).isEmpty();
+    }
+}
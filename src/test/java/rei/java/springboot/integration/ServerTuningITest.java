@@ -0,0 +1,58 @@
+package rei.java.springboot.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import rei.java.springboot.model.Employee;
+import rei.java.springboot.service.EmployeeService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the real server on a random port, whichever container the build selected
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("server-tuned")
+public class ServerTuningITest extends AbstractContainerBaseTest {
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private EmployeeService employeeService;
+
+    private long id;
+
+    @BeforeEach
+    public void setup() {
+        id = employeeService.saveEmployee(Employee.builder()
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email("rd" + System.nanoTime() + "@domain.com")
+                .build()).getId();
+    }
+
+    @Test
+    @DisplayName("The server-tuned profile upgrades a cleartext connection to HTTP/2 (h2c)")
+    public void givenServerTunedProfile_whenHttp2Request_thenH2c() throws Exception {
+
+        // given
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+
+        // when
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employee/" + id)).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        // then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+        assertThat(response.body()).contains("\"lastName\":\"Dallo\"");
+    }
+}
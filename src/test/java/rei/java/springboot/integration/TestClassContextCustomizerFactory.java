@@ -0,0 +1,27 @@
+package rei.java.springboot.integration;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ContextConfigurationAttributes;
+import org.springframework.test.context.ContextCustomizer;
+import org.springframework.test.context.ContextCustomizerFactory;
+import org.springframework.test.context.MergedContextConfiguration;
+
+import java.util.List;
+
+// Keys the Spring test context of every AbstractContainerBaseTest subclass by the test class. Classes with the same
+// annotations would otherwise share one cached context, and so one database, while they run in parallel.
+public class TestClassContextCustomizerFactory implements ContextCustomizerFactory {
+
+    @Override
+    public ContextCustomizer createContextCustomizer(Class<?> testClass, List<ContextConfigurationAttributes> configAttributes) {
+        return AbstractContainerBaseTest.class.isAssignableFrom(testClass) ? new TestClassKey(testClass) : null;
+    }
+
+    // only takes part in the context cache key through equals and hashCode
+    private record TestClassKey(Class<?> testClass) implements ContextCustomizer {
+
+        @Override
+        public void customizeContext(ConfigurableApplicationContext context, MergedContextConfiguration mergedConfig) {
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package rei.java.springboot.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.boot.test.json.JacksonTester;
+import rei.java.springboot.model.Employee;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// **@JsonTest** configures the application ObjectMapper, including the @JsonComponent beans
+@JsonTest
+public class EmployeeJsonComponentTest {
+
+    @Autowired
+    private JacksonTester<Employee> json;
+    @Autowired
+    private ObjectMapper objectMapper;
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email("rd@domain.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Serialized Employee is the same JSON as the default bean serializer writes")
+    public void givenEmployee_whenSerialize_thenSameJsonAsDefaultMapper() throws Exception {
+
+        String expected = new ObjectMapper().writeValueAsString(employee);
+
+        assertThat(json.write(employee).getJson()).isEqualTo(expected);
+        assertThat(objectMapper.writeValueAsString(List.of(employee, employee)))
+                .isEqualTo(new ObjectMapper().writeValueAsString(List.of(employee, employee)));
+    }
+
+    @Test
+    @DisplayName("Deserialized Employee has all properties, unknown ones are ignored")
+    public void givenJson_whenDeserialize_thenReturnEmployee() throws Exception {
+
+        Employee parsed = json.parseObject("{\"id\":\"7\",\"firstName\":\"Rei\",\"unknown\":{\"a\":[1,2]},"
+                + "\"lastName\":\"Dallo\",\"email\":\"rd@domain.com\"}");
+
+        assertThat(parsed.getId()).isEqualTo(7L);
+        assertThat(parsed.getFirstName()).isEqualTo("Rei");
+        assertThat(parsed.getLastName()).isEqualTo("Dallo");
+        assertThat(parsed.getEmail()).isEqualTo("rd@domain.com");
+    }
+
+    @Test
+    @DisplayName("Missing and null properties are left empty")
+    public void givenPartialJson_whenDeserialize_thenMissingPropertiesAreNull() throws Exception {
+
+        Employee parsed = json.parseObject("{\"id\":null,\"firstName\":null,\"email\":\"rd@domain.com\"}");
+
+        assertThat(parsed.getId()).isZero();
+        assertThat(parsed.getFirstName()).isNull();
+        assertThat(parsed.getLastName()).isNull();
+        assertThat(parsed.getEmail()).isEqualTo("rd@domain.com");
+        assertThat(json.parseObject("{}").getEmail()).isNull();
+    }
+
+    @Test
+    @DisplayName("Values of the wrong kind are rejected, like the default bean deserializer does")
+    public void givenWrongValueKinds_whenDeserialize_thenRejected() throws Exception {
+
+        assertThatThrownBy(() -> json.parseObject("{\"id\":\"abc\"}")).isInstanceOf(MismatchedInputException.class);
+        assertThatThrownBy(() -> json.parseObject("{\"version\":[1]}")).isInstanceOf(MismatchedInputException.class);
+        assertThatThrownBy(() -> json.parseObject("{\"firstName\":{\"a\":1},\"lastName\":\"Dallo\"}"))
+                .isInstanceOf(MismatchedInputException.class);
+        assertThatThrownBy(() -> json.parseObject("{\"email\":[\"rd@domain.com\"]}")).isInstanceOf(MismatchedInputException.class);
+        // scalars are coerced
+        assertThat(json.parseObject("{\"firstName\":42,\"version\":3}").getFirstName()).isEqualTo("42");
+    }
+}
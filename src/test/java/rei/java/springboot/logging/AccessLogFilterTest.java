@@ -0,0 +1,104 @@
+package rei.java.springboot.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import rei.java.springboot.controller.EmployeeController;
+import rei.java.springboot.service.EmployeeService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class AccessLogFilterTest {
+
+    private static final Pattern DURATION = Pattern.compile("durationMs=(\\d+)");
+
+    @Mock
+    private EmployeeService employeeService;
+    private MockMvc mockMvc;
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("access");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new EmployeeController(employeeService, 1000))
+                .addFilters(new AccessLogFilter())
+                .build();
+        appender.start();
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        accessLogger.detachAppender(appender);
+    }
+
+    @Test
+    @DisplayName("GET /api/employee logs once, with the duration of the list written synchronously")
+    public void givenListBackend_whenGetAllEmployees_thenLoggedOnce() throws Exception {
+
+        // given
+        given(employeeService.getAllEmployee()).willReturn(List.of());
+
+        // when
+        mockMvc.perform(get("/api/employee")).andExpect(status().isOk());
+
+        // then
+        assertThat(appender.list).singleElement()
+                .satisfies(event -> assertThat(event.getFormattedMessage()).contains("uri=/api/employee", "status=200"));
+    }
+
+    @Test
+    @DisplayName("A streamed GET /api/employee is logged when the response completes, the duration covers the body")
+    public void givenStreamingBackend_whenGetAllEmployees_thenDurationCoversTheBody() throws Exception {
+
+        // given: a body that takes 200 ms to write
+        StreamingResponseBody slowBody = out -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.write("[]".getBytes(StandardCharsets.UTF_8));
+        };
+        given(employeeService.streamAllEmployees()).willReturn(Optional.of(slowBody));
+
+        // when
+        MvcResult started = mockMvc.perform(get("/api/employee"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // then: nothing logged while the body is written
+        assertThat(appender.list).isEmpty();
+
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        assertThat(appender.list).singleElement().satisfies(event -> {
+            Matcher duration = DURATION.matcher(event.getFormattedMessage());
+            assertThat(duration.find()).isTrue();
+            assertThat(Long.parseLong(duration.group(1))).isGreaterThanOrEqualTo(200);
+        });
+    }
+}
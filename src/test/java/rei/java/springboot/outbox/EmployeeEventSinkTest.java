@@ -0,0 +1,88 @@
+package rei.java.springboot.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EmployeeEventSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("JUnit test for appending the events to the log file, one JSON line each with the employee inlined")
+    public void givenBatches_whenPublishToLogFile_thenAppendNdjson() throws IOException {
+
+        // given
+        Path file = directory.resolve("events/employee-events.ndjson");
+        LogFileEventSink sink = new LogFileEventSink(file, objectMapper);
+
+        // when
+        sink.publish(List.of(event(1, EmployeeChangeEvent.Type.CREATED, 0)));
+        sink.publish(List.of(event(2, EmployeeChangeEvent.Type.UPDATED, 1), event(3, EmployeeChangeEvent.Type.DELETED, 2)));
+
+        // then
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(3);
+        JsonNode updated = objectMapper.readTree(lines.get(1));
+        assertThat(updated.get("id").asLong()).isEqualTo(2);
+        assertThat(updated.get("type").asText()).isEqualTo("UPDATED");
+        assertThat(updated.get("employeeVersion").asLong()).isEqualTo(1);
+        assertThat(updated.get("employee").get("lastName").asText()).isEqualTo("Dallo");
+    }
+
+    @Test
+    @DisplayName("JUnit test for posting the batch to the webhook, and failing it unless the answer is 2xx")
+    public void givenWebhook_whenPublish_thenPostBatchAndFailOnError() throws IOException {
+
+        // given
+        List<String> bodies = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/events", exchange -> {
+            bodies.add(new String(exchange.getRequestBody().readAllBytes()));
+            exchange.sendResponseHeaders(bodies.size() == 1 ? 204 : 503, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            URI url = URI.create("http://localhost:" + server.getAddress().getPort() + "/events");
+            WebhookEventSink sink = new WebhookEventSink(url, Duration.ofSeconds(5), objectMapper);
+
+            // when
+            sink.publish(List.of(event(1, EmployeeChangeEvent.Type.CREATED, 0), event(2, EmployeeChangeEvent.Type.UPDATED, 1)));
+
+            // then
+            assertThat(objectMapper.readTree(bodies.get(0))).hasSize(2);
+            assertThatThrownBy(() -> sink.publish(List.of(event(3, EmployeeChangeEvent.Type.DELETED, 2))))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("503");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static EmployeeChangeEvent event(long id, EmployeeChangeEvent.Type type, long version) {
+        return new EmployeeChangeEvent(id, type, 7, version, Instant.parse("2023-01-01T00:00:00Z"),
+                "{\"id\":7,\"firstName\":\"Ramesh\",\"lastName\":\"Dallo\",\"email\":\"rd@domain.com\",\"version\":" + version + "}");
+    }
+}
@@ -0,0 +1,94 @@
+package rei.java.springboot.purge;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rei.java.springboot.fixture.EmployeeFixtures;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the schema of the migrations, including the deleted_at index the purger scans
+@DataJpaTest
+public class EmployeePurgerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 1, 1, 2, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EmployeePurgeProperties properties = new EmployeePurgeProperties();
+
+    @BeforeEach
+    public void setup() {
+        properties.setBatchSize(2);
+        properties.setPause(Duration.ZERO);
+        // 10 rows: 5 deleted two days ago, 1 deleted an hour ago, 4 live
+        EmployeeFixtures.insertEmployees(jdbcTemplate, 1, 10);
+        jdbcTemplate.update("UPDATE employee SET deleted_at = ? WHERE email IN (?, ?, ?, ?, ?)",
+                Timestamp.valueOf(NOW.minusDays(2)), EmployeeFixtures.email(1), EmployeeFixtures.email(2),
+                EmployeeFixtures.email(3), EmployeeFixtures.email(4), EmployeeFixtures.email(5));
+        jdbcTemplate.update("UPDATE employee SET deleted_at = ? WHERE email = ?",
+                Timestamp.valueOf(NOW.minusHours(1)), EmployeeFixtures.email(6));
+    }
+
+    @Test
+    @DisplayName("JUnit test for purging the tombstones older than the retention, in batches")
+    public void givenTombstones_whenPurgeInWindow_thenDeleteOldOnes() {
+
+        EmployeePurger purger = new EmployeePurger(jdbcTemplate, properties, meterRegistry, clockAt(NOW));
+
+        long purged = purger.purge();
+
+        assertThat(purged).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee", Integer.class)).isEqualTo(5);
+        assertThat(purger.getBacklog()).isEqualTo(1);
+        assertThat(meterRegistry.get("employee.purge.rows").counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("employee.purge.backlog").gauge().value()).isEqualTo(1);
+        // 2 + 2 + 1 rows
+        assertThat(meterRegistry.get("employee.purge.batch").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("JUnit test for the batches per run, the next run goes on with the backlog")
+    public void givenMaxBatchesPerRun_whenPurge_thenNextRunGoesOn() {
+
+        properties.setMaxBatchesPerRun(2);
+        EmployeePurger purger = new EmployeePurger(jdbcTemplate, properties, meterRegistry, clockAt(NOW));
+
+        assertThat(purger.purge()).isEqualTo(4);
+        assertThat(purger.purge()).isEqualTo(1);
+        assertThat(purger.purge()).isZero();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the off-peak window, also across midnight")
+    public void givenTimeOutsideWindow_whenPurge_thenDeleteNothing() {
+
+        EmployeePurger purger = new EmployeePurger(jdbcTemplate, properties, meterRegistry, clockAt(NOW.withHour(12)));
+
+        assertThat(purger.purge()).isZero();
+        assertThat(purger.getBacklog()).isEqualTo(6);
+
+        properties.setWindowStart(LocalTime.of(22, 0));
+        properties.setWindowEnd(LocalTime.of(4, 0));
+        assertThat(new EmployeePurger(jdbcTemplate, properties, new SimpleMeterRegistry(), clockAt(NOW)).purge()).isEqualTo(5);
+    }
+
+    private static Clock clockAt(LocalDateTime time) {
+        ZoneId zone = ZoneOffset.UTC;
+        return Clock.fixed(time.toInstant(ZoneOffset.UTC), zone);
+    }
+}
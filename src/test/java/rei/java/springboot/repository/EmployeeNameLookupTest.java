@@ -0,0 +1,80 @@
+package rei.java.springboot.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import rei.java.springboot.model.Employee;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeNameLookupTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+    private MeterRegistry meterRegistry;
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email("rd@domain.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("A fixed strategy sends every lookup to its query")
+    public void givenFixedStrategy_whenFind_thenOnlyThatQueryUsed() {
+
+        // given
+        given(employeeRepository.findByNative("Rei", "Dallo")).willReturn(employee);
+        EmployeeNameLookup lookup = new EmployeeNameLookup(employeeRepository, EmployeeNameLookup.Strategy.NATIVE, 1, meterRegistry);
+        // when
+        for (int i = 0; i < 50; i++)
+            assertThat(lookup.find("Rei", "Dallo")).isEqualTo(employee);
+        // then
+        then(employeeRepository).should(never()).findByJPQL("Rei", "Dallo");
+        assertThat(meterRegistry.get("employee.name-lookup").tag("strategy", "native").timer().count()).isEqualTo(50);
+        assertThat(meterRegistry.get("employee.name-lookup.selected").tag("strategy", "native").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Adaptive, the lookups go to the fastest query, the others are still sampled")
+    public void givenOneFastStrategy_whenFind_thenFastestSelected() {
+
+        // given
+        Answer<Employee> slow = invocation -> {
+            Thread.sleep(2);
+            return employee;
+        };
+        lenient().when(employeeRepository.findByJPQL("Rei", "Dallo")).thenAnswer(slow);
+        lenient().when(employeeRepository.findByJPQLNamedParameters("Rei", "Dallo")).thenAnswer(slow);
+        lenient().when(employeeRepository.findByNative("Rei", "Dallo")).thenAnswer(slow);
+        given(employeeRepository.findByNativeNamedParameters("Rei", "Dallo")).willReturn(employee);
+        EmployeeNameLookup lookup = new EmployeeNameLookup(employeeRepository, null, 10, meterRegistry);
+        // when
+        for (int i = 0; i < 200; i++)
+            assertThat(lookup.find("Rei", "Dallo")).isEqualTo(employee);
+        // then
+        assertThat(lookup.getSelected()).isEqualTo(EmployeeNameLookup.Strategy.NATIVE_NAMED);
+        // 10 warm-up rounds of 4, then one call in 10 of the other 160 is spread over the strategies
+        long sampled = meterRegistry.get("employee.name-lookup").tag("strategy", "jpql").timer().count();
+        assertThat(sampled).isBetween(11L, 20L);
+        assertThat(meterRegistry.get("employee.name-lookup").tag("strategy", "native-named").timer().count())
+                .isGreaterThan(150);
+    }
+}
@@ -0,0 +1,100 @@
+package rei.java.springboot.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rei.java.springboot.fixture.EmployeeFixtures;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Every repository lookup is run once, the statement Hibernate sent is captured and EXPLAINed with the same
+// arguments: the plan must read the table through an index, never scan it
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "rei.java.springboot.repository.EmployeeQueryPlanTest$LastStatement")
+public class EmployeeQueryPlanTest {
+
+    private static final int ROWS = 1000;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        // through JDBC, so that no employee is in the persistence context and every lookup is a query
+        EmployeeFixtures.insertEmployees(jdbcTemplate, 1, ROWS);
+        LastStatement.sql = null;
+    }
+
+    @Test
+    @DisplayName("findById, findByEmail and findByIdIn read the table through an index")
+    public void givenLookups_whenExplain_thenIndexUsed() {
+
+        long id = employeeRepository.findByEmail(EmployeeFixtures.email(1)).orElseThrow().getId();
+        assertIndexUsed(EmployeeFixtures.email(1));
+
+        employeeRepository.findById(id + 1);
+        assertIndexUsed(id + 1);
+
+        // 3 ids padded to 4 parameters, the last id repeated (in_clause_parameter_padding)
+        employeeRepository.findByIdIn(List.of(id, id + 1, id + 2));
+        assertIndexUsed(id, id + 1, id + 2, id + 2);
+    }
+
+    @Test
+    @DisplayName("The four equivalent name lookups read the table through an index")
+    public void givenNameLookups_whenExplain_thenIndexUsed() {
+
+        String firstName = EmployeeFixtures.firstName(7);
+        String lastName = EmployeeFixtures.lastName(7);
+
+        for (EmployeeNameLookup.Strategy strategy : EmployeeNameLookup.Strategy.values()) {
+            new EmployeeNameLookup(employeeRepository, strategy, 1, new SimpleMeterRegistry()).find(firstName, lastName);
+            assertIndexUsed(firstName, lastName);
+        }
+    }
+
+    private void assertIndexUsed(Object... args) {
+        String sql = LastStatement.sql;
+        assertThat(sql).isNotNull();
+        LastStatement.sql = null;
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+        if (isH2()) {
+            // a single row with the statement, the access path of every table in a comment
+            String explained = plan.get(0).values().iterator().next().toString();
+            assertThat(explained).as(sql).doesNotContain("tableScan").containsIgnoringCase("employee");
+        } else
+            // MySQL, a row per table: type ALL is a full scan
+            assertThat(plan).as(sql).allSatisfy(row -> {
+                assertThat(row.get("type")).isNotEqualTo("ALL");
+                assertThat(row.get("key")).isNotNull();
+            });
+    }
+
+    private boolean isH2() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "H2".equals(connection.getMetaData().getDatabaseProductName())));
+    }
+
+    // instantiated by Hibernate, the last statement of the test thread
+    public static class LastStatement implements StatementInspector {
+
+        private static volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            LastStatement.sql = sql;
+            return sql;
+        }
+    }
+}
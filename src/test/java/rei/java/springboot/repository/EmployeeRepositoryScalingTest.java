@@ -0,0 +1,120 @@
+package rei.java.springboot.repository;
+
+import jakarta.persistence.EntityManager;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import rei.java.springboot.fixture.EmployeeFixtures;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Grows the employee table to 10k, 100k and 1M rows and fails when the cost of a repository query grows faster
+ * than its expected complexity class: lookups must stay (close to) constant, findAll must stay linear.
+ * The growth is estimated as the exponent k of cost ~ rows^k between the smallest and the largest table.
+ * <p>
+ * Slow, excluded from the default build: mvn test -Pscaling
+ */
+@Tag("scaling")
+// show-sql would print every one of the ~50k statements
+@DataJpaTest(showSql = false)
+// rows are committed, every query runs in its own transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeRepositoryScalingTest {
+
+    private static final long[] SIZES = {10_000, 100_000, 1_000_000};
+    private static final int LOOKUPS = 500;
+    // a B-tree lookup grows with log(n), a scan with n, i.e. k = 1
+    private static final double MAX_LOOKUP_EXPONENT = 0.5;
+    private static final double MAX_FIND_ALL_EXPONENT = 1.3;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Repository queries keep their complexity class from 10k to 1M rows")
+    public void givenGrowingTable_whenQuery_thenCostGrowsWithinComplexityClass() {
+
+        Map<String, LongConsumer> lookups = new LinkedHashMap<>();
+        lookups.put("findById", n -> assertThat(employeeRepository.findById(n)).isPresent());
+        lookups.put("findByEmail", n -> assertThat(employeeRepository.findByEmail(EmployeeFixtures.email(n))).isPresent());
+        lookups.put("findByJPQL", n -> assertThat(employeeRepository.findByJPQL(EmployeeFixtures.firstName(n), EmployeeFixtures.lastName(n))).isNotNull());
+        lookups.put("findByJPQLNamedParameters", n -> assertThat(employeeRepository.findByJPQLNamedParameters(EmployeeFixtures.firstName(n), EmployeeFixtures.lastName(n))).isNotNull());
+        lookups.put("findByNative", n -> assertThat(employeeRepository.findByNative(EmployeeFixtures.firstName(n), EmployeeFixtures.lastName(n))).isNotNull());
+        lookups.put("findByNativeNamedParameters", n -> assertThat(employeeRepository.findByNativeNamedParameters(EmployeeFixtures.firstName(n), EmployeeFixtures.lastName(n))).isNotNull());
+
+        Map<String, double[]> nanosPerLookup = new LinkedHashMap<>();
+        double[] nanosPerRow = new double[SIZES.length];
+        long rows = 0;
+        for (int i = 0; i < SIZES.length; i++) {
+            EmployeeFixtures.insertEmployees(jdbcTemplate, rows + 1, SIZES[i]);
+            rows = SIZES[i];
+
+            for (Map.Entry<String, LongConsumer> lookup : lookups.entrySet())
+                nanosPerLookup.computeIfAbsent(lookup.getKey(), name -> new double[SIZES.length])[i] = timeLookups(lookup.getValue(), rows);
+            nanosPerRow[i] = timeFindAll(rows);
+        }
+
+        SoftAssertions softly = new SoftAssertions();
+        nanosPerLookup.forEach((query, nanos) -> {
+            double exponent = exponent(nanos[0], nanos[SIZES.length - 1]);
+            System.out.printf("%-28s %s ns/lookup, k=%.2f%n", query, Arrays.toString(round(nanos)), exponent);
+            softly.assertThat(exponent).as("growth exponent of %s", query).isLessThan(MAX_LOOKUP_EXPONENT);
+        });
+        // findAll is measured per row, so a linear scan is a flat cost per row (k of the total = 1 + k per row)
+        double findAllExponent = 1 + exponent(nanosPerRow[0], nanosPerRow[SIZES.length - 1]);
+        System.out.printf("%-28s %s ns/row, k=%.2f%n", "findAll", Arrays.toString(round(nanosPerRow)), findAllExponent);
+        softly.assertThat(findAllExponent).as("growth exponent of findAll").isLessThan(MAX_FIND_ALL_EXPONENT);
+        softly.assertAll();
+    }
+
+    // median of several rounds of LOOKUPS random rows, after warm-up rounds for the JIT
+    private double timeLookups(LongConsumer lookup, long rows) {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] rounds = new double[5];
+        for (int round = -3; round < rounds.length; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++)
+                lookup.accept(1 + random.nextLong(rows));
+            if (round >= 0)
+                rounds[round] = (System.nanoTime() - start) / (double) LOOKUPS;
+        }
+        Arrays.sort(rounds);
+        return rounds[rounds.length / 2];
+    }
+
+    private double timeFindAll(long rows) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            assertThat(employeeRepository.findAll()).hasSize((int) rows);
+            best = Math.min(best, (System.nanoTime() - start) / (double) rows);
+            entityManager.clear();
+        }
+        return best;
+    }
+
+    private static double exponent(double smallCost, double largeCost) {
+        return Math.log(largeCost / smallCost) / Math.log((double) SIZES[SIZES.length - 1] / SIZES[0]);
+    }
+
+    private static long[] round(double[] values) {
+        return Arrays.stream(values).mapToLong(Math::round).toArray();
+    }
+}
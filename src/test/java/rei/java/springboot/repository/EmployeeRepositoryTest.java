@@ -5,6 +5,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import rei.java.springboot.model.Employee;
 
 import java.util.List;
@@ -19,6 +20,8 @@ public class EmployeeRepositoryTest {
 
     @Autowired
     private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     private Employee employee;
 
     // this method will be executed before each test
@@ -124,6 +127,32 @@ public class EmployeeRepositoryTest {
         assertThat(employeeOptional).isEmpty();
     }
 
+    @Test
+    @DisplayName("JUnit test for soft delete: the row is kept as a tombstone that no query returns")
+    public void givenDeletedEmployee_whenFind_thenHiddenButKept() {
+
+        employeeRepository.save(employee);
+        employeeRepository.delete(employee);
+        employeeRepository.flush();
+
+        assertThat(employeeRepository.findAll()).isEmpty();
+        assertThat(employeeRepository.findByEmail(employee.getEmail())).isEmpty();
+        assertThat(employeeRepository.findByJPQL(employee.getFirstName(), employee.getLastName())).isNull();
+        assertThat(employeeRepository.findByNative(employee.getFirstName(), employee.getLastName())).isNull();
+        assertThat(employeeRepository.findByNativeNamedParameters(employee.getFirstName(), employee.getLastName())).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee WHERE deleted_at IS NOT NULL", Integer.class))
+                .isEqualTo(1);
+
+        // the email of a deleted employee can be used again
+        Employee rehired = employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Rei")
+                .lastName("Dallo")
+                .email(employee.getEmail())
+                .build());
+        assertThat(employeeRepository.findByEmail(employee.getEmail())).get()
+                .extracting(Employee::getId).isEqualTo(rehired.getId());
+    }
+
     @Test
     @DisplayName("JUnit test for find employee by JPQL query (index param) operation")
     public void givenEmployee_whenFindByCustomQuery_thenReturnEmployee() {
@@ -0,0 +1,78 @@
+package rei.java.springboot.repository;
+
+import jakarta.persistence.Column;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import rei.java.springboot.model.Employee;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The schema comes from the Flyway migrations, ddl-auto=validate makes Hibernate fail the context if the
+// Employee mapping does not match it
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+public class EmployeeSchemaTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("Migrated column sizes match the Employee mapping")
+    public void givenMigratedSchema_whenReadColumns_thenSizesMatchMapping() throws Exception {
+
+        Map<String, Integer> columnSizes = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             ResultSet columns = connection.getMetaData().getColumns(null, null, tableName(connection), null)) {
+            while (columns.next())
+                columnSizes.put(columns.getString("COLUMN_NAME").toLowerCase(), columns.getInt("COLUMN_SIZE"));
+        }
+
+        assertThat(columnSizes.get("first_name")).isEqualTo(mappedLength("firstName"));
+        assertThat(columnSizes.get("last_name")).isEqualTo(mappedLength("lastName"));
+        assertThat(columnSizes.get("email")).isEqualTo(mappedLength("email"));
+    }
+
+    @Test
+    @DisplayName("Repository lookups are backed by indexes")
+    public void givenMigratedSchema_whenReadIndexes_thenLookupColumnsAreIndexed() throws Exception {
+
+        Map<String, List<String>> indexColumns = new LinkedHashMap<>();
+        Map<String, Boolean> uniqueIndexes = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             ResultSet indexes = connection.getMetaData().getIndexInfo(null, null, tableName(connection), false, false)) {
+            while (indexes.next()) {
+                String indexName = indexes.getString("INDEX_NAME").toLowerCase();
+                indexColumns.computeIfAbsent(indexName, name -> new ArrayList<>())
+                        .add(indexes.getString("COLUMN_NAME").toLowerCase());
+                uniqueIndexes.put(indexName, !indexes.getBoolean("NON_UNIQUE"));
+            }
+        }
+
+        // unique among live rows only: deleted rows have no active_email
+        assertThat(indexColumns.get("uk_employee_active_email")).containsExactly("active_email");
+        assertThat(uniqueIndexes.get("uk_employee_active_email")).isTrue();
+        assertThat(indexColumns.get("idx_employee_email_deleted_at")).containsExactly("email", "deleted_at");
+        assertThat(indexColumns.get("idx_employee_deleted_at")).containsExactly("deleted_at");
+        assertThat(indexColumns.get("idx_employee_first_name_last_name")).containsExactly("first_name", "last_name");
+    }
+
+    private static String tableName(Connection connection) throws Exception {
+        DatabaseMetaData metaData = connection.getMetaData();
+        return metaData.storesUpperCaseIdentifiers() ? "EMPLOYEE" : "employee";
+    }
+
+    private static int mappedLength(String field) throws NoSuchFieldException {
+        return Employee.class.getDeclaredField(field).getAnnotation(Column.class).length();
+    }
+}
@@ -0,0 +1,132 @@
+package rei.java.springboot.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CircuitBreakerTest {
+
+    private static final Duration FAST = Duration.ofMillis(5);
+    private static final Duration SLOW = Duration.ofMillis(200);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(Instant.parse("2023-01-01T00:00:00Z"));
+    // window of 10, at least 4 calls, half of them slow or failed; open for 10s, then 2 probes
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("test.circuit", Duration.ofMillis(100), 0.5, 0.5,
+            10, 4, Duration.ofSeconds(10), 2, meterRegistry, clock);
+
+    @Test
+    @DisplayName("JUnit test for the circuit breaker opening on slow calls")
+    public void givenSlowCalls_whenRecord_thenOpen() {
+
+        // given
+        call(FAST, false);
+        call(FAST, false);
+        call(SLOW, false);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        // when
+        call(SLOW, false);
+        // then
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.acquire()).isNegative();
+        assertThat(meterRegistry.get("test.circuit.calls").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("test.circuit.state").tag("state", "open").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for the circuit breaker opening on failures, slow and fast ones alike")
+    public void givenFailedCalls_whenRecord_thenOpen() {
+
+        // given
+        for (int i = 0; i < 6; i++)
+            call(FAST, false);
+        // when
+        for (int i = 0; i < 4; i++)
+            call(FAST, true);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        call(SLOW, true);
+        // then, 5 failures among the last 10 calls
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    @DisplayName("JUnit test for the circuit breaker closing after successful probes")
+    public void givenOpenBreaker_whenProbesSucceed_thenClosed() {
+
+        // given
+        open();
+        clock.instant = clock.instant.plusSeconds(10);
+        // when
+        long first = circuitBreaker.acquire();
+        long second = circuitBreaker.acquire();
+        // then, no more than 2 probes at once
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(circuitBreaker.acquire()).isNegative();
+        circuitBreaker.record(first, FAST, false);
+        circuitBreaker.record(second, FAST, false);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("JUnit test for the circuit breaker opening again on a slow probe, ignoring older calls")
+    public void givenHalfOpenBreaker_whenProbeSlow_thenOpenAgain() {
+
+        // given, a call permitted before the breaker opened completes while it is half-open
+        long before = circuitBreaker.acquire();
+        open();
+        clock.instant = clock.instant.plusSeconds(10);
+        long probe = circuitBreaker.acquire();
+        circuitBreaker.record(before, SLOW, true);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        // when
+        circuitBreaker.record(probe, SLOW, false);
+        // then
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        clock.instant = clock.instant.plusSeconds(5);
+        assertThat(circuitBreaker.acquire()).isNegative();
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++)
+            call(SLOW, false);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void call(Duration duration, boolean failed) {
+        long permit = circuitBreaker.acquire();
+        assertThat(permit).isNotNegative();
+        circuitBreaker.record(permit, duration, failed);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package rei.java.springboot.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import rei.java.springboot.model.Employee;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EmployeeRepositoryGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("employee.circuit", Duration.ofSeconds(1), 0.5,
+            0.5, 10, 4, Duration.ofMinutes(1), 1, meterRegistry);
+    private final EmployeeRepositoryGuard guard = new EmployeeRepositoryGuard(circuitBreaker,
+            new Bulkhead("read", 2, Duration.ofMillis(50), meterRegistry),
+            new Bulkhead("write", 1, Duration.ofMillis(50), meterRegistry));
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the bulkheads, reads holding all theirs do not keep writes waiting")
+    public void givenReadBulkheadFull_whenRead_thenRejectedAndWritesStillPass() throws Exception {
+
+        // given, both reads stuck in the database
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 2; i++)
+            executor.submit(() -> guard.read(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        // when
+        EmployeeUnavailableException rejected = assertThrows(EmployeeUnavailableException.class,
+                () -> guard.read(() -> new Employee()));
+        Employee written = guard.write(() -> Employee.builder().id(1L).build());
+        // then
+        assertThat(rejected).hasMessageContaining("too many reads");
+        assertThat(written.getId()).isEqualTo(1L);
+        assertThat(meterRegistry.get("employee.bulkhead.rejected").tag("bulkhead", "read").counter().count()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the failures counted by the guard, only infrastructure errors")
+    public void givenErrors_whenCall_thenOnlyInfrastructureErrorsOpenTheBreaker() {
+
+        // given, answers of a healthy database
+        for (int i = 0; i < 5; i++) {
+            assertThrows(EmptyResultDataAccessException.class, () -> guard.write(() -> {
+                throw new EmptyResultDataAccessException(1);
+            }));
+            assertThrows(ObjectOptimisticLockingFailureException.class, () -> guard.write(() -> {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, 1L);
+            }));
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        // when, 5 timeouts among the last 10 calls
+        for (int i = 0; i < 5; i++)
+            assertThrows(QueryTimeoutException.class, () -> guard.read(() -> {
+                throw new QueryTimeoutException("timeout");
+            }));
+        // then, writes fail fast
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThrows(EmployeeUnavailableException.class, () -> guard.write(() -> new Employee()));
+    }
+}
@@ -0,0 +1,181 @@
+package rei.java.springboot.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import rei.java.springboot.model.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static rei.java.springboot.fixture.EmployeeFixtures.employee;
+
+// What every EmployeeService backend has to do, checked against the real thing instead of mocks:
+// EmployeeServiceImplContractTest (JPA) and InMemoryEmployeeServiceTest (memory-store profile)
+public abstract class EmployeeServiceContractTest {
+
+    protected abstract EmployeeService employeeService();
+
+    @Test
+    @DisplayName("Contract: saveEmployee assigns an id and version 0")
+    public void givenEmployee_whenSaveEmployee_thenIdAssigned() {
+
+        Employee savedEmployee = employeeService().saveEmployee(employee("save@domain.com"));
+
+        assertThat(savedEmployee.getId()).isPositive();
+        assertThat(savedEmployee.getVersion()).isZero();
+        assertThat(employeeService().getEmployeeById(savedEmployee.getId()))
+                .hasValueSatisfying(found -> assertThat(found.getEmail()).isEqualTo("save@domain.com"));
+    }
+
+    @Test
+    @DisplayName("Contract: saveEmployee rejects an email that is taken")
+    public void givenExistingEmail_whenSaveEmployee_thenThrowsException() {
+
+        employeeService().saveEmployee(employee("taken@domain.com"));
+
+        assertThrows(IllegalStateException.class, () -> employeeService().saveEmployee(employee("taken@domain.com")));
+    }
+
+    @Test
+    @DisplayName("Contract: saveEmployee and updateEmployee reject values longer than their columns")
+    public void givenTooLongValue_whenSaveEmployee_thenThrowsException() {
+
+        Employee tooLong = employee("long@domain.com");
+        tooLong.setFirstName("R".repeat(101));
+        assertThrows(DataIntegrityViolationException.class, () -> employeeService().saveEmployee(tooLong));
+
+        Employee employee = employeeService().saveEmployee(employee("long@domain.com"));
+        employee.setEmail("e".repeat(70_000) + "@domain.com");
+        assertThrows(DataIntegrityViolationException.class, () -> employeeService().updateEmployee(employee));
+        assertThat(employeeService().getEmployeeById(employee.getId()))
+                .hasValueSatisfying(found -> assertThat(found.getEmail()).isEqualTo("long@domain.com"));
+    }
+
+    @Test
+    @DisplayName("Contract: getAllEmployee and getEmployeesById return the saved employees, in id order")
+    public void givenEmployees_whenGetAllEmployee_thenInIdOrder() {
+
+        long first = employeeService().saveEmployee(employee("first@domain.com")).getId();
+        long second = employeeService().saveEmployee(employee("second@domain.com")).getId();
+
+        assertThat(employeeService().getAllEmployee()).extracting(Employee::getId).containsSubsequence(first, second);
+        assertThat(employeeService().getEmployeesById(List.of(second, first, 0L))).containsOnlyKeys(first, second);
+        assertThat(employeeService().getEmployeeById(0L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Contract: streamAllEmployees, where the backend offers it, writes the JSON array of getAllEmployee")
+    public void givenEmployees_whenStreamAllEmployees_thenJsonOfGetAllEmployee() throws IOException {
+
+        employeeService().saveEmployee(employee("first@domain.com"));
+        employeeService().saveEmployee(employee("second@domain.com"));
+
+        Optional<StreamingResponseBody> body = employeeService().streamAllEmployees();
+        assumeTrue(body.isPresent(), "the backend returns the list itself");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.get().writeTo(out);
+
+        List<Employee> streamed = new ObjectMapper().readValue(out.toByteArray(), new TypeReference<>() {});
+        assertThat(streamed).usingRecursiveComparison().isEqualTo(employeeService().getAllEmployee());
+    }
+
+    @Test
+    @DisplayName("Contract: getEmployeeByName finds the one live employee of that name, fails when there are several")
+    public void givenEmployees_whenGetEmployeeByName_thenUniqueNameFound() {
+
+        Employee employee = employee("named@domain.com");
+        employee.setFirstName("Oni");
+        long id = employeeService().saveEmployee(employee).getId();
+        Employee deleted = employee("deleted@domain.com");
+        deleted.setFirstName("Oni");
+        employeeService().deleteEmployee(employeeService().saveEmployee(deleted).getId());
+        employeeService().saveEmployee(employee("first@domain.com"));
+        employeeService().saveEmployee(employee("second@domain.com"));
+
+        assertThat(employeeService().getEmployeeByName("Oni", "Dallo"))
+                .hasValueSatisfying(found -> assertThat(found.getId()).isEqualTo(id));
+        assertThat(employeeService().getEmployeeByName("Oni", "Dado")).isEmpty();
+        assertThrows(IncorrectResultSizeDataAccessException.class,
+                () -> employeeService().getEmployeeByName("Rei", "Dallo"));
+    }
+
+    @Test
+    @DisplayName("Contract: updateEmployee applies the changes and increments the version")
+    public void givenEmployee_whenUpdateEmployee_thenVersionIncremented() {
+
+        Employee employee = employeeService().saveEmployee(employee("update@domain.com"));
+        employee.setEmail("updated@domain.com");
+
+        Employee updatedEmployee = employeeService().updateEmployee(employee);
+
+        assertThat(updatedEmployee.getVersion()).isEqualTo(1);
+        assertThat(employeeService().getEmployeeById(employee.getId()))
+                .hasValueSatisfying(found -> {
+                    assertThat(found.getEmail()).isEqualTo("updated@domain.com");
+                    assertThat(found.getVersion()).isEqualTo(1);
+                });
+    }
+
+    @Test
+    @DisplayName("Contract: an update without version check is applied on top of a concurrent one")
+    public void givenStaleEmployee_whenUpdateEmployee_thenApplied() {
+
+        Employee employee = employeeService().saveEmployee(employee("stale@domain.com"));
+        Employee stale = employeeService().getEmployeeById(employee.getId()).orElseThrow();
+        employee.setFirstName("Oni");
+        employeeService().updateEmployee(employee);
+
+        stale.setLastName("Dado");
+        Employee updatedEmployee = employeeService().updateEmployee(stale);
+
+        assertThat(updatedEmployee.getLastName()).isEqualTo("Dado");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Contract: an update with an expected version fails once the employee moved on")
+    public void givenStaleVersion_whenUpdateEmployee_thenThrowsException() {
+
+        Employee employee = employeeService().saveEmployee(employee("conditional@domain.com"));
+        Employee stale = employeeService().getEmployeeById(employee.getId()).orElseThrow();
+        employee.setFirstName("Oni");
+        employeeService().updateEmployee(employee, 0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> employeeService().updateEmployee(stale, 0));
+        assertThat(employeeService().getEmployeeById(employee.getId()).orElseThrow().getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Contract: an update that changes nothing keeps the version")
+    public void givenUnchangedEmployee_whenUpdateEmployee_thenVersionKept() {
+
+        Employee employee = employeeService().saveEmployee(employee("unchanged@domain.com"));
+
+        assertThat(employeeService().updateEmployee(employee).getVersion()).isZero();
+    }
+
+    @Test
+    @DisplayName("Contract: deleteEmployee removes the employee, and frees the email")
+    public void givenEmployee_whenDeleteEmployee_thenGone() {
+
+        long id = employeeService().saveEmployee(employee("delete@domain.com")).getId();
+
+        employeeService().deleteEmployee(id);
+
+        assertThat(employeeService().getEmployeeById(id)).isEmpty();
+        assertThat(employeeService().saveEmployee(employee("delete@domain.com")).getId()).isNotEqualTo(id);
+        assertThrows(EmptyResultDataAccessException.class, () -> employeeService().deleteEmployee(id));
+    }
+}
@@ -0,0 +1,47 @@
+package rei.java.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import rei.java.springboot.cache.EmployeeCache;
+import rei.java.springboot.cache.EmployeeInvalidationBus;
+import rei.java.springboot.cache.InvalidationTransport;
+import rei.java.springboot.repository.EmployeeNameLookup;
+import rei.java.springboot.repository.EmployeeRepository;
+import rei.java.springboot.resilience.EmployeeRepositoryGuard;
+import rei.java.springboot.service.implementation.EmployeeServiceImpl;
+
+import java.time.Duration;
+
+// every call in its own transaction, as from the controller; the rows are committed, so the test gets a context
+// and database of its own instead of sharing them with the rolled back @DataJpaTest classes
+@DataJpaTest(properties = "spring.datasource.name=employee-service-contract")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeServiceImplContractTest extends EmployeeServiceContractTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private EmployeeService employeeService;
+
+    @BeforeEach
+    public void setup() {
+        // deleteAll() would only tombstone the rows
+        jdbcTemplate.update("DELETE FROM employee");
+        EmployeeCache employeeCache = new EmployeeCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        employeeService = new EmployeeServiceImpl(employeeRepository, employeeCache, new EmployeeInvalidationBus(
+                employeeCache, InvalidationTransport.none(), 1000, new SimpleMeterRegistry()),
+                new EmployeeNameLookup(employeeRepository, null, 100, new SimpleMeterRegistry()),
+                EmployeeRepositoryGuard.none(), new SimpleMeterRegistry());
+    }
+
+    @Override
+    protected EmployeeService employeeService() {
+        return employeeService;
+    }
+}
@@ -1,19 +1,31 @@
 package rei.java.springboot.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import rei.java.springboot.cache.EmployeeCache;
+import rei.java.springboot.cache.EmployeeInvalidationBus;
 import rei.java.springboot.model.Employee;
+import rei.java.springboot.repository.EmployeeNameLookup;
 import rei.java.springboot.repository.EmployeeRepository;
+import rei.java.springboot.resilience.EmployeeRepositoryGuard;
 import rei.java.springboot.service.implementation.EmployeeServiceImpl;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -29,6 +41,17 @@ public class EmployeeServiceTest {
     // Mock using ** @Mock ** annotation
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private EmployeeCache employeeCache;
+    @Mock
+    private EmployeeInvalidationBus invalidationBus;
+    @Mock
+    private EmployeeNameLookup nameLookup;
+    // a pass-through, the breaker and the bulkheads are tested on their own
+    @Spy
+    private EmployeeRepositoryGuard guard = EmployeeRepositoryGuard.none();
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
     @InjectMocks
     private EmployeeServiceImpl employeeService;
     private Employee employee;
@@ -136,6 +159,19 @@ public class EmployeeServiceTest {
         assertThat(employeeOptional).isEmpty();
     }
 
+    @Test
+    @DisplayName("JUnit test for getEmployeeByName method")
+    public void givenName_whenGetEmployeeByName_thenReturnEmployee() {
+
+        // given
+        given(nameLookup.find("Rei", "Dallo")).willReturn(employee);
+        // when
+        Optional<Employee> employeeOptional = employeeService.getEmployeeByName("Rei", "Dallo");
+        // then
+        assertThat(employeeOptional).contains(employee);
+        verifyNoInteractions(employeeRepository);
+    }
+
     @Test
     @DisplayName("JUnit test for updateEmployee method")
     public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() {
@@ -148,6 +184,75 @@ public class EmployeeServiceTest {
         // then
         assertThat(updatedEmployee).isNotNull();
         assertThat(updatedEmployee.getEmail()).isEqualTo("rei@domain.com");
+        verify(invalidationBus).invalidate(1L);
+    }
+
+    @Test
+    @DisplayName("JUnit test for updateEmployee method retrying an optimistic locking conflict")
+    public void givenConcurrentUpdate_whenUpdateEmployee_thenRetryOnLatestVersion() {
+
+        // given
+        Employee latest = Employee.builder().id(1L).firstName("Oni").lastName("Dado").email("od@domain.com").version(1L).build();
+        given(employeeRepository.save(employee)).willThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1L));
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(latest));
+        given(employeeRepository.save(latest)).willReturn(latest);
+        employee.setEmail("rei@domain.com");
+        // when
+        Employee updatedEmployee = employeeService.updateEmployee(employee);
+        // then
+        assertThat(updatedEmployee).isSameAs(latest);
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("Rei");
+        assertThat(updatedEmployee.getEmail()).isEqualTo("rei@domain.com");
+    }
+
+    @Test
+    @DisplayName("JUnit test for updateEmployee method giving up after the last attempt")
+    public void givenPersistentConflict_whenUpdateEmployee_thenThrowsException() {
+
+        // given
+        given(employeeRepository.save(any(Employee.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1L));
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        // when
+        assertThrows(OptimisticLockingFailureException.class, () -> employeeService.updateEmployee(employee));
+        // then
+        verify(employeeRepository, times(EmployeeServiceImpl.MAX_UPDATE_ATTEMPTS)).save(any(Employee.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for updateEmployee method with an expected version")
+    public void givenStaleExpectedVersion_whenUpdateEmployee_thenThrowsWithoutSaving() {
+
+        // given
+        employee.setVersion(2L);
+        // when
+        assertThrows(OptimisticLockingFailureException.class, () -> employeeService.updateEmployee(employee, 1L));
+        // then
+        verify(employeeRepository, never()).save(any(Employee.class));
+        assertThat(meterRegistry.get("employee.update.conflicts").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for getEmployeesById method, cached employees are not queried")
+    public void givenPartlyCachedIds_whenGetEmployeesById_thenQueryOnlyTheOthers() {
+
+        Employee anotherEmployee = Employee.builder()
+                .id(2L)
+                .firstName("Oni")
+                .lastName("Dallo")
+                .email("od@domain.com")
+                .build();
+        List<Long> ids = List.of(1L, 2L, 3L, 2L);
+        // given
+        given(employeeCache.getAll(ids)).willReturn(new HashMap<>(Map.of(1L, employee)));
+        given(employeeCache.generation()).willReturn(7L);
+        given(employeeRepository.findByIdIn(Set.of(2L, 3L))).willReturn(List.of(anotherEmployee));
+        // when
+        Map<Long, Employee> employees = employeeService.getEmployeesById(ids);
+        // then
+        assertThat(employees).containsOnlyKeys(1L, 2L);
+        verify(employeeRepository, times(1)).findByIdIn(Set.of(2L, 3L));
+        verify(employeeCache).putAll(List.of(anotherEmployee), 7L);
     }
 
     @Test
@@ -163,5 +268,6 @@ public class EmployeeServiceTest {
         // verifying that the method is called only once
         // then
         verify(employeeRepository, times(1)).deleteById(employeeId);
+        verify(invalidationBus).invalidate(employeeId);
     }
 }
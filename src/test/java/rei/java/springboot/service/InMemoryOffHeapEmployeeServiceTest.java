@@ -0,0 +1,35 @@
+package rei.java.springboot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import rei.java.springboot.service.implementation.InMemoryEmployeeService;
+import rei.java.springboot.store.EmployeeStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// the same contract with the store's rows off the heap (employee.store.off-heap=true)
+public class InMemoryOffHeapEmployeeServiceTest extends EmployeeServiceContractTest {
+
+    @TempDir
+    private Path directory;
+    private EmployeeStore employeeStore;
+    private EmployeeService employeeService;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        employeeStore = EmployeeStore.open(directory, false, true);
+        employeeService = new InMemoryEmployeeService(employeeStore);
+    }
+
+    @AfterEach
+    public void close() throws IOException {
+        employeeStore.close();
+    }
+
+    @Override
+    protected EmployeeService employeeService() {
+        return employeeService;
+    }
+}
@@ -0,0 +1,99 @@
+package rei.java.springboot.stats;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeStatisticsTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2023-01-01T00:00:00Z"));
+    private final EmployeeStatistics statistics = new EmployeeStatistics(clock);
+
+    @Test
+    @DisplayName("JUnit test for the counters maintained by creates, updates and deletes")
+    public void givenWrites_whenSnapshot_thenCountsByDomainAndInitial() {
+
+        statistics.created("rd@domain.com", "Dallo");
+        statistics.created("od@Domain.com", "dado");
+        statistics.created("ab@other.org", "Bell");
+        statistics.updated("ab@other.org", "Bell", "ab@domain.com", "Ball");
+        statistics.deleted("od@Domain.com", "dado");
+
+        EmployeeStats stats = statistics.snapshot();
+
+        assertThat(stats.total()).isEqualTo(2);
+        assertThat(stats.byEmailDomain()).containsExactly(Map.entry("domain.com", 2L));
+        assertThat(stats.byLastNameInitial()).containsExactly(Map.entry("B", 1L), Map.entry("D", 1L));
+        assertThat(stats.reconciledAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the creation rate, creations older than an hour are dropped")
+    public void givenCreationsOverTime_whenSnapshot_thenCreationRateOfTheLastHour() {
+
+        statistics.created("rd@domain.com", "Dallo");
+        clock.instant = clock.instant.plus(Duration.ofMinutes(30));
+        statistics.created("od@domain.com", "Dado");
+        statistics.created("ab@domain.com", "Bell");
+
+        assertThat(statistics.snapshot().creationRate()).isEqualTo(new EmployeeStats.CreationRate(2, 3));
+
+        clock.instant = clock.instant.plus(Duration.ofMinutes(31));
+        assertThat(statistics.snapshot().creationRate()).isEqualTo(new EmployeeStats.CreationRate(0, 2));
+
+        clock.instant = clock.instant.plus(Duration.ofMinutes(30));
+        statistics.created("cd@domain.com", "Dallo");
+        assertThat(statistics.snapshot().creationRate()).isEqualTo(new EmployeeStats.CreationRate(1, 1));
+    }
+
+    @Test
+    @DisplayName("JUnit test for the reconciliation with the counts of the database")
+    public void givenDrift_whenReconcile_thenCountersMatchDatabase() {
+
+        statistics.created("rd@domain.com", "Dallo");
+        statistics.created("ab@other.org", "Bell");
+
+        // other.org was deleted and two domain.com employees were imported, bypassing the listener
+        long drift = statistics.reconcile(3, Map.of("domain.com", 3L), Map.of("D", 2L, "B", 1L));
+
+        EmployeeStats stats = statistics.snapshot();
+        // total +1, domain.com +2, other.org -1, D +1
+        assertThat(drift).isEqualTo(5);
+        assertThat(stats.total()).isEqualTo(3);
+        assertThat(stats.byEmailDomain()).containsExactly(Map.entry("domain.com", 3L));
+        assertThat(stats.byLastNameInitial()).containsExactly(Map.entry("B", 1L), Map.entry("D", 2L));
+        assertThat(stats.reconciledAt()).isEqualTo(clock.instant);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package rei.java.springboot.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import rei.java.springboot.model.Employee;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EmployeeStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("JUnit test for the email and name indexes of the store")
+    public void givenEmployees_whenFindByEmailAndName_thenFromIndexes() throws IOException {
+
+        try (EmployeeStore store = EmployeeStore.open(directory, false)) {
+            Employee rei = store.insert(employee("Rei", "Dallo", "rd@domain.com"));
+            Employee oni = store.insert(employee("Oni", "Dallo", "od@domain.com"));
+            store.insert(employee("Rei", "Dallo", "rei@domain.com"));
+
+            assertThat(store.findByEmail("od@domain.com")).hasValueSatisfying(found -> assertThat(found.getId()).isEqualTo(oni.getId()));
+            assertThat(store.findByName("Rei", "Dallo")).hasSize(2);
+            assertThrows(DuplicateKeyException.class, () -> store.insert(employee("Ann", "Bell", "rd@domain.com")));
+
+            rei.setFirstName("Ann");
+            rei.setEmail("ann@domain.com");
+            store.update(rei, EmployeeStore.ANY_VERSION);
+
+            assertThat(store.findByEmail("rd@domain.com")).isEmpty();
+            assertThat(store.findByName("Rei", "Dallo")).hasSize(1);
+            assertThat(store.findByName("Ann", "Dallo")).extracting(Employee::getId).containsExactly(rei.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for the recovery of the store from its snapshot and the log written after it")
+    public void givenSnapshotAndLog_whenOpen_thenRecovered() throws IOException {
+
+        long deleted;
+        long updated;
+        try (EmployeeStore store = EmployeeStore.open(directory, true)) {
+            updated = store.insert(employee("Rei", "Dallo", "rd@domain.com")).getId();
+            deleted = store.insert(employee("Oni", "Dallo", "od@domain.com")).getId();
+            store.snapshot();
+            Employee employee = store.findById(updated).orElseThrow();
+            employee.setLastName("Dado");
+            store.update(employee, 0);
+            store.delete(deleted);
+            store.insert(employee("Ann", "Bell", "ab@domain.com"));
+        }
+
+        try (EmployeeStore store = EmployeeStore.open(directory, true)) {
+            assertThat(store.size()).isEqualTo(2);
+            assertThat(store.findById(updated)).hasValueSatisfying(found -> {
+                assertThat(found.getLastName()).isEqualTo("Dado");
+                assertThat(found.getVersion()).isEqualTo(1);
+            });
+            assertThat(store.findById(deleted)).isEmpty();
+            // the highest id is not handed out again, although its row is gone
+            assertThat(store.insert(employee("Cid", "Cole", "cc@domain.com")).getId()).isEqualTo(4);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            // the last snapshot, and the empty log started after it
+            assertThat(files.map(path -> path.getFileName().toString())).hasSize(2);
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for a value longer than its column, it is rejected before it reaches the log")
+    public void givenTooLongValue_whenInsert_thenRejectedAndLogStillReplayed() throws IOException {
+
+        try (EmployeeStore store = EmployeeStore.open(directory, true)) {
+            store.insert(employee("Rei", "Dallo", "rd@domain.com"));
+            // within what writeUTF takes, but beyond the email column
+            assertThrows(DataIntegrityViolationException.class,
+                    () -> store.insert(employee("Oni", "Dallo", "o".repeat(60_000) + "@domain.com")));
+            assertThrows(DataIntegrityViolationException.class, () -> store.insert(employee(null, "Dallo", "od@domain.com")));
+            store.insert(employee("Ann", "Bell", "ab@domain.com"));
+        }
+
+        try (EmployeeStore store = EmployeeStore.open(directory, true)) {
+            assertThat(store.size()).isEqualTo(2);
+            assertThat(store.findByEmail("ab@domain.com")).isPresent();
+            store.snapshot();
+        }
+        try (EmployeeStore store = EmployeeStore.open(directory, true)) {
+            assertThat(store.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for a write torn by a crash, the log is replayed up to it")
+    public void givenTornRecord_whenOpen_thenRecoveredUpToIt() throws IOException {
+
+        EmployeeStore crashed = EmployeeStore.open(directory, true);
+        crashed.insert(employee("Rei", "Dallo", "rd@domain.com"));
+        crashed.insert(employee("Oni", "Dallo", "od@domain.com"));
+        // no close(), i.e. no snapshot: the second record loses its last bytes
+        Path log;
+        try (Stream<Path> files = Files.list(directory)) {
+            log = files.filter(path -> path.getFileName().toString().startsWith("wal-")).findFirst().orElseThrow();
+        }
+        try (var channel = Files.newByteChannel(log, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(log) - 3);
+        }
+
+        try (EmployeeStore store = EmployeeStore.open(directory, true)) {
+            assertThat(store.findAll()).extracting(Employee::getEmail).containsExactly("rd@domain.com");
+            store.insert(employee("Oni", "Dallo", "od@domain.com"));
+        }
+        try (EmployeeStore store = EmployeeStore.open(directory, true)) {
+            assertThat(store.size()).isEqualTo(2);
+        }
+    }
+
+    private static Employee employee(String firstName, String lastName, String email) {
+        return Employee.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package rei.java.springboot.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LongObjectMapTest {
+
+    @Test
+    @DisplayName("JUnit test for the open addressing map against HashMap, with resizes and back shifted removals")
+    public void givenRandomOperations_whenApplied_thenSameAsHashMap() {
+
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            // a small key range, so that keys collide, are replaced and removed again
+            long key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0)
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            else
+                assertThat(map.put(key, "v" + i)).isEqualTo(expected.put(key, "v" + i));
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = -100; key < 4_900; key++)
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        Map<String, Boolean> values = new HashMap<>();
+        map.forEach(value -> values.put(value, true));
+        assertThat(values.keySet()).containsExactlyInAnyOrderElementsOf(expected.values());
+    }
+}
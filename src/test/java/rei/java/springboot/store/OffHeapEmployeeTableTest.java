@@ -0,0 +1,90 @@
+package rei.java.springboot.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import rei.java.springboot.json.EmployeeJsonComponent;
+import rei.java.springboot.model.Employee;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OffHeapEmployeeTableTest {
+
+    @Test
+    @DisplayName("JUnit test for the indexes of the off-heap table, on in place and relocating updates")
+    public void givenUpdates_whenLookingUp_thenIndexesFollow() {
+
+        // given
+        OffHeapEmployeeTable table = new OffHeapEmployeeTable();
+        table.put(new StoredEmployee(1, "Rei", "Dallo", "rd@domain.com", 0));
+        table.put(new StoredEmployee(2, "Rei", "Dallo", "rei@domain.com", 0));
+        table.put(new StoredEmployee(3, "Oni", "Dallo", "od@domain.com", 0));
+
+        // when: a same size record is overwritten, a longer one moves
+        table.put(new StoredEmployee(1, "Ann", "Dallo", "ad@domain.com", 1));
+        table.put(new StoredEmployee(3, "Oni", "Dallo", "oni.dallo@domain.com", 1));
+        table.remove(2);
+
+        // then
+        assertThat(table.get(1)).isEqualTo(new StoredEmployee(1, "Ann", "Dallo", "ad@domain.com", 1));
+        assertThat(table.get(2)).isNull();
+        assertThat(table.idByEmail("rd@domain.com")).isEqualTo(EmployeeTable.NO_ID);
+        assertThat(table.idByEmail("oni.dallo@domain.com")).isEqualTo(3);
+        assertThat(table.idsByName("Rei", "Dallo")).isEmpty();
+        assertThat(table.idsByName("Ann", "Dallo")).containsExactly(1);
+        assertThat(table.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("JUnit test for the compaction of the slabs once they are mostly garbage")
+    public void givenRewrittenRows_whenGarbageAccumulates_thenCompacted() {
+
+        // given: slabs of 4 KiB, 64 to 100 records each
+        OffHeapEmployeeTable table = new OffHeapEmployeeTable(4096);
+        for (long id = 1; id <= 200; id++)
+            table.put(new StoredEmployee(id, "Rei", "Dallo", "rd" + id + "@domain.com", 0));
+
+        // when: every row moves, five times
+        for (int version = 1; version <= 5; version++)
+            for (long id = 1; id <= 200; id++)
+                table.put(new StoredEmployee(id, "Rei", "Dallo", email(version, id), version));
+
+        // then: 16 KiB live and at most as much garbage, instead of 18 slabs without compaction
+        assertThat(table.offHeapBytes()).isLessThanOrEqualTo(8 * 4096);
+        assertThat(table.idsByName("Rei", "Dallo")).hasSize(200);
+        for (long id = 1; id <= 200; id++) {
+            assertThat(table.get(id).email()).isEqualTo(email(5, id));
+            assertThat(table.idByEmail(email(5, id))).isEqualTo(id);
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for the JSON written from the off-heap bytes, the same as the Jackson serializer's")
+    public void givenRow_whenWriteJson_thenSameAsSerializer() throws Exception {
+
+        // given
+        StoredEmployee employee = new StoredEmployee(42, "Zoë", "O\"Dallo", "r\\d\t@domain.com", 7);
+        OffHeapEmployeeTable table = new OffHeapEmployeeTable();
+        table.put(employee);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(
+                new SimpleModule().addSerializer(Employee.class, new EmployeeJsonComponent.Serializer()));
+
+        // when
+        EmployeeJsonBuffer json = new EmployeeJsonBuffer(16);
+        boolean found = table.writeJson(42, json);
+
+        // then
+        assertThat(found).isTrue();
+        assertThat(new String(json.toByteArray(), StandardCharsets.UTF_8))
+                .isEqualTo(objectMapper.writeValueAsString(employee.toEmployee()));
+        assertThat(table.writeJson(43, json)).isFalse();
+    }
+
+    // 8 bytes longer per version, so that every update moves the record
+    private static String email(int version, long id) {
+        return "r".repeat(8 * version) + id + "@domain.com";
+    }
+}